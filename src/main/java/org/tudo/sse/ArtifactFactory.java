@@ -1,35 +1,72 @@
 package org.tudo.sse;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import org.tudo.sse.model.*;
 import org.tudo.sse.model.index.IndexInformation;
 import org.tudo.sse.model.jar.JarInformation;
 import org.tudo.sse.model.pom.PomInformation;
+import org.tudo.sse.storage.IArtifactStore;
+import org.tudo.sse.storage.UnboundedArtifactStore;
 
 /**
  * The ArtifactFactory handles the creation and storage of artifacts resolved.
  * Using a map double resolutions are avoided and faster retrievals are possible.
+ * The map is safe for concurrent access, so artifacts can be created and retrieved from multiple resolver threads.
+ * Artifacts are kept in an exchangeable store, which defines how long they are retained (by default, forever).
  */
 public final class ArtifactFactory {
 
     private ArtifactFactory() {}
 
+    private static volatile IArtifactStore store = new UnboundedArtifactStore();
+
+    /**
+     * A map that stores all artifacts collected during index, pom, and jar resolution. This is a view of the current
+     * artifact store, i.e. it only contains the artifacts retained by the store.
+     */
+    public static final Map<ArtifactIdent, Artifact> artifacts = new StoreView();
+
+    /**
+     * Gets the store that currently holds the artifacts.
+     * @return The current artifact store
+     */
+    public static IArtifactStore getStore() {
+        return store;
+    }
+
+    /**
+     * Replaces the store that holds the artifacts. Artifacts held by the previous store are not transferred.
+     * @param newStore The artifact store to use from now on
+     */
+    public static void setStore(IArtifactStore newStore) {
+        store = Objects.requireNonNull(newStore);
+    }
+
     /**
-     * A map that stores all artifacts collected during index, pom, and jar resolution.
+     * Signals that the artifact with the given identifier has been analyzed, allowing the store to evict it.
+     * @param ident The identifier of the analyzed artifact
      */
-    public static final Map<ArtifactIdent, Artifact> artifacts = new HashMap<>();
+    public static void release(ArtifactIdent ident) {
+        if(ident != null) {
+            store.release(ident);
+        }
+    }
 
     /**
-     * This method creates a new Artifact or retrieves it from the map.
+     * This method creates a new Artifact or retrieves it from the map. Creating the artifact or merging the information
+     * into an existing one happens atomically, so concurrent calls for the same identifier never produce two artifacts or
+     * lose information.
      * @param artifactInformation an identifier used to keep track of artifacts
      * @return a newly created or retrieved artifact
      */
     public static Artifact createArtifact(ArtifactInformation artifactInformation) {
-
-        //first check if it exists in artifacts
-        if(artifacts.containsKey(artifactInformation.getIdent())) {
-            Artifact current = artifacts.get(artifactInformation.getIdent());
+        return store.compute(artifactInformation.getIdent(), (ident, current) -> {
+            if(current == null) {
+                return newArtifact(artifactInformation);
+            }
 
             //see if it matches an empty field
             if(current.getIndexInformation() == null && (artifactInformation instanceof IndexInformation)) {
@@ -39,22 +76,18 @@ public final class ArtifactFactory {
             } else if (current.getJarInformation() == null && (artifactInformation instanceof JarInformation)) {
                 current.setJarInformation((JarInformation) artifactInformation);
             }
-
-            //return it
             return current;
-        }
+        });
+    }
 
-        Artifact newArtifact;
+    private static Artifact newArtifact(ArtifactInformation artifactInformation) {
         if(artifactInformation instanceof IndexInformation) {
-            newArtifact = new Artifact((IndexInformation) artifactInformation);
+            return new Artifact((IndexInformation) artifactInformation);
         } else if (artifactInformation instanceof PomInformation) {
-            newArtifact = new Artifact((PomInformation) artifactInformation);
+            return new Artifact((PomInformation) artifactInformation);
         } else {
-            newArtifact = new Artifact((JarInformation) artifactInformation);
+            return new Artifact((JarInformation) artifactInformation);
         }
-
-        artifacts.put(artifactInformation.getIdent(), newArtifact);
-        return newArtifact;
     }
 
     /**
@@ -64,9 +97,52 @@ public final class ArtifactFactory {
      * @return The artifact object belonging to this identifier, or null if no such object exists
      */
     public static Artifact getArtifact(ArtifactIdent ident) {
-        if(artifacts.containsKey(ident)) {
-            return artifacts.get(ident);
+        if(ident == null) {
+            return null;
+        }
+        return store.get(ident);
+    }
+
+    private static final class StoreView extends AbstractMap<ArtifactIdent, Artifact> {
+
+        @Override
+        public Artifact get(Object key) {
+            return key instanceof ArtifactIdent ? store.get((ArtifactIdent) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Artifact put(ArtifactIdent key, Artifact value) {
+            Artifact[] previous = new Artifact[1];
+            store.compute(key, (ident, current) -> {
+                previous[0] = current;
+                return value;
+            });
+            return previous[0];
+        }
+
+        @Override
+        public Artifact remove(Object key) {
+            return key instanceof ArtifactIdent ? store.remove((ArtifactIdent) key) : null;
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+
+        @Override
+        public void clear() {
+            store.clear();
+        }
+
+        @Override
+        public Set<Entry<ArtifactIdent, Artifact>> entrySet() {
+            return store.snapshot().entrySet();
         }
-        return null;
     }
 }
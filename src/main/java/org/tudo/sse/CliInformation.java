@@ -2,6 +2,11 @@ package org.tudo.sse;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.tudo.sse.multithreading.ProcessingEngineType;
+import org.tudo.sse.multithreading.SchedulingAffinity;
+import org.tudo.sse.resolution.PomResolutionProfile;
+import org.tudo.sse.resolution.ProfileActivationContext;
+import org.tudo.sse.resolution.releases.ReleaseListCache;
 
 /**
  * This class holds the configuration information for the MavenCentralAnalysis class.
@@ -20,6 +25,25 @@ public class CliInformation {
     private boolean multi;
     private int threads;
     private int writeProcessedIndexes;
+    private Path toReleaseSnapshot;
+    private Path toReleaseSnapshotOutput;
+    private long releaseTtlMillis;
+    private String artifactStore;
+    private ProcessingEngineType engine;
+    private int queueCapacity;
+    private int maxRequests;
+    private int parseThreads;
+    private int analyzeThreads;
+    private int batchSize;
+    private long flushInterval;
+    private SchedulingAffinity affinity;
+    private Path toJournal;
+    private int parallelParsingThreshold;
+    private boolean headerOnlyParsing;
+    private Path toJarCache;
+    private Path toPackageIndex;
+    private PomResolutionProfile pomResolutionProfile;
+    private ProfileActivationContext activationContext;
 
     /**
      * Initializes a new CliInformation object with all parameters set to default values (where appropriate)
@@ -34,6 +58,25 @@ public class CliInformation {
         toCoordinates = null;
         toIndexPos = null;
         toOutputDirectory = null;
+        toReleaseSnapshot = null;
+        toReleaseSnapshotOutput = null;
+        releaseTtlMillis = ReleaseListCache.DEFAULT_TTL_MILLIS;
+        artifactStore = null;
+        engine = ProcessingEngineType.EXECUTOR;
+        queueCapacity = -1;
+        maxRequests = -1;
+        parseThreads = Runtime.getRuntime().availableProcessors();
+        analyzeThreads = 1;
+        batchSize = 0;
+        flushInterval = 10000;
+        affinity = null;
+        toJournal = null;
+        parallelParsingThreshold = -1;
+        headerOnlyParsing = false;
+        toJarCache = null;
+        toPackageIndex = null;
+        pomResolutionProfile = null;
+        activationContext = null;
         output = false;
         multi = false;
     }
@@ -225,4 +268,314 @@ public class CliInformation {
      * @param writeProcessedIndexes The number of artifacts after which progress is saved
      */
     public void setWriteProcessedIndexes(int writeProcessedIndexes) {this.writeProcessedIndexes = writeProcessedIndexes;}
+
+    /**
+     * Retrieves the path to the release list snapshot used to resolve version ranges.
+     * @return Path to the release list snapshot, or null if release lists are obtained from Maven Central
+     */
+    public Path getToReleaseSnapshot() {
+        return toReleaseSnapshot;
+    }
+
+    /**
+     * Sets the path to the release list snapshot used to resolve version ranges.
+     * @param toReleaseSnapshot Path to a file containing one G:A:V triple per line
+     */
+    public void setToReleaseSnapshot(Path toReleaseSnapshot) {
+        this.toReleaseSnapshot = toReleaseSnapshot;
+    }
+
+    /**
+     * Retrieves the path a release list snapshot of all walked artifacts is written to at the end of the run.
+     * @return Path of the release list snapshot to write, or null if no snapshot is written
+     */
+    public Path getToReleaseSnapshotOutput() {
+        return toReleaseSnapshotOutput;
+    }
+
+    /**
+     * Sets the path a release list snapshot of all walked artifacts is written to at the end of the run.
+     * @param toReleaseSnapshotOutput Path of the file to write one G:A:V triple per line to
+     */
+    public void setToReleaseSnapshotOutput(Path toReleaseSnapshotOutput) {
+        this.toReleaseSnapshotOutput = toReleaseSnapshotOutput;
+    }
+
+    /**
+     * Retrieves the specification of the store that shall hold the artifacts of the run, e.g. "lru:100000". The store
+     * itself is only created when the run starts.
+     * @return The artifact store specification, or null if the default (unbounded) store shall be used
+     */
+    public String getArtifactStore() {
+        return artifactStore;
+    }
+
+    /**
+     * Sets the specification of the store that shall hold the artifacts of the run.
+     * @param artifactStore The artifact store specification (see --store)
+     */
+    public void setArtifactStore(String artifactStore) {
+        this.artifactStore = artifactStore;
+    }
+
+    /**
+     * Retrieves the engine used to process artifacts in multithreaded runs.
+     * @return The processing engine type
+     */
+    public ProcessingEngineType getEngine() {
+        return engine;
+    }
+
+    /**
+     * Sets the engine used to process artifacts in multithreaded runs.
+     * @param engine The processing engine type
+     */
+    public void setEngine(ProcessingEngineType engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Retrieves the maximum number of artifacts that may be pending in multithreaded runs. If not set explicitly, it
+     * is derived from the number of threads.
+     * @return The maximum number of pending artifacts
+     */
+    public int getQueueCapacity() {
+        return queueCapacity > 0 ? queueCapacity : threads * 16;
+    }
+
+    /**
+     * Sets the maximum number of artifacts that may be pending in multithreaded runs.
+     * @param queueCapacity The maximum number of pending artifacts
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Retrieves the time after which cached release lists are obtained again during version range resolution.
+     * @return Time to live in milliseconds, negative if cached release lists never expire
+     */
+    public long getReleaseTtlMillis() {
+        return releaseTtlMillis;
+    }
+
+    /**
+     * Sets the time after which cached release lists are obtained again during version range resolution.
+     * @param releaseTtlMillis Time to live in milliseconds, a negative value indicates that cached release lists
+     *                         never expire
+     */
+    public void setReleaseTtlMillis(long releaseTtlMillis) {
+        this.releaseTtlMillis = releaseTtlMillis;
+    }
+
+    /**
+     * Retrieves the maximum number of concurrent network requests.
+     * @return The maximum number of concurrent requests, or -1 if not limited
+     */
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    /**
+     * Sets the maximum number of concurrent network requests.
+     * @param maxRequests The maximum number of concurrent requests
+     */
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    /**
+     * Retrieves the number of threads of the parse stage when using the staged engine.
+     * @return The number of parse threads
+     */
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    /**
+     * Sets the number of threads of the parse stage when using the staged engine.
+     * @param parseThreads The number of parse threads
+     */
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    /**
+     * Retrieves the number of threads of the analysis stage when using the staged engine.
+     * @return The number of analysis threads
+     */
+    public int getAnalyzeThreads() {
+        return analyzeThreads;
+    }
+
+    /**
+     * Sets the number of threads of the analysis stage when using the staged engine.
+     * @param analyzeThreads The number of analysis threads
+     */
+    public void setAnalyzeThreads(int analyzeThreads) {
+        this.analyzeThreads = analyzeThreads;
+    }
+
+    /**
+     * Retrieves the number of artifacts passed to analyzeBatch at once.
+     * @return The batch size, or 0 if artifacts are analyzed one by one
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of artifacts passed to analyzeBatch at once.
+     * @param batchSize The batch size, or 0 to analyze artifacts one by one
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Retrieves the maximum time an artifact waits for its batch to be analyzed.
+     * @return The flush interval in milliseconds
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Sets the maximum time an artifact waits for its batch to be analyzed.
+     * @param flushInterval The flush interval in milliseconds, or 0 to only analyze full batches
+     */
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Retrieves which artifacts are processed on the same worker in multithreaded runs with the executor engine.
+     * @return The scheduling affinity, or null if artifacts are distributed freely
+     */
+    public SchedulingAffinity getAffinity() {
+        return affinity;
+    }
+
+    /**
+     * Sets which artifacts are processed on the same worker in multithreaded runs with the executor engine.
+     * @param affinity The scheduling affinity, or null to distribute artifacts freely
+     */
+    public void setAffinity(SchedulingAffinity affinity) {
+        this.affinity = affinity;
+    }
+
+    /**
+     * Retrieves the path of the progress journal recording which artifacts have been completed.
+     * @return Path of the progress journal, or null if progress is only written to the progress file
+     */
+    public Path getToJournal() {
+        return toJournal;
+    }
+
+    /**
+     * Sets the path of the progress journal recording which artifacts have been completed. If the journal already
+     * exists, the run resumes from it.
+     * @param toJournal Path of the progress journal
+     */
+    public void setToJournal(Path toJournal) {
+        this.toJournal = toJournal;
+    }
+
+    /**
+     * Retrieves the number of class files from which on the class files of a single JAR are parsed in parallel.
+     * @return Minimum number of class files for parallel parsing, or -1 if class files are always parsed sequentially
+     */
+    public int getParallelParsingThreshold() {
+        return parallelParsingThreshold;
+    }
+
+    /**
+     * Sets the number of class files from which on the class files of a single JAR are parsed in parallel.
+     * @param parallelParsingThreshold Minimum number of class files for parallel parsing, or -1 to always parse
+     *                                 sequentially
+     */
+    public void setParallelParsingThreshold(int parallelParsingThreshold) {
+        this.parallelParsingThreshold = parallelParsingThreshold;
+    }
+
+    /**
+     * Retrieves whether class files are read with the header-only reader instead of OPAL.
+     * @return True if only class headers are read, false if class files are parsed with OPAL
+     */
+    public boolean isHeaderOnlyParsing() {
+        return headerOnlyParsing;
+    }
+
+    /**
+     * Sets whether class files are read with the header-only reader instead of OPAL.
+     * @param headerOnlyParsing True to read class headers only, false to parse class files with OPAL
+     */
+    public void setHeaderOnlyParsing(boolean headerOnlyParsing) {
+        this.headerOnlyParsing = headerOnlyParsing;
+    }
+
+    /**
+     * Retrieves the directory of the persistent JAR information cache.
+     * @return Path of the cache directory, or null if JAR files are always parsed
+     */
+    public Path getToJarCache() {
+        return toJarCache;
+    }
+
+    /**
+     * Sets the directory of the persistent JAR information cache, which is shared across runs.
+     * @param toJarCache Path of the cache directory
+     */
+    public void setToJarCache(Path toJarCache) {
+        this.toJarCache = toJarCache;
+    }
+
+    /**
+     * Retrieves the file of the package index used to resolve dependency JARs for type structures.
+     * @return Path of the package index file, or null if all dependency JARs are resolved
+     */
+    public Path getToPackageIndex() {
+        return toPackageIndex;
+    }
+
+    /**
+     * Sets the file of the package index used to resolve dependency JARs for type structures, which is read at the
+     * start of a run (if it exists) and written at its end.
+     * @param toPackageIndex Path of the package index file
+     */
+    public void setToPackageIndex(Path toPackageIndex) {
+        this.toPackageIndex = toPackageIndex;
+    }
+
+    /**
+     * Retrieves the profile defining which pom features are resolved.
+     * @return The pom resolution profile, or null if it is defined by the analysis
+     */
+    public PomResolutionProfile getPomResolutionProfile() {
+        return pomResolutionProfile;
+    }
+
+    /**
+     * Sets the profile defining which pom features are resolved, overriding the one defined by the analysis.
+     * @param pomResolutionProfile The pom resolution profile, or null to use the one defined by the analysis
+     */
+    public void setPomResolutionProfile(PomResolutionProfile pomResolutionProfile) {
+        this.pomResolutionProfile = pomResolutionProfile;
+    }
+
+    /**
+     * Retrieves the context used to evaluate the activation of build profiles during pom resolution.
+     * @return The activation context, or null if it is defined by the analysis
+     */
+    public ProfileActivationContext getActivationContext() {
+        return activationContext;
+    }
+
+    /**
+     * Sets the context used to evaluate the activation of build profiles, overriding the one defined by the analysis.
+     * @param activationContext The activation context, or null to use the one defined by the analysis
+     */
+    public void setActivationContext(ProfileActivationContext activationContext) {
+        this.activationContext = activationContext;
+    }
 }
@@ -1,17 +1,36 @@
 package org.tudo.sse;
 
-import akka.actor.ActorRef;
-import akka.actor.ActorSystem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.tudo.sse.model.Artifact;
 import org.tudo.sse.model.ArtifactIdent;
 import org.tudo.sse.model.index.IndexInformation;
-import org.tudo.sse.multithreading.ProcessIdentifierMessage;
-import org.tudo.sse.multithreading.IndexProcessingMessage;
+import org.tudo.sse.model.jar.ClassFileNode;
+import org.tudo.sse.model.jar.PackageIndex;
+import org.tudo.sse.multithreading.AffinityProcessingEngine;
+import org.tudo.sse.multithreading.AkkaProcessingEngine;
+import org.tudo.sse.multithreading.ArtifactBatcher;
+import org.tudo.sse.multithreading.ExecutorProcessingEngine;
+import org.tudo.sse.multithreading.IProcessingEngine;
+import org.tudo.sse.multithreading.ProcessingEngineType;
+import org.tudo.sse.multithreading.SchedulingAffinity;
+import org.tudo.sse.multithreading.StagedProcessingEngine;
+import org.tudo.sse.resolution.PomResolutionProfile;
+import org.tudo.sse.resolution.ProfileActivationContext;
 import org.tudo.sse.resolution.ResolverFactory;
+import org.tudo.sse.resolution.releases.DefaultMavenReleaseListProvider;
+import org.tudo.sse.resolution.releases.IReleaseListProvider;
+import org.tudo.sse.resolution.releases.IndexReleaseListProvider;
+import org.tudo.sse.resolution.releases.ReleaseListCache;
+import org.tudo.sse.storage.IArtifactStore;
+import org.tudo.sse.storage.JarInformationCache;
+import org.tudo.sse.storage.LruArtifactStore;
+import org.tudo.sse.storage.ReferenceArtifactStore;
+import org.tudo.sse.storage.SpillingArtifactStore;
+import org.tudo.sse.storage.UnboundedArtifactStore;
 import org.tudo.sse.utils.IndexIterator;
-import org.tudo.sse.multithreading.QueueActor;
+import org.tudo.sse.utils.ProgressJournal;
+import org.tudo.sse.utils.ResourceConnections;
 
 import java.io.*;
 import java.net.URI;
@@ -20,8 +39,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The MavenCentralAnalysis enables analysis of artifacts on the maven central repository for jobs of any size.
@@ -30,8 +53,14 @@ import java.util.Map;
 public abstract class MavenCentralAnalysis {
 
     private final CliInformation setupInfo;
-    private ActorRef queueActorRef;
+    private IProcessingEngine engine;
+    private volatile ArtifactBatcher batcher;
+    private ProgressJournal progress = new ProgressJournal();
     private ResolverFactory resolverFactory;
+    private PackageIndex packageIndex;
+    private IndexReleaseListProvider walkedReleases;
+    private volatile SpillingArtifactStore spillingStore;
+    private Thread spillingStoreCleanup;
 
     /**
      * Defines whether this analysis requires artifacts to have index information annotated.
@@ -48,6 +77,20 @@ public abstract class MavenCentralAnalysis {
      */
     protected boolean processTransitives;
 
+    /**
+     * Defines which pom features this analysis requires to be resolved. If not set, the profile is derived from
+     * processTransitives, i.e. either direct or transitive dependencies are resolved. The --pom-profile option of the
+     * CLI takes precedence over this field.
+     */
+    protected PomResolutionProfile pomResolutionProfile;
+
+    /**
+     * Defines the environment in which build profiles of pom files are considered active, so that their dependencies
+     * are resolved as well. If not set, build profiles are ignored. The --activation option of the CLI takes
+     * precedence over this field.
+     */
+    protected ProfileActivationContext profileActivationContext;
+
     /**
      * Defines whether this analysis requires artifacts to have jar information annotated.
      */
@@ -55,6 +98,7 @@ public abstract class MavenCentralAnalysis {
 
 
     private static final Logger log = LogManager.getLogger(MavenCentralAnalysis.class);
+    private static final int DEFAULT_VIRTUAL_MAX_REQUESTS = 256;
 
     /**
      * Creates a new Maven Central Analysis with default configuration options.
@@ -64,6 +108,8 @@ public abstract class MavenCentralAnalysis {
         resolveIndex = false;
         resolvePom = false;
         processTransitives = false;
+        pomResolutionProfile = null;
+        profileActivationContext = null;
         resolveJar = false;
     }
 
@@ -75,6 +121,36 @@ public abstract class MavenCentralAnalysis {
      */
     public abstract void analyzeArtifact(Artifact current);
 
+    /**
+     * Batch analysis hook, invoked instead of analyzeArtifact if a batch size is configured (see --batch). Analyses
+     * that write their results to databases or files can override this method to use bulk operations. Batches are
+     * passed one at a time, even in multithreaded runs. By default, analyzeArtifact is invoked for every artifact of
+     * the batch.
+     * @param batch The artifacts to analyze
+     */
+    public void analyzeBatch(List<Artifact> batch) {
+        for(Artifact current : batch) {
+            analyzeArtifact(current);
+        }
+    }
+
+    /**
+     * Builds the type structure of the given artifact (see Artifact.buildTypeStructure), resolving the JARs of its
+     * dependencies concurrently with the JAR resolver of this analysis. Dependency JARs are thus looked up in the
+     * configured JarInformation cache (see --jar-cache) and downloaded within the configured request limit. If a
+     * package index is configured (see --package-index), only the dependency JARs needed to resolve the supertypes of
+     * the artifact are resolved. Across all type structures being built at the same time, at most
+     * {@value Artifact#MAX_DEPENDENCY_THREADS} dependency JARs are resolved at once.
+     * @param current The artifact to build the type structure for
+     * @return Map of type FQNs to their hierarchy node
+     */
+    protected Map<String, ClassFileNode> buildTypeStructure(Artifact current) {
+        if(resolverFactory == null) {
+            return current.buildTypeStructure();
+        }
+        return current.buildTypeStructure(resolverFactory.getJarResolver(), Artifact.DEFAULT_DEPENDENCY_THREADS, packageIndex);
+    }
+
     /**
      * This method handles parsing the command line arguments and stores it into a CliInformation object.
      *
@@ -128,6 +204,62 @@ public abstract class MavenCentralAnalysis {
                         setupInfo.setOutput(true);
                         setupInfo.setToOutputDirectory(parsePathName(args, i));
                         break;
+                    case "--releases":
+                        setupInfo.setToReleaseSnapshot(parsePathName(args, i));
+                        break;
+                    case "--write-releases":
+                        setupInfo.setToReleaseSnapshotOutput(parsePathName(args, i));
+                        break;
+                    case "--release-ttl":
+                        setupInfo.setReleaseTtlMillis(parseReleaseTtl(args, i));
+                        break;
+                    case "--engine":
+                        setupInfo.setEngine(parseEngine(args, i));
+                        break;
+                    case "--queue":
+                        setupInfo.setQueueCapacity(parseInt(args, i));
+                        break;
+                    case "--stages":
+                        int[] stageThreads = parseStageThreads(args, i);
+                        setupInfo.setThreads(stageThreads[0]);
+                        setupInfo.setParseThreads(stageThreads[1]);
+                        setupInfo.setAnalyzeThreads(stageThreads[2]);
+                        break;
+                    case "--batch":
+                        long[] batch = parseBatch(args, i);
+                        setupInfo.setBatchSize((int) batch[0]);
+                        setupInfo.setFlushInterval(batch[1]);
+                        break;
+                    case "--jar-reader":
+                        setupInfo.setHeaderOnlyParsing(parseJarReader(args, i));
+                        break;
+                    case "--jar-cache":
+                        setupInfo.setToJarCache(parsePathName(args, i));
+                        break;
+                    case "--package-index":
+                        setupInfo.setToPackageIndex(parsePathName(args, i));
+                        break;
+                    case "--parallel-parse":
+                        setupInfo.setParallelParsingThreshold(parseInt(args, i));
+                        break;
+                    case "--journal":
+                        setupInfo.setToJournal(parsePathName(args, i));
+                        break;
+                    case "--affinity":
+                        setupInfo.setAffinity(parseAffinity(args, i));
+                        break;
+                    case "--pom-profile":
+                        setupInfo.setPomResolutionProfile(parsePomProfile(args, i));
+                        break;
+                    case "--activation":
+                        setupInfo.setActivationContext(parseActivation(args, i));
+                        break;
+                    case "--requests":
+                        setupInfo.setMaxRequests(parseInt(args, i));
+                        break;
+                    case "--store":
+                        setupInfo.setArtifactStore(parseArtifactStore(args, i));
+                        break;
                     default:
                         throw new CLIException(args[i]);
                 }
@@ -145,21 +277,89 @@ public abstract class MavenCentralAnalysis {
         return setupInfo;
     }
 
+    private PomResolutionProfile getPomResolutionProfile() {
+        if(setupInfo.getPomResolutionProfile() != null) {
+            return setupInfo.getPomResolutionProfile();
+        }
+        if(pomResolutionProfile != null) {
+            return pomResolutionProfile;
+        }
+        return PomResolutionProfile.fromTransitives(processTransitives);
+    }
+
+    private ProfileActivationContext getProfileActivationContext() {
+        if(setupInfo.getActivationContext() != null) {
+            return setupInfo.getActivationContext();
+        }
+        return profileActivationContext;
+    }
+
     private void printRunInfo(){
         log.info("Running a Maven Central Analysis Implementation:");
         if(resolveIndex) log.info      ("\t - The analysis requires index information");
         if(resolvePom) log.info        ("\t - The analysis requires pom information");
         if(processTransitives) log.info("\t - The analysis requires transitive pom dependencies");
+        if(resolvePom) log.info        ("\t - Pom information is resolved using the " + getPomResolutionProfile() + " profile");
+        if(resolvePom && getProfileActivationContext() != null) log.info("\t - Build profiles are activated for JDK " + getProfileActivationContext().getJdkVersion());
         if(resolveJar)log.info        ("\t - The analysis requires jar information");
 
         log.info("The current run has been configured as follows:");
 
         if(setupInfo.isMulti()){
             log.info("\t - Using " + setupInfo.getThreads() + " threads");
+            log.info("\t - Processing artifacts with the " + setupInfo.getEngine() + " engine");
+            if(setupInfo.getAffinity() != null && setupInfo.getEngine() == ProcessingEngineType.EXECUTOR) {
+                log.info("\t - Processing artifacts with the same " + setupInfo.getAffinity() + " on the same thread");
+            } else if(setupInfo.getAffinity() != null) {
+                log.warn("\t - Ignoring affinity, it is only supported by the EXECUTOR engine");
+            }
+            if(setupInfo.getEngine() == ProcessingEngineType.STAGED) {
+                log.info("\t - Using " + setupInfo.getParseThreads() + " parse and " + setupInfo.getAnalyzeThreads() + " analysis threads");
+            }
         } else {
             log.info("\t - Using one thread");
         }
 
+        if(setupInfo.getBatchSize() > 0){
+            log.info("\t - Analyzing artifacts in batches of " + setupInfo.getBatchSize() + ", flushed at least every " + setupInfo.getFlushInterval() + "ms");
+        }
+
+        if(resolveJar && setupInfo.isHeaderOnlyParsing()){
+            log.info("\t - Reading class file headers only");
+        }
+
+        if(resolveJar && setupInfo.getToJarCache() != null){
+            log.info("\t - Caching JAR information in " + setupInfo.getToJarCache());
+        }
+
+        if(setupInfo.getToPackageIndex() != null){
+            log.info("\t - Resolving dependency JARs for type structures using the package index " + setupInfo.getToPackageIndex());
+        }
+
+        if(resolveJar && setupInfo.getParallelParsingThreshold() > 0){
+            log.info("\t - Parsing class files in parallel for JARs with at least " + setupInfo.getParallelParsingThreshold() + " class files");
+        }
+
+        if(getMaxRequests() > 0){
+            log.info("\t - Limiting concurrent network requests to " + getMaxRequests());
+        }
+
+        if(setupInfo.getToReleaseSnapshot() != null){
+            log.info("\t - Reading release lists from " + setupInfo.getToReleaseSnapshot());
+        }
+
+        if(setupInfo.getToReleaseSnapshotOutput() != null){
+            log.info("\t - Writing the releases of all walked artifacts to " + setupInfo.getToReleaseSnapshotOutput());
+        }
+
+        if(resolvePom && setupInfo.getReleaseTtlMillis() != ReleaseListCache.DEFAULT_TTL_MILLIS){
+            log.info("\t - Caching release lists for " + (setupInfo.getReleaseTtlMillis() < 0 ? "the whole run" : setupInfo.getReleaseTtlMillis() + " ms"));
+        }
+
+        if(setupInfo.getArtifactStore() != null){
+            log.info("\t - Storing artifacts in a " + setupInfo.getArtifactStore() + " store");
+        }
+
         if(setupInfo.getToCoordinates() == null){
             log.info("\t - Reading artifacts from Maven Central index");
             if(setupInfo.getToIndexPos() != null) log.info("\t - Restoring last index position from " + setupInfo.getToIndexPos());
@@ -218,11 +418,207 @@ public abstract class MavenCentralAnalysis {
         }
     }
 
+    private long[] parseBatch(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            String[] parts = args[i + 1].split(":");
+            try {
+                if(parts.length == 1) {
+                    return new long[]{Integer.parseInt(parts[0]), setupInfo.getFlushInterval()};
+                } else if(parts.length == 2) {
+                    return new long[]{Integer.parseInt(parts[0]), Long.parseLong(parts[1])};
+                }
+            } catch(NumberFormatException e) {
+                throw new CLIException(args[i], e.getMessage());
+            }
+            throw new CLIException(args[i], "Correct format: size[:flushMillis]");
+        } else {
+            throw new CLIException(args[i], "Missing argument: size[:flushMillis]");
+        }
+    }
+
+    private int[] parseStageThreads(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            String[] parts = args[i + 1].split(":");
+            if(parts.length == 3) {
+                try {
+                    return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+                } catch(NumberFormatException e) {
+                    throw new CLIException(args[i], e.getMessage());
+                }
+            }
+            throw new CLIException(args[i], "Correct format: fetch:parse:analyze");
+        } else {
+            throw new CLIException(args[i], "Missing argument: fetch:parse:analyze");
+        }
+    }
+
+    private boolean parseJarReader(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            switch(args[i + 1].toLowerCase()) {
+                case "opal":
+                    return false;
+                case "header":
+                    return true;
+                default:
+                    throw new CLIException(args[i], "Invalid jar reader: " + args[i + 1]);
+            }
+        } else {
+            throw new CLIException(args[i], "Missing argument: opal | header");
+        }
+    }
+
+    private SchedulingAffinity parseAffinity(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            try {
+                return SchedulingAffinity.valueOf(args[i + 1].toUpperCase());
+            } catch(IllegalArgumentException e) {
+                throw new CLIException(args[i], "Invalid affinity: " + args[i + 1]);
+            }
+        } else {
+            throw new CLIException(args[i], "Missing argument: ga | group");
+        }
+    }
+
+    private long parseReleaseTtl(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            try {
+                return Long.parseLong(args[i + 1]);
+            } catch(NumberFormatException e) {
+                throw new CLIException(args[i], e.getMessage());
+            }
+        } else {
+            throw new CLIException(args[i], "Missing argument: millis");
+        }
+    }
+
+    private PomResolutionProfile parsePomProfile(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            try {
+                return PomResolutionProfile.valueOf(args[i + 1].toUpperCase());
+            } catch(IllegalArgumentException e) {
+                throw new CLIException(args[i], "Invalid pom profile: " + args[i + 1]);
+            }
+        } else {
+            throw new CLIException(args[i], "Missing argument: raw_only | parent_chain | direct_deps | full_transitive");
+        }
+    }
+
+    private ProfileActivationContext parseActivation(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            String[] parts = args[i + 1].split(":", 2);
+            Set<String> profileIds = new HashSet<>();
+            if(parts.length == 2 && !parts[1].isEmpty()) {
+                profileIds.addAll(Arrays.asList(parts[1].split(",")));
+            }
+            return new ProfileActivationContext(parts[0].isEmpty() ? null : parts[0], new HashMap<>(), profileIds);
+        } else {
+            throw new CLIException(args[i], "Missing argument: jdkVersion[:profileId,...]");
+        }
+    }
+
+    private ProcessingEngineType parseEngine(String[] args, int i) throws CLIException {
+        if(i + 1 < args.length) {
+            try {
+                return ProcessingEngineType.valueOf(args[i + 1].toUpperCase());
+            } catch(IllegalArgumentException e) {
+                throw new CLIException(args[i], "Invalid engine: " + args[i + 1]);
+            }
+        } else {
+            throw new CLIException(args[i], "Missing argument: executor | virtual | staged | akka");
+        }
+    }
+
+    /*
+     * Validates the store specification only, the store is created when the run starts (see createArtifactStore), so
+     * parsing the command line does not open any spill file.
+     */
+    private String parseArtifactStore(String[] args, int i) throws CLIException {
+        if(i + 1 >= args.length) {
+            throw new CLIException(args[i], "Missing argument: unbounded | lru:maxArtifacts | weak | soft | spill:maxArtifacts[:path]");
+        }
+
+        String[] parts = args[i + 1].split(":", 3);
+        switch(parts[0]) {
+            case "unbounded":
+            case "weak":
+            case "soft":
+                if(parts.length == 1) {
+                    return args[i + 1];
+                }
+                throw new CLIException(args[i], "Correct format: " + parts[0]);
+            case "lru":
+                if(parts.length == 2) {
+                    parseMaxArtifacts(args, i, parts[1]);
+                    return args[i + 1];
+                }
+                throw new CLIException(args[i], "Correct format: lru:maxArtifacts");
+            case "spill":
+                if(parts.length >= 2) {
+                    parseMaxArtifacts(args, i, parts[1]);
+                    return args[i + 1];
+                }
+                throw new CLIException(args[i], "Correct format: spill:maxArtifacts[:path]");
+            default:
+                throw new CLIException(args[i], "Invalid store: " + args[i + 1]);
+        }
+    }
+
+    private long parseMaxArtifacts(String[] args, int i, String value) throws CLIException {
+        try {
+            long maxArtifacts = Long.parseLong(value);
+            if(maxArtifacts <= 0) {
+                throw new CLIException(args[i], "Maximum number of artifacts must be positive: " + value);
+            }
+            return maxArtifacts;
+        } catch(NumberFormatException e) {
+            throw new CLIException(args[i], e.getMessage());
+        }
+    }
+
+    /*
+     * Creates the store for the given specification, which has been validated by parseArtifactStore. A spilling store
+     * is kept open after the run, as the returned map reads spilled artifacts from its file. It is closed, deleting a
+     * temporary spill file, when the next run starts or the JVM exits.
+     */
+    private IArtifactStore createArtifactStore(String specification) throws IOException {
+        String[] parts = specification.split(":", 3);
+        switch(parts[0]) {
+            case "weak":
+                return new ReferenceArtifactStore(false);
+            case "soft":
+                return new ReferenceArtifactStore(true);
+            case "lru":
+                return new LruArtifactStore(Long.parseLong(parts[1]));
+            case "spill":
+                long maxArtifacts = Long.parseLong(parts[1]);
+                spillingStore = parts.length == 3 ? new SpillingArtifactStore(Paths.get(parts[2]), maxArtifacts) : new SpillingArtifactStore(maxArtifacts);
+                if(spillingStoreCleanup == null) {
+                    spillingStoreCleanup = new Thread(this::closeSpillingStore);
+                    Runtime.getRuntime().addShutdownHook(spillingStoreCleanup);
+                }
+                return spillingStore;
+            default:
+                return new UnboundedArtifactStore();
+        }
+    }
+
+    private void closeSpillingStore() {
+        SpillingArtifactStore store = spillingStore;
+        if(store != null) {
+            spillingStore = null;
+            try {
+                store.close();
+            } catch(IOException e) {
+                log.warn("Failed to close the spill file " + store.getFile(), e);
+            }
+        }
+    }
+
     private Path parsePathName(String[] args, int i) throws CLIException {
         if(i + 1 < args.length) {
-            if(Files.isRegularFile(Paths.get(args[i + 1])) || args[i].equals("--name")) {
+            if(Files.isRegularFile(Paths.get(args[i + 1])) || args[i].equals("--name") || args[i].equals("--package-index") || args[i].equals("--write-releases")) {
                 return Paths.get(args[i + 1]);
-            } else if(args[i].equals("--output") && Files.isDirectory(Paths.get(args[i + 1]))) {
+            } else if((args[i].equals("--output") || args[i].equals("--jar-cache")) && Files.isDirectory(Paths.get(args[i + 1]))) {
                 return Paths.get(args[i + 1]);
             } else {
                 throw new CLIException(args[i], "Invalid path");
@@ -245,38 +641,108 @@ public abstract class MavenCentralAnalysis {
     public Map<ArtifactIdent, Artifact> runAnalysis(String[] args) throws URISyntaxException, IOException {
         parseCmdLine(args);
         printRunInfo();
-        if(setupInfo.isOutput()) {
-            resolverFactory = new ResolverFactory(setupInfo.isOutput(), setupInfo.getToOutputDirectory(), processTransitives);
+        if(spillingStore != null) {
+            //the spill file of the previous run is closed, so its store cannot hold the artifacts of this run
+            closeSpillingStore();
+            ArtifactFactory.setStore(new UnboundedArtifactStore());
+        }
+        if(setupInfo.getArtifactStore() != null) {
+            ArtifactFactory.setStore(createArtifactStore(setupInfo.getArtifactStore()));
+        }
+        IReleaseListProvider provider = DefaultMavenReleaseListProvider.getInstance();
+        if(setupInfo.getToReleaseSnapshot() != null) {
+            provider = IndexReleaseListProvider.fromSnapshot(setupInfo.getToReleaseSnapshot(), provider);
+        }
+        ResourceConnections.setMaxConcurrentRequests(getMaxRequests());
+        resolverFactory = new ResolverFactory(setupInfo.isOutput(), setupInfo.getToOutputDirectory(), getPomResolutionProfile(), provider);
+        resolverFactory.setParallelParsingThreshold(setupInfo.getParallelParsingThreshold());
+        resolverFactory.setHeaderOnlyParsing(setupInfo.isHeaderOnlyParsing());
+        resolverFactory.setActivationContext(getProfileActivationContext());
+        resolverFactory.setReleaseListTtl(setupInfo.getReleaseTtlMillis());
+        if(setupInfo.getToJarCache() != null) {
+            resolverFactory.setJarCache(new JarInformationCache(setupInfo.getToJarCache()));
+        }
+        walkedReleases = setupInfo.getToReleaseSnapshotOutput() != null ? new IndexReleaseListProvider() : null;
+        if(setupInfo.getToPackageIndex() != null) {
+            packageIndex = Files.isRegularFile(setupInfo.getToPackageIndex()) ? PackageIndex.read(setupInfo.getToPackageIndex()) : new PackageIndex();
+        }
+        if(setupInfo.getToJournal() != null) {
+            progress = ProgressJournal.open(setupInfo.getToJournal());
         } else {
-            resolverFactory = new ResolverFactory(processTransitives);
+            progress = new ProgressJournal();
+        }
+        if(setupInfo.getBatchSize() > 0) {
+            batcher = new ArtifactBatcher(setupInfo.getBatchSize(), setupInfo.getFlushInterval(), this::analyzeAndRelease);
         }
 
         if(setupInfo.isMulti()) {
-            ActorSystem system = ActorSystem.create("my-system");
-            queueActorRef = system.actorOf(QueueActor.props(setupInfo.getThreads(), system), "queueActor");
+            engine = createEngine();
 
             if(setupInfo.getToCoordinates() == null) {
                 indexProcessor();
             } else {
-                readIdentsIn();
+                //the identifiers are not collected here, so memory does not grow with the size of the file
+                readIdentsIn(null);
             }
 
             try {
-                system.getWhenTerminated().toCompletableFuture().get();
-            } catch (Exception e) {
-                e.printStackTrace();
+                engine.awaitCompletion();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for the analysis to complete", e);
             }
         } else {
             if(setupInfo.getToCoordinates() == null) {
                 indexProcessor();
             } else {
-                readIdentsIn();
+                readIdentsIn(null);
             }
         }
 
+        if(batcher != null) {
+            batcher.close();
+            batcher = null;
+        }
+        writeLastProcessed(setupInfo.getName());
+        progress.close();
+        if(packageIndex != null) {
+            packageIndex.write(setupInfo.getToPackageIndex());
+        }
+        if(walkedReleases != null) {
+            walkedReleases.writeSnapshot(setupInfo.getToReleaseSnapshotOutput());
+            walkedReleases = null;
+        }
+
         return ArtifactFactory.artifacts;
     }
 
+    private IProcessingEngine createEngine() {
+        switch(setupInfo.getEngine()) {
+            case AKKA:
+                return new AkkaProcessingEngine(setupInfo.getThreads(), this);
+            case VIRTUAL:
+                return ExecutorProcessingEngine.withVirtualThreads(setupInfo.getThreads(), this::processIdentifier);
+            case STAGED:
+                return new StagedProcessingEngine<>(setupInfo.getThreads(), setupInfo.getParseThreads(), setupInfo.getAnalyzeThreads(),
+                        setupInfo.getQueueCapacity(), this::fetchArtifact, this::parseArtifact, this::analyzeFetched);
+            default:
+                if(setupInfo.getAffinity() != null) {
+                    return new AffinityProcessingEngine(setupInfo.getThreads(), setupInfo.getQueueCapacity(),
+                            setupInfo.getAffinity()::keyOf, this::processIdentifier);
+                }
+                return new ExecutorProcessingEngine(setupInfo.getThreads(), setupInfo.getQueueCapacity(), this::processIdentifier);
+        }
+    }
+
+    private int getMaxRequests() {
+        if(setupInfo.getMaxRequests() > 0) {
+            return setupInfo.getMaxRequests();
+        } else if(setupInfo.isMulti() && setupInfo.getEngine() == ProcessingEngineType.VIRTUAL) {
+            return DEFAULT_VIRTUAL_MAX_REQUESTS;
+        }
+        return -1;
+    }
+
     /**
      * Handles walking the maven central index, choosing how to do so based on the configuration.
      *
@@ -289,39 +755,61 @@ public abstract class MavenCentralAnalysis {
         IndexIterator indexIterator;
 
         //set up indexIterator here (skip to a position or start from the start)
+        long start = 0;
         if (setupInfo.getToIndexPos() != null) {
-            indexIterator = new IndexIterator(new URI(base), getStartingPos());
+            start = getStartingPos();
         } else if(setupInfo.getSkip() != -1) {
-            indexIterator = new IndexIterator(new URI(base), setupInfo.getSkip());
-        } else {
-            indexIterator = new IndexIterator(new URI(base));
+            start = setupInfo.getSkip();
         }
+        //entries before the watermark of a resumed journal have already been completed
+        long take = setupInfo.getTake();
+        long watermark = progress.getWatermark();
+        if(watermark > start) {
+            if(take != -1) {
+                take = Math.max(0, start + take - watermark);
+            }
+            start = watermark;
+        }
+        indexIterator = start > 0 ? new IndexIterator(new URI(base), start) : new IndexIterator(new URI(base));
 
+        //the walks do not collect what they process here, so memory does not grow with the length of the run
         if (resolveIndex) {
             if (setupInfo.getSkip() != -1 && setupInfo.getTake() != -1) {
-                walkPaginated(setupInfo.getTake(), indexIterator);
+                walkPaginated(take, indexIterator, null);
             } else if (setupInfo.getSince() != -1 && setupInfo.getUntil() != -1) {
-                walkDates(setupInfo.getSince(), setupInfo.getUntil(), indexIterator);
+                walkDates(setupInfo.getSince(), setupInfo.getUntil(), indexIterator, null);
             } else {
-                walkAllIndexes(indexIterator);
+                walkAllIndexes(indexIterator, null);
             }
         } else if (setupInfo.getSkip() != -1 && setupInfo.getTake() != -1) {
-            lazyWalkPaginated(setupInfo.getTake(), indexIterator);
+            lazyWalkPaginated(take, indexIterator, null);
         } else if (setupInfo.getSince() != -1 && setupInfo.getUntil() != -1) {
-            lazyWalkDates(setupInfo.getSince(), setupInfo.getUntil(), indexIterator);
+            lazyWalkDates(setupInfo.getSince(), setupInfo.getUntil(), indexIterator, null);
         } else {
-            lazyWalkAllIndexes(indexIterator);
+            lazyWalkAllIndexes(indexIterator, null);
         }
 
-        writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
+        //not every index entry holds an artifact, so the watermark has to move past the end of the walk explicitly
+        progress.walkedTo(indexIterator.getIndex());
+        writeLastProcessed(setupInfo.getName());
     }
 
-    private void processIndex(Artifact current) {
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new ProcessIdentifierMessage(current.getIdent(), this), ActorRef.noSender());
+    private void processIndex(Artifact current, long position) {
+        if(walkedReleases != null) {
+            walkedReleases.addRelease(current.getIdent());
+        }
+        if(!progress.begin(position, current.getIdent())) {
+            release(current.getIdent());
+        } else if(setupInfo.isMulti()) {
+            engine.submit(current.getIdent());
         } else {
-            callResolver(current.getIdent());
-            analyzeArtifact(current);
+            try {
+                Artifact resolved = callResolver(current.getIdent());
+                deliver(resolved != null ? resolved : current);
+            } catch(RuntimeException e) {
+                progress.fail(current.getIdent());
+                throw e;
+            }
         }
     }
 
@@ -336,27 +824,29 @@ public abstract class MavenCentralAnalysis {
      */
     public List<Artifact> walkAllIndexes(IndexIterator indexIterator) throws IOException {
         List<Artifact> artifacts = new ArrayList<>();
+        walkAllIndexes(indexIterator, artifacts);
+        return artifacts;
+    }
 
+    private void walkAllIndexes(IndexIterator indexIterator, List<Artifact> artifacts) throws IOException {
         while(indexIterator.hasNext()) {
-            Artifact current = ArtifactFactory.createArtifact(indexIterator.next());
-            artifacts.add(current);
+            IndexInformation information = indexIterator.next();
+            Artifact current = ArtifactFactory.createArtifact(information);
+            if(artifacts != null) {
+                artifacts.add(current);
+            }
             if(setupInfo.isOutput() && !resolvePom && !resolveJar) {
                 Path filePath = setupInfo.getToOutputDirectory().resolve(current.getIdent().getGroupID() + "-" + current.getIdent().getArtifactID() + "-" + current.getIdent().getVersion() + ".txt");
                 if(!Files.exists(filePath)) {
                     Files.createFile(filePath);
                 }
             }
-            processIndex(current);
+            processIndex(current, information.getIndex());
             if(indexIterator.getIndex() % setupInfo.getWriteProcessedIndexes() == 0)
-                writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
-        }
-
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
+                writeLastProcessed(setupInfo.getName());
         }
 
         indexIterator.closeReader();
-        return artifacts;
     }
 
     /**
@@ -371,28 +861,30 @@ public abstract class MavenCentralAnalysis {
      */
     public List<Artifact> walkPaginated(long take, IndexIterator indexIterator) throws IOException {
         List<Artifact> artifacts = new ArrayList<>();
+        walkPaginated(take, indexIterator, artifacts);
+        return artifacts;
+    }
 
+    private void walkPaginated(long take, IndexIterator indexIterator, List<Artifact> artifacts) throws IOException {
         take += indexIterator.getIndex();
         while(indexIterator.hasNext() && indexIterator.getIndex() < take) {
-            Artifact current = ArtifactFactory.createArtifact(indexIterator.next());
+            IndexInformation information = indexIterator.next();
+            Artifact current = ArtifactFactory.createArtifact(information);
             if(setupInfo.isOutput() && !resolvePom && !resolveJar) {
                 Path filePath = setupInfo.getToOutputDirectory().resolve(current.getIdent().getGroupID() + "-" + current.getIdent().getArtifactID() + "-" + current.getIdent().getVersion() + ".txt");
                 if(!Files.exists(filePath)) {
                     Files.createFile(filePath);
                 }
             }
-            artifacts.add(current);
-            processIndex(current);
+            if(artifacts != null) {
+                artifacts.add(current);
+            }
+            processIndex(current, information.getIndex());
             if(indexIterator.getIndex() % setupInfo.getWriteProcessedIndexes() == 0)
-                writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
-        }
-
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
+                writeLastProcessed(setupInfo.getName());
         }
 
         indexIterator.closeReader();
-        return artifacts;
     }
 
     /**
@@ -409,7 +901,11 @@ public abstract class MavenCentralAnalysis {
      */
     public List<Artifact> walkDates(long since, long until, IndexIterator indexIterator) throws IOException {
         List<Artifact> artifacts = new ArrayList<>();
+        walkDates(since, until, indexIterator, artifacts);
+        return artifacts;
+    }
 
+    private void walkDates(long since, long until, IndexIterator indexIterator, List<Artifact> artifacts) throws IOException {
         long currentToSince;
         while(indexIterator.hasNext()) {
             IndexInformation temp = indexIterator.next();
@@ -422,29 +918,29 @@ public abstract class MavenCentralAnalysis {
                         Files.createFile(filePath);
                     }
                 }
-                artifacts.add(current);
-                processIndex(current);
+                if(artifacts != null) {
+                    artifacts.add(current);
+                }
+                processIndex(current, temp.getIndex());
             }
             if(indexIterator.getIndex() % setupInfo.getWriteProcessedIndexes() == 0)
-                writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
-        }
-
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
+                writeLastProcessed(setupInfo.getName());
         }
 
         indexIterator.closeReader();
-        return artifacts;
     }
 
-    private void processIndexIdentifier(ArtifactIdent ident) {
+    private void processIndexIdentifier(ArtifactIdent ident, long position) {
+        if(walkedReleases != null) {
+            walkedReleases.addRelease(ident);
+        }
+        if(!progress.begin(position, ident)) {
+            return;
+        }
         if(setupInfo.isMulti()){
-            queueActorRef.tell(new ProcessIdentifierMessage(ident, this), ActorRef.noSender());
+            engine.submit(ident);
         } else {
-            callResolver(ident);
-            if(ArtifactFactory.getArtifact(ident) != null) {
-                analyzeArtifact(ArtifactFactory.getArtifact(ident));
-            }
+            processIdentifier(ident);
         }
     }
 
@@ -457,26 +953,29 @@ public abstract class MavenCentralAnalysis {
      */
     public List<ArtifactIdent> lazyWalkAllIndexes(IndexIterator indexIterator) throws IOException {
         List<ArtifactIdent> idents = new ArrayList<>();
+        lazyWalkAllIndexes(indexIterator, idents);
+        return idents;
+    }
+
+    private void lazyWalkAllIndexes(IndexIterator indexIterator, List<ArtifactIdent> idents) throws IOException {
         while(indexIterator.hasNext()) {
-            ArtifactIdent ident = indexIterator.next().getIdent();
-            idents.add(ident);
+            IndexInformation information = indexIterator.next();
+            ArtifactIdent ident = information.getIdent();
+            if(idents != null) {
+                idents.add(ident);
+            }
             if(setupInfo.isOutput() && !resolvePom && !resolveJar) {
                 Path filePath = setupInfo.getToOutputDirectory().resolve(ident.getGroupID() + "-" + ident.getArtifactID() + "-" + ident.getVersion() + ".txt");
                 if(!Files.exists(filePath)) {
                     Files.createFile(filePath);
                 }
             }
-            processIndexIdentifier(ident);
+            processIndexIdentifier(ident, information.getIndex());
             if(indexIterator.getIndex() % setupInfo.getWriteProcessedIndexes() == 0)
-                writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
-        }
-
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
+                writeLastProcessed(setupInfo.getName());
         }
 
         indexIterator.closeReader();
-        return idents;
     }
 
     /**
@@ -487,29 +986,32 @@ public abstract class MavenCentralAnalysis {
      * @see ArtifactIdent
      * @throws IOException when there is an issue opening a file
      */
-    public List<ArtifactIdent> lazyWalkPaginated(long take, IndexIterator indexIterator) throws IOException{
+    public List<ArtifactIdent> lazyWalkPaginated(long take, IndexIterator indexIterator) throws IOException {
         List<ArtifactIdent> idents = new ArrayList<>();
+        lazyWalkPaginated(take, indexIterator, idents);
+        return idents;
+    }
 
+    private void lazyWalkPaginated(long take, IndexIterator indexIterator, List<ArtifactIdent> idents) throws IOException {
         take += indexIterator.getIndex();
         while(indexIterator.hasNext() && indexIterator.getIndex() < take) {
-            ArtifactIdent ident = indexIterator.next().getIdent();
-            idents.add(ident);
+            IndexInformation information = indexIterator.next();
+            ArtifactIdent ident = information.getIdent();
+            if(idents != null) {
+                idents.add(ident);
+            }
             if(setupInfo.isOutput() && !resolvePom && !resolveJar) {
                 Path filePath = setupInfo.getToOutputDirectory().resolve(ident.getGroupID() + "-" + ident.getArtifactID() + "-" + ident.getVersion() + ".txt");
                 if(!Files.exists(filePath)) {
                     Files.createFile(filePath);
                 }
             }
-            processIndexIdentifier(ident);
+            processIndexIdentifier(ident, information.getIndex());
             if(indexIterator.getIndex() % setupInfo.getWriteProcessedIndexes() == 0)
-                writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
+                writeLastProcessed(setupInfo.getName());
         }
 
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
-        }
         indexIterator.closeReader();
-        return idents;
     }
 
     /**
@@ -523,40 +1025,49 @@ public abstract class MavenCentralAnalysis {
      * @see ArtifactIdent
      * @throws IOException when there is an issue opening a file
      */
-    public List<ArtifactIdent> lazyWalkDates(long since, long until, IndexIterator indexIterator) throws IOException{
+    public List<ArtifactIdent> lazyWalkDates(long since, long until, IndexIterator indexIterator) throws IOException {
         List<ArtifactIdent> idents = new ArrayList<>();
+        lazyWalkDates(since, until, indexIterator, idents);
+        return idents;
+    }
 
+    private void lazyWalkDates(long since, long until, IndexIterator indexIterator, List<ArtifactIdent> idents) throws IOException {
         long currentToSince;
         while(indexIterator.hasNext()) {
             IndexInformation temp = indexIterator.next();
             currentToSince = temp.getLastModified();
             if(currentToSince >= since && currentToSince < until) {
                 ArtifactIdent ident = temp.getIdent();
-                idents.add(ident);
+                if(idents != null) {
+                    idents.add(ident);
+                }
                 if(setupInfo.isOutput() && !resolvePom && !resolveJar) {
                     Path filePath = setupInfo.getToOutputDirectory().resolve(ident.getGroupID() + "-" + ident.getArtifactID() + "-" + ident.getVersion() + ".txt");
                     if(!Files.exists(filePath)) {
                         Files.createFile(filePath);
                     }
                 }
-                processIndexIdentifier(ident);
+                processIndexIdentifier(ident, temp.getIndex());
             }
             if(indexIterator.getIndex() % setupInfo.getWriteProcessedIndexes() == 0)
-                writeLastProcessed(indexIterator.getIndex(), setupInfo.getName());
-        }
-
-        if(setupInfo.isMulti()) {
-            queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
+                writeLastProcessed(setupInfo.getName());
         }
 
         indexIterator.closeReader();
-
-        return idents;
     }
 
-    private void writeLastProcessed(long lastIndexProcessed, Path name) throws IOException {
+    /*
+     * Writes the position up to which all artifacts have been completed. In multithreaded runs, this lags behind the
+     * position of the walker, as it only advances once the workers are done with all artifacts before it. For the
+     * index this is the next position to process, for a coordinates file it is the last completed line.
+     */
+    private void writeLastProcessed(Path name) throws IOException {
+        long watermark = progress.getWatermark();
+        if(setupInfo.getToCoordinates() != null) {
+            watermark--;
+        }
         BufferedWriter writer = new BufferedWriter(new FileWriter(name.toFile()));
-        writer.write(String.valueOf(lastIndexProcessed));
+        writer.write(String.valueOf(watermark));
         writer.close();
     }
 
@@ -566,10 +1077,15 @@ public abstract class MavenCentralAnalysis {
      * @return a list of identifiers collected from the file
      */
     public List<ArtifactIdent> readIdentsIn() {
+        List<ArtifactIdent> identifiers = new ArrayList<>();
+        readIdentsIn(identifiers);
+        return identifiers;
+    }
+
+    private void readIdentsIn(List<ArtifactIdent> identifiers) {
         Path toCoordinates = setupInfo.getToCoordinates();
 
         BufferedReader coordinatesReader;
-        List<ArtifactIdent> identifiers = new ArrayList<>();
         try{
             coordinatesReader = new BufferedReader(new FileReader(toCoordinates.toFile()));
             String line = coordinatesReader.readLine();
@@ -583,8 +1099,10 @@ public abstract class MavenCentralAnalysis {
                         String[] parts = line.split(":");
                         if(parts.length == 3) {
                             ArtifactIdent current = new ArtifactIdent(parts[0], parts[1], parts[2]);
-                            identifiers.add(current);
-                            processIndexIdentifier(current);
+                            if(identifiers != null) {
+                                identifiers.add(current);
+                            }
+                            processIndexIdentifier(current, i + 1);
                             curTake++;
                         } else {
                             log.error("unable to process Artifact Identifier {} at position {}", line, i);
@@ -602,8 +1120,10 @@ public abstract class MavenCentralAnalysis {
                         String[] parts = line.split(":");
                         if(parts.length == 3) {
                             ArtifactIdent current = new ArtifactIdent(parts[0], parts[1], parts[2]);
-                            identifiers.add(current);
-                            processIndexIdentifier(current);
+                            if(identifiers != null) {
+                                identifiers.add(current);
+                            }
+                            processIndexIdentifier(current, i + 1);
                         } else {
                             log.error("unable to process Artifact Identifier {} at position {}", line, i);
                         }
@@ -617,8 +1137,10 @@ public abstract class MavenCentralAnalysis {
                     String[] parts = line.split(":");
                     if(parts.length == 3) {
                         ArtifactIdent current = new ArtifactIdent(parts[0], parts[1], parts[2]);
-                        identifiers.add(current);
-                        processIndexIdentifier(current);
+                        if(identifiers != null) {
+                            identifiers.add(current);
+                        }
+                        processIndexIdentifier(current, i + 1);
                     } else {
                         log.error("unable to process Artifact Identifier {} at position {}", line, i);
                     }
@@ -627,16 +1149,11 @@ public abstract class MavenCentralAnalysis {
                 }
             }
 
-            if(setupInfo.isMulti()) {
-                queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
-            }
-
-            writeLastProcessed(i, setupInfo.getName());
+            writeLastProcessed(setupInfo.getName());
             coordinatesReader.close();
         } catch(IOException e) {
             throw new RuntimeException(e);
         }
-        return identifiers;
     }
 
     private long getStartingPos() {
@@ -650,17 +1167,145 @@ public abstract class MavenCentralAnalysis {
         }
     }
 
+    /**
+     * Resolves and analyzes a single artifact, then releases it from the artifact store. This is the unit of work of
+     * the processing engines in multithreaded runs.
+     * @param identifier Artifact identifier to process
+     */
+    public void processIdentifier(ArtifactIdent identifier) {
+        Artifact current;
+        try {
+            current = callResolver(identifier);
+        } catch(RuntimeException e) {
+            progress.fail(identifier);
+            throw e;
+        }
+        analyzeResolved(identifier, current);
+    }
+
+    /*
+     * Fetch stage of the staged engine. POM resolution is done here as a whole, as it is dominated by downloading
+     * parent, import and dependency POM files, which are only discovered while parsing.
+     */
+    private FetchedArtifact fetchArtifact(ArtifactIdent identifier) {
+        try {
+            Artifact current = resolvePom ? resolverFactory.runPom(identifier) : null;
+            if(resolveJar) {
+                Artifact cached = resolverFactory.loadCachedJar(identifier);
+                if(cached == null) {
+                    return new FetchedArtifact(identifier, current, resolverFactory.fetchJar(identifier));
+                }
+                current = cached;
+            }
+            return new FetchedArtifact(identifier, current, null);
+        } catch(RuntimeException e) {
+            progress.fail(identifier);
+            throw e;
+        }
+    }
+
+    private FetchedArtifact parseArtifact(FetchedArtifact fetched) {
+        try {
+            if(fetched.jarBytes != null) {
+                Artifact parsed = resolverFactory.parseJar(fetched.identifier, fetched.jarBytes);
+                return new FetchedArtifact(fetched.identifier, parsed != null ? parsed : fetched.artifact, null);
+            }
+            return fetched;
+        } catch(RuntimeException e) {
+            progress.fail(fetched.identifier);
+            throw e;
+        }
+    }
+
+    private void analyzeFetched(FetchedArtifact fetched) {
+        analyzeResolved(fetched.identifier, fetched.artifact);
+    }
+
+    /*
+     * Analyzes an artifact returned by the resolvers. The artifact is passed on directly instead of being looked up in
+     * the store again, as the store may have dropped it in the meantime. The resolvers return null for artifacts whose
+     * files are not available (e.g. the JAR of a pom-packaged artifact), retrying those would not help, so they are
+     * completed without an analysis. Only exceptions are recorded as failed and retried when resuming the run. With
+     * batching, failures are recorded per batch by analyzeAndRelease, as the batcher does not pass them on.
+     */
+    private void analyzeResolved(ArtifactIdent identifier, Artifact current) {
+        if(current == null) {
+            if(resolvePom || resolveJar) {
+                log.debug("Skipping unavailable artifact " + identifier.getCoordinates());
+            }
+            progress.complete(identifier);
+            return;
+        }
+        try {
+            deliver(current);
+        } catch(RuntimeException e) {
+            progress.fail(identifier);
+            throw e;
+        }
+    }
+
+    /*
+     * Passes a resolved artifact to the analysis, either directly or via the batcher. Artifacts are released from the
+     * store and recorded as completed once they have been analyzed.
+     */
+    private void deliver(Artifact current) {
+        ArtifactBatcher currentBatcher = batcher;
+        if(currentBatcher != null) {
+            currentBatcher.add(current);
+        } else {
+            analyzeArtifact(current);
+            release(current.getIdent());
+            progress.complete(current.getIdent());
+        }
+    }
+
+    private void analyzeAndRelease(List<Artifact> batch) {
+        try {
+            analyzeBatch(batch);
+        } catch(RuntimeException e) {
+            for(Artifact artifact : batch) {
+                progress.fail(artifact.getIdent());
+            }
+            throw e;
+        }
+        for(Artifact artifact : batch) {
+            release(artifact.getIdent());
+            progress.complete(artifact.getIdent());
+        }
+    }
+
+    private void release(ArtifactIdent identifier) {
+        ArtifactFactory.release(identifier);
+        if(resolverFactory != null) {
+            resolverFactory.release(identifier);
+        }
+    }
+
+    private static final class FetchedArtifact {
+        private final ArtifactIdent identifier;
+        private final Artifact artifact;
+        private final byte[] jarBytes;
+
+        FetchedArtifact(ArtifactIdent identifier, Artifact artifact, byte[] jarBytes) {
+            this.identifier = identifier;
+            this.artifact = artifact;
+            this.jarBytes = jarBytes;
+        }
+    }
+
     /**
      * Invokes all resolvers as defined by the analysis configuration to enrich the given artifact identifier.
      * @param identifier Artifact identifier to enrich
+     * @return The enriched artifact, or null if it could not be resolved
      */
-    public void callResolver(ArtifactIdent identifier) {
+    public Artifact callResolver(ArtifactIdent identifier) {
         if(resolvePom && resolveJar) {
-            resolverFactory.runBoth(identifier);
+            return resolverFactory.runBoth(identifier);
         } else if(resolvePom) {
-            resolverFactory.runPom(identifier);
+            return resolverFactory.runPom(identifier);
         } else if(resolveJar) {
-            resolverFactory.runJar(identifier);
+            return resolverFactory.runJar(identifier);
         }
+        return ArtifactFactory.getArtifact(identifier);
     }
 }
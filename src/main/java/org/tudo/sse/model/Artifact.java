@@ -8,9 +8,19 @@ import org.tudo.sse.model.pom.PomInformation;
 import org.tudo.sse.resolution.JarResolutionException;
 import org.tudo.sse.resolution.JarResolver;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class holds all the artifact information. For each artifact index, jar, and pom information can be defined.
@@ -23,13 +33,23 @@ public class Artifact {
     public final ArtifactIdent ident;
     private static final Logger log = LogManager.getLogger(Artifact.class);
 
+    /**
+     * The number of dependency JARs that buildTypeStructure resolves at the same time by default.
+     */
+    public static final int DEFAULT_DEPENDENCY_THREADS = 8;
+
+    /**
+     * The number of dependency JARs that are resolved at the same time across all type structures being built.
+     */
+    public static final int MAX_DEPENDENCY_THREADS = 32;
+
     /**
      * A secondary identifier, for if its pom information has been moved on the maven central repository.
      */
     public ArtifactIdent relocation;
-    private IndexInformation indexInformation;
-    private PomInformation pomInformation;
-    private JarInformation jarInformation;
+    private volatile IndexInformation indexInformation;
+    private volatile PomInformation pomInformation;
+    private volatile JarInformation jarInformation;
 
     /**
      * Creates a new artifact based on given IndexInformation. This artifact will have no POM or JAR information
@@ -166,139 +186,389 @@ public class Artifact {
 
     /**
      * Builds the Type hierarchy for this artifact and returns a map of type FQNs to their hierarchy node. Only works
-     * if JarInformation is available.
+     * if JarInformation is available. Supertypes that are not defined by this artifact are looked up in the JARs of
+     * its effective transitive dependencies, which are downloaded and parsed first, up to
+     * {@value #DEFAULT_DEPENDENCY_THREADS} at the same time.
      *
      * @return Map of Type FQNs to their hierarchy node
      */
     public Map<String, ClassFileNode> buildTypeStructure() {
-        Map<String, ClassFileNode> roots = new HashMap<>();
-        roots.put("java/lang/Object", new VirtualClassFileNode(new ObjType(0, "java/lang/Object", "java/lang")));
-        if(jarInformation != null) {
-            Map<String, List<ClassFile>> packages = jarInformation.getPackages();
+        return buildTypeStructure(new JarResolver(), DEFAULT_DEPENDENCY_THREADS);
+    }
+
+    /**
+     * Builds the Type hierarchy for this artifact and returns a map of type FQNs to their hierarchy node. Only works
+     * if JarInformation is available. Supertypes that are not defined by this artifact are looked up in the JARs of
+     * its effective transitive dependencies, which are downloaded and parsed concurrently with the given resolver
+     * first. Downloads are subject to the limit of concurrent requests set in ResourceConnections, and to the
+     * configuration of the resolver, e.g. its JarInformation cache. Across all type structures being built, at most
+     * {@value #MAX_DEPENDENCY_THREADS} dependency JARs are resolved at the same time. The result does not depend on the
+     * number of threads.
+     *
+     * @param resolver The resolver to resolve the dependency JARs with
+     * @param threads Maximum number of dependency JARs to resolve at the same time
+     * @return Map of Type FQNs to their hierarchy node
+     */
+    public Map<String, ClassFileNode> buildTypeStructure(JarResolver resolver, int threads) {
+        TypeIndex dependencies = new TypeIndex();
+        if(jarInformation != null && pomInformation != null) {
+            Map<String, Artifact> depArts = new HashMap<>();
+            for(Artifact artifact : resolveDependencyJars(pomInformation.getEffectiveTransitiveDependencies(), resolver, threads)) {
+                depArts.put(artifact.getIdent().getGroupID() + ":" + artifact.getIdent().getArtifactID(), artifact);
+            }
+
+            for(Artifact artifact : depArts.values()) {
+                dependencies.add(artifact);
+            }
+        }
+        return buildTypeStructure(dependencies);
+    }
+
+    /**
+     * Builds the Type hierarchy for this artifact like buildTypeStructure(JarResolver, int), but only resolves the
+     * dependency JARs that are needed to resolve its supertypes. Starting with the supertypes of this artifact that it
+     * does not define itself, the dependencies that the given index lists as providing their packages are resolved,
+     * then the supertypes of those, and so on. Dependencies that are not part of the index are only resolved if some
+     * supertype outside of the Java platform packages remains unresolved otherwise. The packages of every resolved
+     * JAR are added to the index, so the index becomes more precise with every type structure built with it.
+     * <p>
+     * The result is the same as with eager resolution, unless the index is outdated or several dependencies define
+     * the same types.
+     *
+     * @param resolver The resolver to resolve the dependency JARs with
+     * @param threads Maximum number of dependency JARs to resolve at the same time
+     * @param packageIndex Index of the packages provided by dependency JARs, or null to resolve all dependency JARs
+     * @return Map of Type FQNs to their hierarchy node
+     */
+    public Map<String, ClassFileNode> buildTypeStructure(JarResolver resolver, int threads, PackageIndex packageIndex) {
+        if(packageIndex == null) {
+            return buildTypeStructure(resolver, threads);
+        }
+
+        TypeIndex dependencies = new TypeIndex();
+        if(jarInformation != null && pomInformation != null) {
             Map<String, Artifact> depArts = new HashMap<>();
+            for(Artifact artifact : resolveRequiredDependencyJars(resolver, threads, packageIndex)) {
+                depArts.put(artifact.getIdent().getGroupID() + ":" + artifact.getIdent().getArtifactID(), artifact);
+            }
+
+            for(Artifact artifact : depArts.values()) {
+                dependencies.add(artifact);
+            }
+        }
+        return buildTypeStructure(dependencies);
+    }
 
-            if(pomInformation != null) {
-                JarResolver resolver = new JarResolver();
-                for(Artifact artifact : pomInformation.getEffectiveTransitiveDependencies()) {
-                    try {
-                        artifact.setJarInformation(resolver.parseJar(artifact.getIdent()).getJarInformation());
-                        depArts.put(artifact.getIdent().getGroupID() + ":" + artifact.getIdent().getArtifactID(), artifact);
-                    } catch (JarResolutionException e) {
-                        log.error(e);
+    private List<Artifact> resolveRequiredDependencyJars(JarResolver resolver, int threads, PackageIndex packageIndex) {
+        List<Artifact> remaining = new ArrayList<>(pomInformation.getEffectiveTransitiveDependencies());
+        List<Artifact> resolved = new ArrayList<>();
+        Set<String> defined = new HashSet<>();
+        Set<String> unresolved = new HashSet<>();
+        addSupertypes(this, defined, unresolved);
+
+        while(!unresolved.isEmpty() && !remaining.isEmpty()) {
+            Set<String> neededPackages = new HashSet<>();
+            for(String fqn : unresolved) {
+                int separator = fqn.lastIndexOf('/');
+                neededPackages.add(separator < 0 ? "" : fqn.substring(0, separator));
+            }
+
+            List<Artifact> selected = new ArrayList<>();
+            for(Artifact artifact : remaining) {
+                if(packageIndex.contains(artifact.getIdent())) {
+                    for(String packageName : neededPackages) {
+                        if(packageIndex.provides(artifact.getIdent(), packageName)) {
+                            selected.add(artifact);
+                            break;
+                        }
+                    }
+                }
+            }
+            if(selected.isEmpty()) {
+                for(Artifact artifact : remaining) {
+                    if(!packageIndex.contains(artifact.getIdent())) {
+                        selected.add(artifact);
+                    }
+                }
+            }
+            if(selected.isEmpty()) {
+                break;
+            }
+            remaining.removeAll(selected);
+
+            List<Artifact> newlyResolved = resolveDependencyJars(selected, resolver, threads);
+            for(Artifact artifact : newlyResolved) {
+                packageIndex.add(artifact.getIdent(), artifact.getJarInformation());
+                addSupertypes(artifact, defined, unresolved);
+            }
+            resolved.addAll(newlyResolved);
+        }
+
+        log.debug("Resolved " + resolved.size() + " of " + pomInformation.getEffectiveTransitiveDependencies().size()
+                + " dependency JARs for " + ident.getCoordinates());
+        return resolved;
+    }
+
+    /*
+     * Adds the types defined by the given artifact to defined, and its supertypes that are neither defined so far nor
+     * part of the Java platform to unresolved. Supertypes of a package the artifact contains itself are only looked up
+     * in the artifact when building the type structure, so they never require another JAR.
+     */
+    private static void addSupertypes(Artifact artifact, Set<String> defined, Set<String> unresolved) {
+        Map<String, List<ClassFile>> packages = artifact.getJarInformation().getPackages();
+        if(packages == null) {
+            return;
+        }
+        for(List<ClassFile> classes : packages.values()) {
+            if(classes == null) {
+                continue;
+            }
+            for(ClassFile classFile : classes) {
+                defined.add(classFile.getThistype().getFqn());
+                unresolved.remove(classFile.getThistype().getFqn());
+            }
+        }
+
+        for(List<ClassFile> classes : packages.values()) {
+            if(classes == null) {
+                continue;
+            }
+            for(ClassFile classFile : classes) {
+                List<ObjType> supertypes = new ArrayList<>();
+                if(classFile.getInterfaceTypes() != null) {
+                    supertypes.addAll(classFile.getInterfaceTypes());
+                }
+                if(classFile.getSuperType() != null) {
+                    supertypes.add(classFile.getSuperType());
+                }
+                for(ObjType supertype : supertypes) {
+                    String fqn = supertype.getFqn();
+                    if(!defined.contains(fqn) && !packages.containsKey(supertype.getPackageName()) && !isPlatformType(fqn)) {
+                        unresolved.add(fqn);
                     }
                 }
             }
+        }
+    }
 
-            for(Map.Entry<String, List<ClassFile>> classes : packages.entrySet()) {
+    private static boolean isPlatformType(String fqn) {
+        return fqn.startsWith("java/") || fqn.startsWith("jdk/") || fqn.startsWith("sun/");
+    }
+
+    /*
+     * Resolves the JARs of the given artifacts and returns the artifacts whose JAR could be resolved, in the order they
+     * were given, so the dependency index is built the same way as if they had been resolved one after another. At
+     * most the given number of workers of the shared dependency executor take the artifacts one after another.
+     */
+    private static List<Artifact> resolveDependencyJars(List<Artifact> artifacts, JarResolver resolver, int threads) {
+        List<Artifact> resolved = new ArrayList<>();
+        if(artifacts == null || artifacts.isEmpty()) {
+            return resolved;
+        }
+
+        JarInformation[] jars = new JarInformation[artifacts.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while((i = next.getAndIncrement()) < jars.length && !Thread.currentThread().isInterrupted()) {
+                try {
+                    Artifact parsed = resolver.parseJar(artifacts.get(i).getIdent());
+                    jars[i] = parsed == null ? null : parsed.getJarInformation();
+                } catch (JarResolutionException | RuntimeException e) {
+                    log.error(e);
+                }
+            }
+        };
+
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for(int w = 0; w < Math.max(1, Math.min(threads, jars.length)); w++) {
+                workers.add(DependencyExecutor.INSTANCE.submit(worker));
+            }
+            for(Future<?> future : workers) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while resolving dependency JARs", e);
+            for(Future<?> future : workers) {
+                future.cancel(true);
+            }
+            return resolved;
+        } catch (ExecutionException e) {
+            log.error(e.getCause());
+        }
+
+        for(int i = 0; i < jars.length; i++) {
+            Artifact artifact = artifacts.get(i);
+            if(jars[i] != null) {
+                artifact.setJarInformation(jars[i]);
+                resolved.add(artifact);
+            } else {
+                log.warn("No JAR available for dependency " + artifact.getIdent().getCoordinates());
+            }
+        }
+        return resolved;
+    }
+
+    /*
+     * Executor shared by all type structures being built, so the number of threads resolving dependency JARs is bounded
+     * no matter how many artifacts are analyzed at the same time. Idle threads are discarded after a while.
+     */
+    private static final class DependencyExecutor {
+        static final ExecutorService INSTANCE = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_DEPENDENCY_THREADS, MAX_DEPENDENCY_THREADS,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "dependency-jars-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Builds the Type hierarchy for this artifact and returns a map of type FQNs to their hierarchy node. Only works
+     * if JarInformation is available. Supertypes that are not defined by this artifact are looked up in the given index,
+     * which may be shared by the type structures of several artifacts, e.g. if they have dependencies in common.
+     *
+     * @param dependencies Index of the types defined by the dependencies of this artifact
+     * @return Map of Type FQNs to their hierarchy node
+     */
+    public Map<String, ClassFileNode> buildTypeStructure(TypeIndex dependencies) {
+        TypeStructureBuilder builder = new TypeStructureBuilder(dependencies);
+        if(jarInformation != null) {
+            TypeIndex own = new TypeIndex();
+            own.add(this);
+
+            for(Map.Entry<String, List<ClassFile>> classes : jarInformation.getPackages().entrySet()) {
                 for(ClassFile clase : classes.getValue()) {
-                    resolveNode(roots, clase, packages, depArts);
+                    builder.resolveNode(clase, this, own);
                 }
             }
         }
-        return roots;
+        return builder.roots;
     }
 
-    private ClassFileNode resolveNode(Map<String, ClassFileNode> root, ClassFile clase, Map<String, List<ClassFile>> packages, Map<String, Artifact> depArts) {
-            ClassFileNode node = new DefinedClassFileNode(clase.getAccessFlags(), clase.getThistype(), clase.getVersion());
+    /*
+     * Holds the state of a single type structure computation. Every type is resolved exactly once: its node is memoized
+     * by FQN, so a base class or interface shared by many types is linked to all of them instead of being resolved
+     * again (recursively up its own hierarchy) for each one.
+     */
+    private static final class TypeStructureBuilder {
+        private final Map<String, ClassFileNode> roots = new HashMap<>();
+        private final Map<String, ClassFileNode> nodes = new HashMap<>();
+        private final Map<String, ClassFileNode> unresolvedInterfaces = new HashMap<>();
+        private final TypeIndex dependencies;
+
+        TypeStructureBuilder(TypeIndex dependencies) {
+            this.dependencies = dependencies;
+            roots.put("java/lang/Object", new VirtualClassFileNode(new ObjType(0, "java/lang/Object", "java/lang")));
+        }
+
+        /*
+         * The owner is the artifact defining the given class file, and ownerTypes the index it has been added to. Types
+         * of a package that exists in the owner are only looked up in the owner, all others in the dependencies.
+         */
+        ClassFileNode resolveNode(ClassFile clase, Artifact owner, TypeIndex ownerTypes) {
+            ClassFileNode node = nodes.get(clase.getThistype().getFqn());
+            if(node != null) {
+                return node;
+            }
+
+            node = new DefinedClassFileNode(clase.getAccessFlags(), clase.getThistype(), clase.getVersion());
+            // registered before resolving the supertypes, so malformed cyclic hierarchies terminate
+            nodes.put(clase.getThistype().getFqn(), node);
 
             if(clase.getSuperType() != null) {
-               resolveSuperClass(root, node, clase, packages, depArts);
+                resolveSuperClass(node, clase, owner, ownerTypes);
             }
 
             if(!clase.getInterfaceTypes().isEmpty()) {
-                resolveInterfaces(root, node, clase, packages, depArts);
+                resolveInterfaces(node, clase, owner, ownerTypes);
             }
 
             return node;
-    }
+        }
 
-    private void resolveSuperClass(Map<String, ClassFileNode> roots, ClassFileNode node, ClassFile clase, Map<String, List<ClassFile>> packages, Map<String, Artifact> depArts) {
-        String packName = clase.getSuperType().getPackageName();
+        private void resolveSuperClass(ClassFileNode node, ClassFile clase, Artifact owner, TypeIndex ownerTypes) {
+            ObjType superType = clase.getSuperType();
 
-        //Check if the superclass can be found in the root map
-        if(roots.containsKey(clase.getSuperType().getFqn())) {
-            node.setSuperClass(roots.get(clase.getSuperType().getFqn()));
-            roots.get(clase.getSuperType().getFqn()).addChild(node);
-        }
-        //Check if
-        else if(packages.containsKey(packName)) {
-            List<ClassFile> toLookThrough = packages.get(packName);
-            for(ClassFile cls : toLookThrough) {
-                if(cls.getThistype().getFqn().equals(clase.getSuperType().getFqn())) {
-                    node.setSuperClass(resolveNode(roots, cls, packages, depArts));
-                    node.getSuperClass().addChild(node);
-                    break;
-                }
+            //Check if the superclass can be found in the root map
+            if(roots.containsKey(superType.getFqn())) {
+                node.setSuperClass(roots.get(superType.getFqn()));
+                roots.get(superType.getFqn()).addChild(node);
             }
-        } else {
-            boolean found = false;
-
-            for(Map.Entry<String, Artifact> entry : depArts.entrySet()) {
-                if(entry.getValue().getJarInformation().getPackages().containsKey(packName)) {
-                    for(ClassFile depClass : entry.getValue().getJarInformation().getPackages().get(packName)) {
-                        if(depClass.getThistype().getFqn().equals(clase.getSuperType().getFqn())) {
-                            found = true;
-                            node.setSuperClass(resolveNode(roots, depClass, entry.getValue().getJarInformation().getPackages(), depArts));
-                            node.getSuperClass().addChild(node);
-                            break;
-                        }
-                    }
-                    if(found) {
-                        break;
-                    }
+            //Check if the superclass is defined in the same artifact
+            else if(owner.getJarInformation().getPackages().containsKey(superType.getPackageName())) {
+                ClassFile cls = findInArtifact(owner, ownerTypes, superType);
+                if(cls != null) {
+                    node.setSuperClass(resolveNode(cls, owner, ownerTypes));
+                    node.getSuperClass().addChild(node);
                 }
-            }
+            } else {
+                TypeIndex.Entry found = dependencies.get(superType.getFqn());
 
-            //add a new root to the map
-            if(!found) {
-                node.setSuperClass(new VirtualClassFileNode(clase.getSuperType()));
-                node.getSuperClass().addChild(node);
-                roots.put(node.getSuperClass().getThisType().getFqn(), node.getSuperClass());
+                if(found != null) {
+                    node.setSuperClass(resolveNode(found.getClassFile(), found.getArtifact(), dependencies));
+                    node.getSuperClass().addChild(node);
+                }
+                //add a new root to the map
+                else {
+                    node.setSuperClass(new VirtualClassFileNode(superType));
+                    node.getSuperClass().addChild(node);
+                    roots.put(node.getSuperClass().getThisType().getFqn(), node.getSuperClass());
+                }
             }
         }
-    }
 
-    private void resolveInterfaces(Map<String, ClassFileNode> roots, ClassFileNode node, ClassFile clase, Map<String, List<ClassFile>> packages, Map<String, Artifact> depArts) {
-        for(ObjType itfe : clase.getInterfaceTypes()) {
-            String packName = itfe.getPackageName();
-
-            if(packages.containsKey(packName)) {
-                List<ClassFile> toLookThrough = packages.get(packName);
-                for(ClassFile cls : toLookThrough) {
-                    if(cls.getThistype().getFqn().equals(itfe.getFqn())) {
-                        ClassFileNode resolved = resolveNode(roots, cls, packages, depArts);
+        private void resolveInterfaces(ClassFileNode node, ClassFile clase, Artifact owner, TypeIndex ownerTypes) {
+            for(ObjType itfe : clase.getInterfaceTypes()) {
+                if(owner.getJarInformation().getPackages().containsKey(itfe.getPackageName())) {
+                    ClassFile cls = findInArtifact(owner, ownerTypes, itfe);
+                    if(cls != null) {
+                        ClassFileNode resolved = resolveNode(cls, owner, ownerTypes);
                         resolved.addChild(node);
                         ((DefinedClassFileNode) node).addInterfaceNode(resolved);
-                        break;
                     }
-                }
-            } else {
-                boolean found = false;
-
-                for(Map.Entry<String, Artifact> entry : depArts.entrySet()) {
-                    if(entry.getValue().getJarInformation().getPackages().containsKey(packName)) {
-                        for(ClassFile depClass : entry.getValue().getJarInformation().getPackages().get(packName)) {
-                            if(depClass.getThistype().getFqn().equals(itfe.getFqn())) {
-                                found = true;
-                                ClassFileNode resolved = resolveNode(roots, depClass, entry.getValue().getJarInformation().getPackages(), depArts);
-                                resolved.addChild(node);
-                                ((DefinedClassFileNode) node).addInterfaceNode(resolved);
-                                break;
-                            }
-                        }
-                        if(found) {
-                            break;
-                        }
+                } else {
+                    TypeIndex.Entry found = dependencies.get(itfe.getFqn());
+
+                    if(found != null) {
+                        ClassFileNode resolved = resolveNode(found.getClassFile(), found.getArtifact(), dependencies);
+                        resolved.addChild(node);
+                        ((DefinedClassFileNode) node).addInterfaceNode(resolved);
+                    } else {
+                        // unresolved interfaces are shared as well, but are not roots of the structure
+                        ClassFileNode notFound = unresolvedInterfaces.computeIfAbsent(itfe.getFqn(), fqn -> new VirtualClassFileNode(itfe));
+                        ((DefinedClassFileNode) node).addInterfaceNode(notFound);
+                        notFound.addChild(node);
                     }
                 }
+            }
+        }
+    }
 
-                if(!found) {
-                    ClassFileNode notFound = new VirtualClassFileNode(itfe);
-                    ((DefinedClassFileNode) node).addInterfaceNode(notFound);
-                    notFound.addChild(node);
+    private static ClassFile findInArtifact(Artifact owner, TypeIndex ownerTypes, ObjType type) {
+        TypeIndex.Entry entry = ownerTypes.get(type.getFqn());
+        if(entry == null || entry.getArtifact() == owner) {
+            return entry == null ? null : entry.getClassFile();
+        }
+
+        //Another artifact of the index defines a type with the same name, so search the owner's package
+        List<ClassFile> toLookThrough = owner.getJarInformation().getPackages().get(type.getPackageName());
+        if(toLookThrough != null) {
+            for(ClassFile cls : toLookThrough) {
+                if(cls.getThistype().getFqn().equals(type.getFqn())) {
+                    return cls;
                 }
             }
         }
+        return null;
     }
 
 }
@@ -1,17 +1,24 @@
 package org.tudo.sse.model.jar;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * This class represents a JVM class file contained within a JAR. Information contained here are parsed from OPAL's
  * class file representation.
+ * <p>
+ * Types are not stored in the class file itself, but as indices into a type table. Once the class files are set as
+ * the packages of a JarInformation, all class files of the JAR share one table, so every type is only stored once.
+ * @see TypeTable
  */
 public class ClassFile {
+    private final TypeTable types;
     private final int accessFlags;
-    private final ObjType thistype;
+    private final int thistype;
     private final long version;
-    private final ObjType superType;
-    private final List<ObjType> interfaceTypes;
+    private final int superType;
+    private final int[] interfaceTypes;
 
     /**
      * Creates a new ClassFile instance with the given attributes.
@@ -23,6 +30,23 @@ public class ClassFile {
      * @param interfaceTypes A list of all interface types implemented by this class
      */
     public ClassFile(int accessFlags, ObjType thisType, long version, ObjType superType, List<ObjType> interfaceTypes) {
+        this.types = new TypeTable(2 + (interfaceTypes == null ? 0 : interfaceTypes.size()));
+        this.accessFlags = accessFlags;
+        this.thistype = append(types, thisType);
+        this.version = version;
+        this.superType = append(types, superType);
+        if(interfaceTypes != null) {
+            this.interfaceTypes = new int[interfaceTypes.size()];
+            for(int i = 0; i < this.interfaceTypes.length; i++) {
+                this.interfaceTypes[i] = append(types, interfaceTypes.get(i));
+            }
+        } else {
+            this.interfaceTypes = null;
+        }
+    }
+
+    ClassFile(TypeTable types, int accessFlags, int thisType, long version, int superType, int[] interfaceTypes) {
+        this.types = types;
         this.accessFlags = accessFlags;
         this.thistype = thisType;
         this.version = version;
@@ -30,6 +54,10 @@ public class ClassFile {
         this.interfaceTypes = interfaceTypes;
     }
 
+    private static int append(TypeTable types, ObjType type) {
+        return type == null ? -1 : types.append(type.getId(), type.getFqn(), type.getPackageName());
+    }
+
     /**
      * Retrieves the access flags
      * @return an int representing the different accessflags for the classfile
@@ -39,11 +67,12 @@ public class ClassFile {
     }
 
     /**
-     * Retrieves the objType object for this classfile
+     * Retrieves the objType object for this classfile. The object is created from the type table on every call, so
+     * compare types with equals instead of by identity.
      * @return objtype object for this classfile
      */
     public ObjType getThistype() {
-        return thistype;
+        return thistype < 0 ? null : types.get(thistype);
     }
 
     /**
@@ -55,18 +84,59 @@ public class ClassFile {
     }
 
     /**
-     * Retrieves the objType for the superclass
+     * Retrieves the objType for the superclass. The object is created from the type table on every call, so compare
+     * types with equals instead of by identity.
      * @return objType object of the superclass
      */
     public ObjType getSuperType() {
-        return superType;
+        return superType < 0 ? null : types.get(superType);
     }
 
     /**
-     * Retrieves the objtypes for interfaces
-     * @return a list of interface objtypes
+     * Retrieves the objtypes for interfaces. The list is a read-only view on the type table: it cannot be modified,
+     * and its objType objects are created on every access.
+     * @return an unmodifiable list of interface objtypes
      */
     public List<ObjType> getInterfaceTypes() {
-        return interfaceTypes;
+        return interfaceTypes == null ? null : new InterfaceList();
+    }
+
+    /**
+     * Retrieves the type table the types of this classfile are stored in
+     * @return the type table of this classfile
+     */
+    public TypeTable getTypeTable() {
+        return types;
+    }
+
+    /**
+     * Retrieves the index of this classfile's type in its type table
+     * @return int representing the index of the type
+     */
+    public int getThistypeIndex() {
+        return thistype;
+    }
+
+    /**
+     * Retrieves the index of the superclass type in the type table of this classfile
+     * @return int representing the index of the superclass type, or -1 if there is no superclass
+     */
+    public int getSuperTypeIndex() {
+        return superType;
+    }
+
+    /*
+     * The interface types are a view on the type table, so the ObjType objects are only created when accessed.
+     */
+    private final class InterfaceList extends AbstractList<ObjType> implements RandomAccess {
+        @Override
+        public ObjType get(int index) {
+            return types.get(interfaceTypes[index]);
+        }
+
+        @Override
+        public int size() {
+            return interfaceTypes.length;
+        }
     }
 }
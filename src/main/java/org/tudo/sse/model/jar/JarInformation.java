@@ -115,10 +115,11 @@ public class JarInformation extends ArtifactInformation {
     }
 
     /**
-     * Updates the packages map
+     * Updates the packages map. The class files are copied into a compact representation in which all class files of
+     * the jar share one type table, so the map returned by getPackages is not the given map, but has the same content.
      * @param packages new map to update the current one with
      */
     public void setPackages(Map<String, List<ClassFile>> packages) {
-        this.packages = packages;
+        this.packages = packages == null ? null : TypeTable.compact(packages);
     }
 }
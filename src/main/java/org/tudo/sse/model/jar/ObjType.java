@@ -1,5 +1,7 @@
 package org.tudo.sse.model.jar;
 
+import java.util.Objects;
+
 /**
  * This class contains type information for each classfile, such as an id, fully qualified name, and which package it belongs to.
  */
@@ -43,4 +45,17 @@ public class ObjType {
     public String getPackageName() {
         return packageName;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ObjType objType = (ObjType) o;
+        return id == objType.id && Objects.equals(fqn, objType.fqn) && Objects.equals(packageName, objType.packageName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, fqn, packageName);
+    }
 }
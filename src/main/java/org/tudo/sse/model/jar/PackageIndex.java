@@ -0,0 +1,134 @@
+package org.tudo.sse.model.jar;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class records which packages the JARs of artifacts contain, so the artifacts providing a package can be
+ * determined without downloading their JARs again. It is filled with the JARs resolved during a run, and can be
+ * written to and read from a file to be reused by later runs.
+ * <p>
+ * Files contain one line per artifact, holding its G:A:V triple followed by the names of its packages, separated by
+ * spaces. Lines that cannot be parsed are ignored.
+ */
+public class PackageIndex {
+
+    private static final Logger log = LogManager.getLogger(PackageIndex.class);
+
+    private final Map<String, String[]> packagesByArtifact = new HashMap<>();
+    private final Map<String, Set<String>> artifactsByPackage = new HashMap<>();
+
+    /**
+     * Reads a package index from the given file.
+     * @param file Path of the file to read
+     * @return The package index
+     * @throws IOException when the file cannot be read
+     */
+    public static PackageIndex read(Path file) throws IOException {
+        PackageIndex index = new PackageIndex();
+        try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if(parts[0].split(":").length != 3) {
+                    log.warn("Ignoring malformed package index entry: " + line);
+                    continue;
+                }
+                index.put(parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Writes this index to the given file, replacing it atomically.
+     * @param file Path of the file to write
+     * @throws IOException when the file cannot be written
+     */
+    public synchronized void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for(Map.Entry<String, String[]> entry : packagesByArtifact.entrySet()) {
+                writer.write(entry.getKey());
+                for(String packageName : entry.getValue()) {
+                    writer.write(' ');
+                    writer.write(packageName);
+                }
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Records the packages of the given JAR, replacing previously recorded packages of the artifact. The default
+     * package is not recorded.
+     * @param ident Identifier of the artifact the JAR belongs to
+     * @param jar JarInformation of the JAR
+     */
+    public void add(ArtifactIdent ident, JarInformation jar) {
+        Collection<String> packages = jar == null || jar.getPackages() == null ? Set.of() : jar.getPackages().keySet();
+        put(ident.getCoordinates(), packages.stream()
+                .filter(packageName -> packageName != null && !packageName.isEmpty())
+                .toArray(String[]::new));
+    }
+
+    /**
+     * Checks whether the packages of the given artifact have been recorded.
+     * @param ident Identifier of the artifact
+     * @return True if the packages of the artifact are known, false otherwise
+     */
+    public synchronized boolean contains(ArtifactIdent ident) {
+        return packagesByArtifact.containsKey(ident.getCoordinates());
+    }
+
+    /**
+     * Checks whether the JAR of the given artifact contains the given package.
+     * @param ident Identifier of the artifact
+     * @param packageName Name of the package, e.g. org/tudo/sse
+     * @return True if the artifact is known to contain the package, false if it does not or is not known
+     */
+    public synchronized boolean provides(ArtifactIdent ident, String packageName) {
+        Set<String> artifacts = artifactsByPackage.get(packageName);
+        return artifacts != null && artifacts.contains(ident.getCoordinates());
+    }
+
+    /**
+     * Retrieves the number of artifacts whose packages have been recorded
+     * @return int representing the number of artifacts
+     */
+    public synchronized int size() {
+        return packagesByArtifact.size();
+    }
+
+    private synchronized void put(String coordinates, String[] packages) {
+        String[] previous = packagesByArtifact.put(coordinates, packages);
+        if(previous != null) {
+            for(String packageName : previous) {
+                Set<String> artifacts = artifactsByPackage.get(packageName);
+                artifacts.remove(coordinates);
+                if(artifacts.isEmpty()) {
+                    artifactsByPackage.remove(packageName);
+                }
+            }
+        }
+        for(String packageName : packages) {
+            artifactsByPackage.computeIfAbsent(packageName, k -> new HashSet<>()).add(coordinates);
+        }
+    }
+}
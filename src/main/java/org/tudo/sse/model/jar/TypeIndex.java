@@ -0,0 +1,98 @@
+package org.tudo.sse.model.jar;
+
+import org.tudo.sse.model.Artifact;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class maps the fully qualified names of the types defined by a set of artifacts to the artifact and class file
+ * defining them, so supertypes can be looked up in constant time while building a type hierarchy. If multiple
+ * artifacts define a type with the same name, the artifact that has been added first takes precedence.
+ * <p>
+ * An index only depends on the JarInformation of the artifacts added to it, so one index can be built for the union of
+ * the dependencies of several artifacts and be reused for all of their type structures.
+ */
+public class TypeIndex {
+
+    private final Map<String, Entry> types = new HashMap<>();
+    private final Map<Artifact, Boolean> artifacts = new IdentityHashMap<>();
+
+    /**
+     * Adds all class files of the given artifact to this index. Artifacts without JarInformation and artifacts that
+     * have already been added are ignored.
+     * @param artifact The artifact whose types to add
+     */
+    public synchronized void add(Artifact artifact) {
+        if(artifact.getJarInformation() == null || artifact.getJarInformation().getPackages() == null
+                || artifacts.put(artifact, Boolean.TRUE) != null) {
+            return;
+        }
+
+        for(List<ClassFile> classes : artifact.getJarInformation().getPackages().values()) {
+            if(classes == null) {
+                continue;
+            }
+            for(ClassFile classFile : classes) {
+                types.putIfAbsent(classFile.getThistype().getFqn(), new Entry(artifact, classFile));
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given artifact has been added to this index.
+     * @param artifact The artifact to check
+     * @return True if the types of the artifact are part of this index, false otherwise
+     */
+    public synchronized boolean contains(Artifact artifact) {
+        return artifacts.containsKey(artifact);
+    }
+
+    /**
+     * Looks up the type with the given fully qualified name.
+     * @param fqn The fully qualified name of the type
+     * @return The artifact and class file defining the type, or null if no artifact of this index defines it
+     */
+    public synchronized Entry get(String fqn) {
+        return types.get(fqn);
+    }
+
+    /**
+     * Retrieves the number of types in this index
+     * @return int representing the number of indexed types
+     */
+    public synchronized int size() {
+        return types.size();
+    }
+
+    /**
+     * A type of the index, i.e. a class file together with the artifact it is defined in.
+     */
+    public static final class Entry {
+        private final Artifact artifact;
+        private final ClassFile classFile;
+
+        Entry(Artifact artifact, ClassFile classFile) {
+            this.artifact = artifact;
+            this.classFile = classFile;
+        }
+
+        /**
+         * Retrieves the artifact defining the type
+         * @return the artifact whose JAR contains the class file
+         */
+        public Artifact getArtifact() {
+            return artifact;
+        }
+
+        /**
+         * Retrieves the class file of the type
+         * @return the class file defining the type
+         */
+        public ClassFile getClassFile() {
+            return classFile;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.tudo.sse.model.jar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores the object types referenced by the class files of a JAR. Every type is stored once with its id,
+ * fully qualified name and package name, and class files refer to types by their index in the table. Super and
+ * interface types such as java/lang/Object are thus not duplicated for every class file that references them, and
+ * package names are shared by all types of a package.
+ */
+public final class TypeTable {
+
+    private long[] ids;
+    private String[] fqns;
+    private String[] packageNames;
+    private int size;
+
+    TypeTable(int capacity) {
+        ids = new long[capacity];
+        fqns = new String[capacity];
+        packageNames = new String[capacity];
+    }
+
+    /**
+     * Retrieves the number of types in this table
+     * @return int representing the number of types
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the type at the given index
+     * @param index index of the type in this table
+     * @return an objType object for the type at the given index
+     */
+    public ObjType get(int index) {
+        return new ObjType(getId(index), getFqn(index), getPackageName(index));
+    }
+
+    /**
+     * Retrieves the id of the type at the given index
+     * @param index index of the type in this table
+     * @return long representing the id
+     */
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * Retrieves the fully qualified name of the type at the given index
+     * @param index index of the type in this table
+     * @return string representing the fully qualified name
+     */
+    public String getFqn(int index) {
+        checkIndex(index);
+        return fqns[index];
+    }
+
+    /**
+     * Retrieves the package name of the type at the given index
+     * @param index index of the type in this table
+     * @return string containing the package name
+     */
+    public String getPackageName(int index) {
+        checkIndex(index);
+        return packageNames[index];
+    }
+
+    int append(long id, String fqn, String packageName) {
+        if(size == ids.length) {
+            int capacity = Math.max(8, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            fqns = Arrays.copyOf(fqns, capacity);
+            packageNames = Arrays.copyOf(packageNames, capacity);
+        }
+        ids[size] = id;
+        fqns[size] = fqn;
+        packageNames[size] = packageName;
+        return size++;
+    }
+
+    private void trim() {
+        if(size < ids.length) {
+            ids = Arrays.copyOf(ids, size);
+            fqns = Arrays.copyOf(fqns, size);
+            packageNames = Arrays.copyOf(packageNames, size);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Type index " + index + " out of bounds for " + size + " types");
+        }
+    }
+
+    /**
+     * Rebuilds the class files of the given package map so that they share a single type table, in which every type
+     * is stored once. Types are identified by their fully qualified name. The order of packages and class files is
+     * kept, and the lists of class files remain modifiable.
+     *
+     * @param packages map of package names to the class files of the package
+     * @return an equivalent map whose class files share one type table
+     */
+    static Map<String, List<ClassFile>> compact(Map<String, List<ClassFile>> packages) {
+        TypeTable table = new TypeTable(0);
+        Map<String, Integer> indices = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+
+        Map<String, List<ClassFile>> compacted = new LinkedHashMap<>();
+        for(Map.Entry<String, List<ClassFile>> entry : packages.entrySet()) {
+            String packageName = entry.getKey() == null ? null : names.computeIfAbsent(entry.getKey(), k -> k);
+            if(entry.getValue() == null) {
+                compacted.put(packageName, null);
+                continue;
+            }
+
+            List<ClassFile> classFiles = new ArrayList<>(entry.getValue().size());
+            for(ClassFile classFile : entry.getValue()) {
+                int[] interfaces = null;
+                List<ObjType> interfaceTypes = classFile.getInterfaceTypes();
+                if(interfaceTypes != null) {
+                    interfaces = new int[interfaceTypes.size()];
+                    for(int j = 0; j < interfaces.length; j++) {
+                        interfaces[j] = intern(table, indices, names, interfaceTypes.get(j));
+                    }
+                }
+                classFiles.add(new ClassFile(table, classFile.getAccessFlags(), intern(table, indices, names, classFile.getThistype()),
+                        classFile.getVersion(), intern(table, indices, names, classFile.getSuperType()), interfaces));
+            }
+            compacted.put(packageName, classFiles);
+        }
+
+        table.trim();
+        return compacted;
+    }
+
+    private static int intern(TypeTable table, Map<String, Integer> indices, Map<String, String> names, ObjType type) {
+        if(type == null) {
+            return -1;
+        }
+        Integer known = indices.get(type.getFqn());
+        if(known != null) {
+            return known;
+        }
+        String packageName = type.getPackageName() == null ? null : names.computeIfAbsent(type.getPackageName(), k -> k);
+        int index = table.append(type.getId(), type.getFqn(), packageName);
+        indices.put(type.getFqn(), index);
+        return index;
+    }
+}
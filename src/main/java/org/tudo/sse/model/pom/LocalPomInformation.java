@@ -79,9 +79,8 @@ public class LocalPomInformation extends PomInformation {
      * @throws XmlPullParserException when there's an issue parsing the local file using the maven model
      */
     public void resolveLocalFile(PomResolver resolver, InputStream pomFile) throws IOException, XmlPullParserException{
-        MavenXpp3Reader reader = new MavenXpp3Reader();
-
-        Model model = reader.read(pomFile, true);
+        // Local files are parsed strictly, unlike the lenient PomFeatureReader used for POM files from repositories
+        Model model = new MavenXpp3Reader().read(pomFile, true);
         String groupId = model.getGroupId();
         String version = model.getVersion();
 
@@ -148,6 +147,8 @@ public class LocalPomInformation extends PomInformation {
             rawPomFeatures.setDependencyManagement(managedDependencies);
         }
 
+        rawPomFeatures.setProfiles(resolver.getProfiles(model.getProfiles()));
+
         return rawPomFeatures;
 
     }
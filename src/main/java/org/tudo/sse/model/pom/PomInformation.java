@@ -1,6 +1,7 @@
 package org.tudo.sse.model.pom;
 
 import org.tudo.sse.model.*;
+import org.tudo.sse.resolution.PomResolutionProfile;
 
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,7 @@ public class PomInformation extends ArtifactInformation {
     private List<Artifact> effectiveTransitiveDependencies;
     private Map<String, List<ArtifactIdent>> transitiveConflicts;
     private ArtifactIdent relocation;
+    private volatile PomResolutionProfile partialProfile;
 
     /**
      * Creates an empty PomInformation object with no artifact identifier. This is useful when analyzing POM files that
@@ -161,4 +163,21 @@ public class PomInformation extends ArtifactInformation {
     public void setRelocation(ArtifactIdent relocation) {
         this.relocation = relocation;
     }
+
+    /**
+     * Retrieves the profile with which this information has been partially resolved (RAW_ONLY or PARENT_CHAIN).
+     * Resolvers complete partially resolved information when it is requested with a more extensive profile.
+     * @return the profile of a partial resolution, or null if parents and imports have been resolved completely
+     */
+    public PomResolutionProfile getPartialProfile() {
+        return partialProfile;
+    }
+
+    /**
+     * Updates the profile with which this information has been partially resolved.
+     * @param partialProfile profile of the partial resolution, or null once it has been resolved completely
+     */
+    public void setPartialProfile(PomResolutionProfile partialProfile) {
+        this.partialProfile = partialProfile;
+    }
 }
@@ -0,0 +1,117 @@
+package org.tudo.sse.model.pom;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds a build profile declared in a pom file, i.e. its activation conditions and the dependencies and
+ * properties it contributes when it is active.
+ */
+public class PomProfile {
+    private final String id;
+    private final boolean activeByDefault;
+    private final String jdk;
+    private final String propertyName;
+    private final String propertyValue;
+    private final boolean osOrFileActivation;
+    private final List<Dependency> dependencies;
+    private final List<Dependency> dependencyManagement;
+    private final Map<String, String> properties;
+
+    /**
+     * Creates a new PomProfile object.
+     * @param id The profile id
+     * @param activeByDefault Whether the profile is active if no other profile of the pom file is active
+     * @param jdk The JDK activation condition, may be null
+     * @param propertyName The name of the property activation condition, may be null
+     * @param propertyValue The value of the property activation condition, may be null
+     * @param osOrFileActivation Whether the profile is activated based on the operating system or file existence
+     * @param dependencies The dependencies contributed by the profile
+     * @param dependencyManagement The managed dependencies contributed by the profile, may be null
+     * @param properties The properties contributed by the profile
+     */
+    public PomProfile(String id, boolean activeByDefault, String jdk, String propertyName, String propertyValue, boolean osOrFileActivation,
+                      List<Dependency> dependencies, List<Dependency> dependencyManagement, Map<String, String> properties) {
+        this.id = id;
+        this.activeByDefault = activeByDefault;
+        this.jdk = jdk;
+        this.propertyName = propertyName;
+        this.propertyValue = propertyValue;
+        this.osOrFileActivation = osOrFileActivation;
+        this.dependencies = dependencies;
+        this.dependencyManagement = dependencyManagement;
+        this.properties = properties;
+    }
+
+    /**
+     * Gets the id of the profile.
+     * @return profile id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Checks whether the profile is active if no other profile of the same pom file is active.
+     * @return true if the profile is active by default
+     */
+    public boolean isActiveByDefault() {
+        return activeByDefault;
+    }
+
+    /**
+     * Gets the JDK activation condition, e.g. "1.8", "!1.8" or "[11,)".
+     * @return the JDK condition, or null if there is none
+     */
+    public String getJdk() {
+        return jdk;
+    }
+
+    /**
+     * Gets the name of the property activation condition. A leading "!" requires the property to be absent.
+     * @return the property name, or null if there is no property condition
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the value of the property activation condition. A leading "!" requires the property to have another value.
+     * @return the property value, or null if only the existence of the property is checked
+     */
+    public String getPropertyValue() {
+        return propertyValue;
+    }
+
+    /**
+     * Checks whether the profile has operating system or file based activation conditions.
+     * @return true if such conditions are present
+     */
+    public boolean hasOsOrFileActivation() {
+        return osOrFileActivation;
+    }
+
+    /**
+     * Gets the dependencies contributed by the profile.
+     * @return a list of dependency objects
+     */
+    public List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Gets the managed dependencies contributed by the profile.
+     * @return a list of managed dependencies, or null if the profile has no dependency management
+     */
+    public List<Dependency> getDependencyManagement() {
+        return dependencyManagement;
+    }
+
+    /**
+     * Gets the properties contributed by the profile.
+     * @return a map of property names to values
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+}
@@ -2,8 +2,11 @@ package org.tudo.sse.model.pom;
 
 import org.tudo.sse.model.ArtifactIdent;
 
+import java.util.AbstractList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 /**
  * The RawPomFeatures class holds the raw features parsed from a pom file.
@@ -22,12 +25,34 @@ public class RawPomFeatures {
     private List<License> licenses;
     private List<Dependency> dependencyManagement;
     private ArtifactIdent relocation;
+    private List<PomProfile> profiles;
+    private volatile Map<String, ManagedDependencies> managedDependencyIndex;
 
     /**
      * Creates an empty instance of RawPomFeatures.
      */
     public RawPomFeatures(){}
 
+    /**
+     * Creates a shallow copy of the given RawPomFeatures.
+     * @param toCopy features to copy
+     */
+    public RawPomFeatures(RawPomFeatures toCopy) {
+        this.parent = toCopy.parent;
+        this.name = toCopy.name;
+        this.description = toCopy.description;
+        this.properties = toCopy.properties;
+        this.url = toCopy.url;
+        this.packaging = toCopy.packaging;
+        this.inceptionYear = toCopy.inceptionYear;
+        this.dependencies = toCopy.dependencies;
+        this.repositories = toCopy.repositories;
+        this.licenses = toCopy.licenses;
+        this.dependencyManagement = toCopy.dependencyManagement;
+        this.relocation = toCopy.relocation;
+        this.profiles = toCopy.profiles;
+    }
+
     /**
      * Retrieves the artifact identifier of the parent identifier
      * @return artifactIdent representing the parent artifact
@@ -173,11 +198,17 @@ public class RawPomFeatures {
     }
 
     /**
-     * Retrieves a list of managed dependencies found in the pom file
+     * Retrieves a list of managed dependencies found in the pom file. Modifications through the returned list are
+     * reflected in {@link #getManagedDependency(String)} and {@link #getFirstManagedDependency(String)}.
+     * Changing the G:A of a listed dependency in place is only picked up for the tuple it was previously indexed
+     * under, set the list again to look it up under its new tuple.
      * @return a list of managed dependencies
      */
     public List<Dependency> getDependencyManagement() {
-        return dependencyManagement;
+        if(dependencyManagement == null) {
+            return null;
+        }
+        return new ManagedDependencyList(dependencyManagement);
     }
 
     /**
@@ -186,6 +217,58 @@ public class RawPomFeatures {
      */
     public void setDependencyManagement(List<Dependency> dependencyManagement) {
         this.dependencyManagement = dependencyManagement;
+        this.managedDependencyIndex = null;
+    }
+
+    /**
+     * Looks up the managed dependency declared last for the given G:A tuple in this pom's dependency management. The
+     * lookup index is built on first access and cached with these features, so large BOMs are not scanned for every
+     * lookup.
+     * @param ga G:A tuple separated by colon
+     * @return the last managed dependency declared for the G:A tuple, or null if there is none
+     */
+    public Dependency getManagedDependency(String ga) {
+        ManagedDependencies managed = lookupManaged(ga);
+        return managed == null ? null : managed.last;
+    }
+
+    /**
+     * Looks up the managed dependency declared first for the given G:A tuple in this pom's dependency management, using
+     * the same index as {@link #getManagedDependency(String)}.
+     * @param ga G:A tuple separated by colon
+     * @return the first managed dependency declared for the G:A tuple, or null if there is none
+     */
+    public Dependency getFirstManagedDependency(String ga) {
+        ManagedDependencies managed = lookupManaged(ga);
+        return managed == null ? null : managed.first;
+    }
+
+    private ManagedDependencies lookupManaged(String ga) {
+        if(dependencyManagement == null) {
+            return null;
+        }
+
+        Map<String, ManagedDependencies> index = managedDependencyIndex;
+        if(index != null) {
+            ManagedDependencies managed = index.get(ga);
+            // A hit whose G:A was changed in place is stale, so the index is rebuilt from the current list
+            if(managed == null || (managed.first.getIdent().getGA().equals(ga) && managed.last.getIdent().getGA().equals(ga))) {
+                return managed;
+            }
+        }
+
+        index = new HashMap<>();
+        for(Dependency dependency : dependencyManagement) {
+            String key = dependency.getIdent().getGroupID() + ":" + dependency.getIdent().getArtifactID();
+            ManagedDependencies managed = index.get(key);
+            if(managed == null) {
+                index.put(key, new ManagedDependencies(dependency));
+            } else {
+                managed.last = dependency;
+            }
+        }
+        managedDependencyIndex = index;
+        return index.get(ga);
     }
 
     /**
@@ -219,4 +302,69 @@ public class RawPomFeatures {
     public void setRepositories(List<String> repositories) {
         this.repositories = repositories;
     }
+
+    /**
+     * Retrieves the build profiles declared in the pom file
+     * @return a list of profile objects
+     */
+    public List<PomProfile> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * Updates the list of build profiles
+     * @param profiles list to update the profiles list with
+     */
+    public void setProfiles(List<PomProfile> profiles) {
+        this.profiles = profiles;
+    }
+
+    /*
+     * View of the managed dependencies that drops the lookup index whenever the list is modified through it.
+     */
+    private static final class ManagedDependencies {
+        private final Dependency first;
+        private Dependency last;
+
+        ManagedDependencies(Dependency dependency) {
+            this.first = dependency;
+            this.last = dependency;
+        }
+    }
+
+    private final class ManagedDependencyList extends AbstractList<Dependency> implements RandomAccess {
+        private final List<Dependency> dependencies;
+
+        ManagedDependencyList(List<Dependency> dependencies) {
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public Dependency get(int index) {
+            return dependencies.get(index);
+        }
+
+        @Override
+        public int size() {
+            return dependencies.size();
+        }
+
+        @Override
+        public Dependency set(int index, Dependency element) {
+            managedDependencyIndex = null;
+            return dependencies.set(index, element);
+        }
+
+        @Override
+        public void add(int index, Dependency element) {
+            managedDependencyIndex = null;
+            dependencies.add(index, element);
+        }
+
+        @Override
+        public Dependency remove(int index) {
+            managedDependencyIndex = null;
+            return dependencies.remove(index);
+        }
+    }
 }
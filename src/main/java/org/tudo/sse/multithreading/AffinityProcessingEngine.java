@@ -0,0 +1,170 @@
+package org.tudo.sse.multithreading;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processing engine that routes all identifiers with the same affinity key (e.g. all versions of a GA) to the same
+ * worker thread, and processes identifiers with the same key consecutively. Sibling versions typically share parents,
+ * imported BOMs and most dependencies, so processing them back to back on one thread maximizes cache hits during POM
+ * resolution. Identifiers are distributed to workers by the hash of their key, so a single very large group occupies
+ * one worker for a long time; keys should thus be fine-grained enough to spread the load.
+ * <p>
+ * As with the ExecutorProcessingEngine, at most a fixed number of identifiers may be pending at any time, submitting
+ * further identifiers blocks the producer.
+ */
+public class AffinityProcessingEngine implements IProcessingEngine {
+
+    private static final Logger log = LogManager.getLogger(AffinityProcessingEngine.class);
+
+    private final Lane[] lanes;
+    private final Function<ArtifactIdent, String> affinityKey;
+    private final Consumer<ArtifactIdent> processor;
+    private final Semaphore capacity;
+    private final CountDownLatch terminated;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong keySwitches = new AtomicLong();
+
+    /**
+     * Creates a new engine and starts its worker threads.
+     * @param threads Number of worker threads, each of which owns one lane of affinity keys
+     * @param queueCapacity Maximum number of identifiers that may be pending at the same time
+     * @param affinityKey Function computing the affinity key of an identifier
+     * @param processor Function processing a single identifier
+     */
+    public AffinityProcessingEngine(int threads, int queueCapacity, Function<ArtifactIdent, String> affinityKey, Consumer<ArtifactIdent> processor) {
+        if(threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Number of threads and queue capacity must be positive");
+        }
+
+        this.affinityKey = affinityKey;
+        this.processor = processor;
+        this.capacity = new Semaphore(queueCapacity);
+        this.terminated = new CountDownLatch(threads);
+        this.lanes = new Lane[threads];
+        for(int i = 0; i < threads; i++) {
+            lanes[i] = new Lane();
+            Thread worker = new Thread(lanes[i]::run, "affinity-" + i);
+            worker.start();
+        }
+    }
+
+    @Override
+    public void submit(ArtifactIdent identifier) {
+        capacity.acquireUninterruptibly();
+        String key = affinityKey.apply(identifier);
+        int hash = key.hashCode();
+        lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)].add(key, identifier);
+    }
+
+    @Override
+    public void awaitCompletion() throws InterruptedException {
+        for(Lane lane : lanes) {
+            lane.finish();
+        }
+        terminated.await();
+        log.info("Processed " + processed.get() + " artifacts, " + failed.get() + " failed, " + keySwitches.get() + " key switches");
+    }
+
+    /**
+     * Gets the number of identifiers that have been processed successfully.
+     * @return The number of processed identifiers
+     */
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Gets the number of identifiers whose processing threw an exception.
+     * @return The number of failed identifiers
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Gets how often workers moved on to an identifier with a different affinity key than the previous one. The lower
+     * this number compared to the number of processed identifiers, the better the cache locality.
+     * @return The number of key switches
+     */
+    public long getKeySwitches() {
+        return keySwitches.get();
+    }
+
+    /**
+     * A lane holds the pending identifiers of its worker, grouped by affinity key in order of the first submission of
+     * each key. The worker drains all identifiers of its current key before moving on to the oldest other key.
+     */
+    private final class Lane {
+        private final LinkedHashMap<String, ArrayDeque<ArtifactIdent>> pending = new LinkedHashMap<>();
+        private String currentKey;
+        private boolean finished;
+
+        synchronized void add(String key, ArtifactIdent identifier) {
+            pending.computeIfAbsent(key, k -> new ArrayDeque<>()).add(identifier);
+            notifyAll();
+        }
+
+        synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        private synchronized ArtifactIdent take() throws InterruptedException {
+            while(pending.isEmpty() && !finished) {
+                wait();
+            }
+            if(pending.isEmpty()) {
+                return null;
+            }
+
+            ArrayDeque<ArtifactIdent> group = currentKey == null ? null : pending.get(currentKey);
+            if(group == null) {
+                Iterator<Map.Entry<String, ArrayDeque<ArtifactIdent>>> oldest = pending.entrySet().iterator();
+                Map.Entry<String, ArrayDeque<ArtifactIdent>> entry = oldest.next();
+                currentKey = entry.getKey();
+                group = entry.getValue();
+                keySwitches.incrementAndGet();
+            }
+
+            ArtifactIdent identifier = group.poll();
+            if(group.isEmpty()) {
+                pending.remove(currentKey);
+            }
+            return identifier;
+        }
+
+        void run() {
+            try {
+                ArtifactIdent identifier;
+                while((identifier = take()) != null) {
+                    try {
+                        processor.accept(identifier);
+                        processed.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.error("Failed to process " + identifier, e);
+                    } finally {
+                        capacity.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                terminated.countDown();
+            }
+        }
+    }
+}
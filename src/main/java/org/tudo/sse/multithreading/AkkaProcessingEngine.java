@@ -0,0 +1,45 @@
+package org.tudo.sse.multithreading;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import org.tudo.sse.MavenCentralAnalysis;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Processing engine that distributes identifiers to ResolverActor instances via a QueueActor. Submitting never blocks,
+ * so identifiers queue up in memory if they are produced faster than they are processed.
+ */
+public class AkkaProcessingEngine implements IProcessingEngine {
+
+    private final ActorSystem system;
+    private final ActorRef queueActorRef;
+    private final MavenCentralAnalysis instance;
+
+    /**
+     * Creates a new engine and starts the underlying actor system.
+     * @param numResolverActors The number of ResolverActor instances that shall be used to process jobs
+     * @param instance The analysis instance that processes the identifiers
+     */
+    public AkkaProcessingEngine(int numResolverActors, MavenCentralAnalysis instance) {
+        this.system = ActorSystem.create("my-system");
+        this.queueActorRef = system.actorOf(QueueActor.props(numResolverActors, system), "queueActor");
+        this.instance = instance;
+    }
+
+    @Override
+    public void submit(ArtifactIdent identifier) {
+        queueActorRef.tell(new ProcessIdentifierMessage(identifier, instance), ActorRef.noSender());
+    }
+
+    @Override
+    public void awaitCompletion() throws InterruptedException {
+        queueActorRef.tell(new IndexProcessingMessage("Finished"), ActorRef.noSender());
+        try {
+            system.getWhenTerminated().toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
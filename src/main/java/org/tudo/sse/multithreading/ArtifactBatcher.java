@@ -0,0 +1,175 @@
+package org.tudo.sse.multithreading;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.Artifact;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Collects artifacts into batches and passes every batch to a consumer, once the batch is full or the flush interval has
+ * elapsed since the last flush. Artifacts may be added from multiple threads, batches are always passed to the consumer
+ * one at a time and in the order they were filled.
+ * <p>
+ * Adding an artifact never waits for the consumer: a full batch is queued and passed on by the thread that fills it,
+ * unless another thread is passing on batches already, which then picks it up as well. Only once more than
+ * {@link #MAX_PENDING_BATCHES} batches are queued, adding waits for the consumer to catch up.
+ * <p>
+ * As a thread may pass on batches filled by other threads, exceptions thrown by the consumer are logged and never
+ * passed to the thread that added, flushed or closed. The consumer has to record failed batches itself.
+ */
+public class ArtifactBatcher implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(ArtifactBatcher.class);
+
+    static final int MAX_PENDING_BATCHES = 4;
+
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Consumer<List<Artifact>> consumer;
+    private final ScheduledExecutorService flusher;
+    // Held while passing batches to the consumer, never while adding artifacts
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Full batches in the order they were filled, guarded by this
+    private final Deque<List<Artifact>> pending = new ArrayDeque<>();
+    private List<Artifact> current;
+    private long lastFlush;
+
+    /**
+     * Creates a new batcher.
+     * @param batchSize Number of artifacts after which a batch is passed to the consumer
+     * @param flushIntervalMillis Maximum time in milliseconds an artifact waits before its batch is passed to the
+     *                            consumer, or a value of zero or less to only flush full batches
+     * @param consumer Consumer receiving the batches
+     */
+    public ArtifactBatcher(int batchSize, long flushIntervalMillis, Consumer<List<Artifact>> consumer) {
+        if(batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.consumer = consumer;
+        this.current = new ArrayList<>(batchSize);
+        this.lastFlush = System.currentTimeMillis();
+
+        if(flushIntervalMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "batch-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, flushIntervalMillis / 4);
+            flusher.scheduleAtFixedRate(this::flushIfDue, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Adds an artifact to the current batch, passing the batch to the consumer if it is full.
+     * @param artifact The artifact to add
+     */
+    public void add(Artifact artifact) {
+        boolean full;
+        boolean backlog;
+        synchronized (this) {
+            current.add(artifact);
+            full = current.size() >= batchSize;
+            if(full) {
+                pending.add(takeBatch());
+            }
+            backlog = pending.size() > MAX_PENDING_BATCHES;
+        }
+        if(full) {
+            deliverPending(backlog);
+        }
+    }
+
+    /**
+     * Passes the current batch to the consumer, even if it is not full. Returns once all batches filled so far have
+     * been passed to the consumer.
+     */
+    public void flush() {
+        queueCurrent();
+        deliverPending(true);
+    }
+
+    /**
+     * Stops the periodic flushing and passes the remaining artifacts to the consumer.
+     */
+    @Override
+    public void close() {
+        if(flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    private void flushIfDue() {
+        boolean due;
+        synchronized (this) {
+            due = !current.isEmpty() && System.currentTimeMillis() - lastFlush >= flushIntervalMillis;
+        }
+        if(due) {
+            queueCurrent();
+            deliverPending(false);
+        }
+    }
+
+    private synchronized void queueCurrent() {
+        if(!current.isEmpty()) {
+            pending.add(takeBatch());
+        }
+    }
+
+    private List<Artifact> takeBatch() {
+        List<Artifact> batch = current;
+        current = new ArrayList<>(batchSize);
+        lastFlush = System.currentTimeMillis();
+        return batch;
+    }
+
+    /*
+     * Passes the queued batches to the consumer. Without waiting, this returns right away if another thread is passing
+     * on batches, as that thread checks for newly queued batches before it stops.
+     */
+    private void deliverPending(boolean wait) {
+        do {
+            if(wait) {
+                flushLock.lock();
+            } else if(!flushLock.tryLock()) {
+                return;
+            }
+            try {
+                List<Artifact> batch;
+                while((batch = nextPending()) != null) {
+                    try {
+                        consumer.accept(batch);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to pass on a batch of " + batch.size() + " artifacts", e);
+                    }
+                }
+            } finally {
+                flushLock.unlock();
+            }
+            wait = false;
+        } while(hasPending());
+    }
+
+    private synchronized List<Artifact> nextPending() {
+        return pending.poll();
+    }
+
+    private synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+}
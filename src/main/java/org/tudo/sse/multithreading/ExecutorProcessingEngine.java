@@ -0,0 +1,141 @@
+package org.tudo.sse.multithreading;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Processing engine that runs identifiers on an executor, by default a work-stealing thread pool whose worker threads
+ * are reused for the whole run. Alternatively, each identifier can be processed on its own virtual thread. At most a
+ * fixed number of identifiers may be pending (queued or in progress) at any time, submitting further identifiers
+ * blocks the producer until a pending identifier has been processed. This keeps the index walker from running ahead
+ * of the resolution, so memory usage stays flat regardless of the size of the run.
+ */
+public class ExecutorProcessingEngine implements IProcessingEngine {
+
+    private static final Logger log = LogManager.getLogger(ExecutorProcessingEngine.class);
+
+    private final ExecutorService pool;
+    private final Semaphore capacity;
+    private final int queueCapacity;
+    private final Consumer<ArtifactIdent> processor;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Creates a new engine.
+     * @param threads Number of worker threads
+     * @param queueCapacity Maximum number of identifiers that may be pending at the same time
+     * @param processor Function processing a single identifier
+     */
+    public ExecutorProcessingEngine(int threads, int queueCapacity, Consumer<ArtifactIdent> processor) {
+        // Async mode processes submitted tasks in FIFO order, which suits independent event-style tasks
+        this(new ForkJoinPool(positive(threads), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true), queueCapacity, processor);
+    }
+
+    private ExecutorProcessingEngine(ExecutorService pool, int queueCapacity, Consumer<ArtifactIdent> processor) {
+        if(queueCapacity <= 0) {
+            pool.shutdown();
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+
+        this.pool = pool;
+        this.capacity = new Semaphore(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.processor = processor;
+    }
+
+    /**
+     * Creates a new engine that processes every identifier on its own virtual thread. This suits analyses dominated by
+     * blocking network requests, as thousands of identifiers can be in progress without occupying a platform thread
+     * each. Virtual threads require Java 21, on older runtimes a cached pool of platform threads is used instead.
+     *
+     * @param maxInProgress Maximum number of identifiers that may be pending (and thus in progress) at the same time
+     * @param processor Function processing a single identifier
+     * @return The new engine
+     */
+    public static ExecutorProcessingEngine withVirtualThreads(int maxInProgress, Consumer<ArtifactIdent> processor) {
+        return new ExecutorProcessingEngine(newVirtualThreadExecutor(), maxInProgress, processor);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Looked up reflectively, as this library is compiled for Java 11
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported by this Java runtime, using platform threads instead");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static int positive(int threads) {
+        if(threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        return threads;
+    }
+
+    @Override
+    public void submit(ArtifactIdent identifier) {
+        capacity.acquireUninterruptibly();
+        try {
+            pool.execute(() -> process(identifier));
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    private void process(ArtifactIdent identifier) {
+        try {
+            processor.accept(identifier);
+            processed.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("Failed to process " + identifier, e);
+        } finally {
+            capacity.release();
+        }
+    }
+
+    @Override
+    public void awaitCompletion() throws InterruptedException {
+        pool.shutdown();
+        while(!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.info("Processed " + processed.get() + " artifacts, " + getPending() + " pending");
+        }
+        log.info("Processed " + processed.get() + " artifacts, " + failed.get() + " failed");
+    }
+
+    /**
+     * Gets the number of identifiers that have been processed successfully.
+     * @return The number of processed identifiers
+     */
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Gets the number of identifiers whose processing threw an exception.
+     * @return The number of failed identifiers
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Gets the number of identifiers that have been submitted but not yet processed.
+     * @return The number of pending identifiers
+     */
+    public long getPending() {
+        return queueCapacity - capacity.availablePermits();
+    }
+}
@@ -0,0 +1,25 @@
+package org.tudo.sse.multithreading;
+
+import org.tudo.sse.model.ArtifactIdent;
+
+/**
+ * Interface defining how artifact identifiers are processed concurrently. The index walker (or coordinates reader)
+ * submits identifiers one by one, and waits for the engine to complete after all identifiers have been submitted.
+ */
+public interface IProcessingEngine {
+
+    /**
+     * Submits an artifact identifier for processing. Implementations may block the caller until there is capacity for
+     * the identifier, so that the producer does not run arbitrarily far ahead of the processing.
+     *
+     * @param identifier The artifact identifier to process
+     */
+    void submit(ArtifactIdent identifier);
+
+    /**
+     * Signals that no more identifiers will be submitted and waits until all submitted identifiers have been processed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitCompletion() throws InterruptedException;
+}
@@ -0,0 +1,27 @@
+package org.tudo.sse.multithreading;
+
+/**
+ * The processing engines available for multithreaded runs.
+ */
+public enum ProcessingEngineType {
+    /**
+     * Processes identifiers on a work-stealing thread pool fed by a bounded queue.
+     * @see ExecutorProcessingEngine
+     */
+    EXECUTOR,
+    /**
+     * Processes every identifier on its own virtual thread, for analyses dominated by blocking network requests.
+     * @see ExecutorProcessingEngine#withVirtualThreads
+     */
+    VIRTUAL,
+    /**
+     * Processes identifiers in separate fetch, parse and analyze stages, each with its own threads and bounded queue.
+     * @see StagedProcessingEngine
+     */
+    STAGED,
+    /**
+     * Processes identifiers with the actor-based QueueActor and ResolverActor implementation.
+     * @see AkkaProcessingEngine
+     */
+    AKKA
+}
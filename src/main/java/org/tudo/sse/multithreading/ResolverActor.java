@@ -3,7 +3,6 @@ package org.tudo.sse.multithreading;
 import akka.actor.AbstractActor;
 import akka.actor.Props;
 import akka.japi.pf.ReceiveBuilder;
-import org.tudo.sse.ArtifactFactory;
 
 /**
  * This class is spawned in multiple threads
@@ -28,8 +27,7 @@ public class ResolverActor extends AbstractActor {
     public Receive createReceive() {
         return ReceiveBuilder.create()
                 .match(ProcessIdentifierMessage.class, message -> {
-                    message.getInstance().callResolver(message.getIdentifier());
-                    message.getInstance().analyzeArtifact(ArtifactFactory.getArtifact(message.getIdentifier()));
+                    message.getInstance().processIdentifier(message.getIdentifier());
                     getSender().tell("Finished", getSelf());
                 }).build();
     }
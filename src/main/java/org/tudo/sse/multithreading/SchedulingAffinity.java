@@ -0,0 +1,34 @@
+package org.tudo.sse.multithreading;
+
+import org.tudo.sse.model.ArtifactIdent;
+
+/**
+ * Defines which artifacts the AffinityProcessingEngine processes on the same worker, one after another.
+ */
+public enum SchedulingAffinity {
+    /**
+     * All versions of a library (groupId:artifactId) share a worker.
+     */
+    GA {
+        @Override
+        public String keyOf(ArtifactIdent identifier) {
+            return identifier.getGA();
+        }
+    },
+    /**
+     * All libraries of a groupId share a worker.
+     */
+    GROUP {
+        @Override
+        public String keyOf(ArtifactIdent identifier) {
+            return identifier.getGroupID();
+        }
+    };
+
+    /**
+     * Computes the affinity key of the given identifier.
+     * @param identifier The identifier to compute the key for
+     * @return The affinity key
+     */
+    public abstract String keyOf(ArtifactIdent identifier);
+}
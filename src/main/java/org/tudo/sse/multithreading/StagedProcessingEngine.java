@@ -0,0 +1,293 @@
+package org.tudo.sse.multithreading;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processing engine that splits the processing of an identifier into three stages: fetching (network-bound), parsing
+ * (CPU-bound) and analyzing. Every stage has its own pool of worker threads and reads its input from a bounded queue,
+ * so each stage can be sized to the resource it uses. If a stage falls behind, its queue fills up and blocks the
+ * previous stage, and ultimately the producer submitting identifiers.
+ * <p>
+ * The throughput, queue depth and utilization of all stages are logged periodically, which shows which stage limits
+ * the run.
+ *
+ * @param <T> Type of the intermediate result passed from the fetch to the parse stage
+ * @param <R> Type of the result passed from the parse to the analysis stage
+ */
+public class StagedProcessingEngine<T, R> implements IProcessingEngine {
+
+    private static final Logger log = LogManager.getLogger(StagedProcessingEngine.class);
+
+    private final Stage<ArtifactIdent, T> fetchStage;
+    private final Stage<T, R> parseStage;
+    private final Stage<R, Void> analyzeStage;
+    private final ScheduledExecutorService reporter;
+
+    /**
+     * Creates a new engine and starts the worker threads of all stages.
+     *
+     * @param fetchThreads Number of threads fetching resources
+     * @param parseThreads Number of threads parsing fetched resources
+     * @param analyzeThreads Number of threads analyzing parsed artifacts
+     * @param queueCapacity Capacity of the queue in front of each stage
+     * @param fetch Function fetching the resources of an identifier, may return null to skip the identifier
+     * @param parse Function parsing fetched resources and returning the result to analyze, may return null to skip
+     * @param analyze Function analyzing a single parsed result
+     */
+    public StagedProcessingEngine(int fetchThreads, int parseThreads, int analyzeThreads, int queueCapacity,
+                                  Function<ArtifactIdent, T> fetch, Function<T, R> parse, Consumer<R> analyze) {
+        this.analyzeStage = new Stage<>("analyze", analyzeThreads, queueCapacity, parsed -> {
+            analyze.accept(parsed);
+            return null;
+        }, null);
+        this.parseStage = new Stage<>("parse", parseThreads, queueCapacity, parse, analyzeStage);
+        this.fetchStage = new Stage<>("fetch", fetchThreads, queueCapacity, fetch, parseStage);
+
+        this.reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stage-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report, 30, 30, TimeUnit.SECONDS);
+
+        analyzeStage.start();
+        parseStage.start();
+        fetchStage.start();
+    }
+
+    @Override
+    public void submit(ArtifactIdent identifier) {
+        fetchStage.put(identifier);
+    }
+
+    @Override
+    public void awaitCompletion() throws InterruptedException {
+        fetchStage.finish();
+        analyzeStage.awaitTermination();
+        reporter.shutdownNow();
+        report();
+    }
+
+    /**
+     * Gets the current statistics of all stages, in processing order.
+     * @return List of stage statistics
+     */
+    public List<StageStatistics> getStatistics() {
+        List<StageStatistics> statistics = new ArrayList<>();
+        statistics.add(fetchStage.statistics());
+        statistics.add(parseStage.statistics());
+        statistics.add(analyzeStage.statistics());
+        return statistics;
+    }
+
+    private void report() {
+        for(StageStatistics statistics : getStatistics()) {
+            log.info(statistics);
+        }
+    }
+
+    /**
+     * A snapshot of the statistics of a single stage.
+     */
+    public static final class StageStatistics {
+        private final String name;
+        private final int threads;
+        private final long processed;
+        private final long failed;
+        private final int queueDepth;
+        private final int queueCapacity;
+        private final long busyNanos;
+        private final long elapsedNanos;
+
+        StageStatistics(String name, int threads, long processed, long failed, int queueDepth, int queueCapacity, long busyNanos, long elapsedNanos) {
+            this.name = name;
+            this.threads = threads;
+            this.processed = processed;
+            this.failed = failed;
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.busyNanos = busyNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the name of the stage.
+         * @return The stage name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of items the stage has processed successfully.
+         * @return The number of processed items
+         */
+        public long getProcessed() {
+            return processed;
+        }
+
+        /**
+         * Gets the number of items whose processing threw an exception.
+         * @return The number of failed items
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Gets the number of items waiting in the queue of the stage.
+         * @return The current queue depth
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Gets the number of items processed per second since the stage was started.
+         * @return The throughput of the stage
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : (processed + failed) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Gets the share of time the worker threads of the stage were busy since the stage was started.
+         * @return The utilization between 0 and 1
+         */
+        public double getUtilization() {
+            return elapsedNanos == 0 ? 0 : Math.min(1.0, busyNanos / ((double) elapsedNanos * threads));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stage %s: %d processed, %d failed, %.1f/s, queue %d/%d, %.0f%% busy (%d threads)",
+                    name, processed, failed, getThroughput(), queueDepth, queueCapacity, getUtilization() * 100, threads);
+        }
+    }
+
+    /**
+     * A stage with its own input queue and worker threads. Once all workers of a stage have terminated, the next stage
+     * is finished, so shutting down propagates through the pipeline after all items have been processed.
+     */
+    private static final class Stage<I, O> {
+        private final String name;
+        private final int threads;
+        private final int queueCapacity;
+        private final BlockingQueue<Object> queue;
+        private final Function<I, O> work;
+        private final Stage<O, ?> next;
+        private final AtomicInteger running;
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+
+        private static final Object END = new Object();
+
+        Stage(String name, int threads, int queueCapacity, Function<I, O> work, Stage<O, ?> next) {
+            if(threads <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("Number of threads and queue capacity of stage " + name + " must be positive");
+            }
+
+            this.name = name;
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.work = work;
+            this.next = next;
+            this.running = new AtomicInteger(threads);
+        }
+
+        void start() {
+            for(int i = 0; i < threads; i++) {
+                Thread worker = new Thread(this::run, name + "-" + i);
+                worker.start();
+            }
+        }
+
+        void put(Object item) {
+            boolean interrupted = false;
+            while(true) {
+                try {
+                    queue.put(item);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void finish() {
+            for(int i = 0; i < threads; i++) {
+                put(END);
+            }
+        }
+
+        void awaitTermination() throws InterruptedException {
+            terminated.await();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void run() {
+            try {
+                while(true) {
+                    Object item = queue.take();
+                    if(item == END) {
+                        break;
+                    }
+
+                    long start = System.nanoTime();
+                    O result = null;
+                    try {
+                        result = work.apply((I) item);
+                        processed.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.error("Stage " + name + " failed to process " + item, e);
+                    } finally {
+                        busyNanos.addAndGet(System.nanoTime() - start);
+                    }
+
+                    // Waiting for room in the next stage does not count as busy, so a stage held up by its successor
+                    // does not look like the bottleneck
+                    if(result != null && next != null) {
+                        next.put(result);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if(running.decrementAndGet() == 0) {
+                    if(next != null) {
+                        next.finish();
+                    }
+                    terminated.countDown();
+                }
+            }
+        }
+
+        StageStatistics statistics() {
+            return new StageStatistics(name, threads, processed.get(), failed.get(), queue.size(), queueCapacity,
+                    busyNanos.get(), System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.tudo.sse.resolution;
+
+import org.opalj.br.ObjectType;
+import org.opalj.br.ObjectType$;
+import org.tudo.sse.model.jar.ClassFile;
+import org.tudo.sse.model.jar.ObjType;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads only the information of a class file that is stored in a JarInformation: the class header (version, access
+ * flags, this, super and interface types), the number of fields and methods, and the length of all Code attributes.
+ * The constant pool is scanned without decoding any entries but the referenced class names, and all attribute bodies
+ * are skipped. This avoids building full OPAL class files including method bodies and instructions. Type ids are
+ * obtained from OPAL, so they are the same as for class files parsed by OPAL.
+ * <p>
+ * Other than OPAL, this reader does not synthesize additional class files, e.g. for rewritten lambda expressions.
+ */
+public final class ClassHeaderReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final byte[] CODE = "Code".getBytes(StandardCharsets.US_ASCII);
+
+    private ClassHeaderReader() {}
+
+    /**
+     * Reads the header of the given class file.
+     * @param bytes Contents of the class file
+     * @return The class header
+     * @throws IOException when the class file is malformed
+     */
+    public static ClassHeader read(byte[] bytes) throws IOException {
+        try {
+            return new Parser(bytes).parse();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated class file", e);
+        }
+    }
+
+    /**
+     * The information read from a single class file.
+     */
+    public static final class ClassHeader {
+        private final ClassFile classFile;
+        private final int numMethods;
+        private final int numFields;
+        private final long codeSize;
+
+        ClassHeader(ClassFile classFile, int numMethods, int numFields, long codeSize) {
+            this.classFile = classFile;
+            this.numMethods = numMethods;
+            this.numFields = numFields;
+            this.codeSize = codeSize;
+        }
+
+        /**
+         * Gets the class file model of the header.
+         * @return The class file
+         */
+        public ClassFile getClassFile() {
+            return classFile;
+        }
+
+        /**
+         * Gets the number of methods declared by the class.
+         * @return The number of methods
+         */
+        public int getNumMethods() {
+            return numMethods;
+        }
+
+        /**
+         * Gets the number of fields declared by the class.
+         * @return The number of fields
+         */
+        public int getNumFields() {
+            return numFields;
+        }
+
+        /**
+         * Gets the summed up length of the bytecode of all methods of the class.
+         * @return The code size in bytes
+         */
+        public long getCodeSize() {
+            return codeSize;
+        }
+    }
+
+    private static final class Parser {
+        private final byte[] bytes;
+        private int pos;
+        // offset of each constant pool entry's data, directly after its tag
+        private int[] offsets;
+
+        Parser(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        ClassHeader parse() throws IOException {
+            if(u4() != MAGIC) {
+                throw new IOException("Not a class file");
+            }
+            int minor = u2();
+            int major = u2();
+            readConstantPool();
+
+            int accessFlags = u2();
+            ObjType thisType = type(className(u2()));
+            int superIndex = u2();
+            ObjType superType = superIndex == 0 ? null : type(className(superIndex));
+            int interfacesCount = u2();
+            List<ObjType> interfaces = new ArrayList<>(interfacesCount);
+            for(int i = 0; i < interfacesCount; i++) {
+                interfaces.add(type(className(u2())));
+            }
+
+            int numFields = u2();
+            for(int i = 0; i < numFields; i++) {
+                pos += 6;
+                skipAttributes();
+            }
+
+            int numMethods = u2();
+            long codeSize = 0;
+            for(int i = 0; i < numMethods; i++) {
+                pos += 6;
+                int attributesCount = u2();
+                for(int j = 0; j < attributesCount; j++) {
+                    int nameIndex = u2();
+                    int length = u4();
+                    if(isCode(nameIndex)) {
+                        // max_stack and max_locals precede the code length
+                        int start = pos;
+                        pos += 4;
+                        codeSize += u4() & 0xFFFFFFFFL;
+                        pos = start;
+                    }
+                    pos += length;
+                }
+            }
+
+            // OPAL encodes the version as the minor version in the lower and the major version in the upper 16 bits
+            long version = minor | ((long) major << 16);
+            return new ClassHeader(new ClassFile(accessFlags, thisType, version, superType, interfaces), numMethods, numFields, codeSize);
+        }
+
+        private void readConstantPool() throws IOException {
+            int count = u2();
+            offsets = new int[count];
+            for(int i = 1; i < count; i++) {
+                int tag = bytes[pos++];
+                offsets[i] = pos;
+                switch(tag) {
+                    case 1:
+                        int length = u2();
+                        pos += length;
+                        break;
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                        pos += 4;
+                        break;
+                    case 5: case 6:
+                        pos += 8;
+                        i++;
+                        break;
+                    case 7: case 8: case 16: case 19: case 20:
+                        pos += 2;
+                        break;
+                    case 15:
+                        pos += 3;
+                        break;
+                    default:
+                        throw new IOException("Invalid constant pool tag " + tag + " at entry " + i);
+                }
+            }
+        }
+
+        private void skipAttributes() {
+            int attributesCount = u2();
+            for(int i = 0; i < attributesCount; i++) {
+                pos += 2;
+                int length = u4();
+                pos += length;
+            }
+        }
+
+        private boolean isCode(int utf8Index) {
+            int offset = offsets[utf8Index];
+            if(u2(offset) != CODE.length) {
+                return false;
+            }
+            for(int i = 0; i < CODE.length; i++) {
+                if(bytes[offset + 2 + i] != CODE[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String className(int classIndex) throws IOException {
+            return utf8(u2(offsets[classIndex]));
+        }
+
+        private String utf8(int utf8Index) throws IOException {
+            int offset = offsets[utf8Index];
+            int length = u2(offset);
+            for(int i = offset + 2; i < offset + 2 + length; i++) {
+                if(bytes[i] < 0) {
+                    // modified UTF-8, as used by class files, is decoded by DataInputStream
+                    return new DataInputStream(new ByteArrayInputStream(bytes, offset, length + 2)).readUTF();
+                }
+            }
+            return new String(bytes, offset + 2, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private ObjType type(String fqn) {
+            ObjectType type = ObjectType$.MODULE$.apply(fqn);
+            return new ObjType(type.id(), type.fqn(), type.packageName());
+        }
+
+        private int u2() {
+            int value = u2(pos);
+            pos += 2;
+            return value;
+        }
+
+        private int u2(int offset) {
+            return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+        }
+
+        private int u4() {
+            int value = ((bytes[pos] & 0xFF) << 24) | ((bytes[pos + 1] & 0xFF) << 16) | ((bytes[pos + 2] & 0xFF) << 8) | (bytes[pos + 3] & 0xFF);
+            pos += 4;
+            return value;
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package org.tudo.sse.resolution;
 
-import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opalj.br.ClassFile;
 import org.opalj.br.Method;
 import org.opalj.br.ObjectType;
+import org.opalj.br.ObjectType$;
 import org.opalj.br.analyses.Project$;
 import org.opalj.br.package$;
 import org.opalj.br.reader.Java16LibraryFramework;
@@ -14,7 +14,11 @@ import org.tudo.sse.ArtifactFactory;
 import org.tudo.sse.model.Artifact;
 import org.tudo.sse.model.ArtifactIdent;
 import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.model.index.IndexInformation;
+import org.tudo.sse.model.index.Package;
 import org.tudo.sse.model.jar.ObjType;
+import org.tudo.sse.storage.JarInformationCache;
+import org.tudo.sse.utils.MappedJarFile;
 import org.tudo.sse.utils.MavenCentralRepository;
 import scala.Tuple2;
 
@@ -22,13 +26,22 @@ import scala.Tuple2;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import scala.collection.JavaConverters;
 
@@ -40,7 +53,9 @@ public class JarResolver {
 
     private final Path pathToDirectory;
     private boolean output;
-    private final Java16LibraryFramework cfReader = Project$.MODULE$.JavaClassFileReader(GlobalLogContext$.MODULE$, package$.MODULE$.BaseConfig());
+    private int parallelParsingThreshold = -1;
+    private boolean headerOnlyParsing = false;
+    private JarInformationCache jarCache;
     private static final MavenCentralRepository MavenRepo = MavenCentralRepository.getInstance();
     private static final Logger log = LogManager.getLogger(JarResolver.class);
 
@@ -70,6 +85,37 @@ public class JarResolver {
         this.output = output;
     }
 
+    /**
+     * Sets the number of class files from which on the class files of a single jar are parsed in parallel. Parsing runs
+     * on the fork-join pool of the calling thread if it is a fork-join worker, otherwise on the common pool. The
+     * resulting JarInformation is the same as for sequential parsing.
+     * @param parallelParsingThreshold Minimum number of class files for parallel parsing, or a value of zero or less to
+     *                                 always parse sequentially
+     */
+    public void setParallelParsingThreshold(int parallelParsingThreshold) {
+        this.parallelParsingThreshold = parallelParsingThreshold;
+    }
+
+    /**
+     * Sets whether class files are read with the ClassHeaderReader instead of OPAL. The header reader only reads the
+     * information stored in the JarInformation and skips all method bodies, which makes it considerably faster. Unlike
+     * OPAL, it does not synthesize class files for lambda expressions.
+     * @param headerOnlyParsing True to read class headers only, false to parse full class files with OPAL
+     */
+    public void setHeaderOnlyParsing(boolean headerOnlyParsing) {
+        this.headerOnlyParsing = headerOnlyParsing;
+    }
+
+    /**
+     * Sets the persistent cache to look up JAR information in before downloading and parsing a jar file, and to store
+     * the JAR information of parsed jar files in. Entries are keyed by the SHA-1 checksum of the jar file, which is
+     * taken from the index information of the artifact if available and computed from the jar file otherwise.
+     * @param jarCache The cache to use, or null to always parse jar files
+     */
+    public void setJarCache(JarInformationCache jarCache) {
+        this.jarCache = jarCache;
+    }
+
     /**
      * This method resolves jar artifacts from a given list of artifact identifiers.
      *
@@ -105,46 +151,153 @@ public class JarResolver {
      * @throws JarResolutionException when there is an issue resolving the given jar artifact
      */
     public Artifact parseJar(ArtifactIdent identifier) throws JarResolutionException {
-        if(ArtifactFactory.getArtifact(identifier) != null && Objects.requireNonNull(ArtifactFactory.getArtifact(identifier)).getJarInformation() != null) {
-            return ArtifactFactory.getArtifact(identifier);
+        Artifact cached = ArtifactFactory.getArtifact(identifier);
+        if(cached != null && cached.getJarInformation() != null) {
+            return cached;
         }
 
-        try {
-            URL jarURL = identifier.getMavenCentralJarUri().toURL();
-            InputStream jarInput = MavenRepo.openJarFileInputStream(identifier);
-            if(output && pathToDirectory != null) {
-                var baos = new ByteArrayOutputStream();
-                var buffer = new byte[32 * 1024];
+        String checksum = getIndexChecksum(identifier);
+        Artifact fromCache = loadCachedJar(identifier, checksum);
+        if(fromCache != null) {
+            return fromCache;
+        }
+
+        Path localJar = MavenRepo.getLocalJarFile(identifier);
+        if(localJar != null) {
+            try {
+                return parseJarFile(identifier, localJar, checksum);
+            } catch (IOException e) {
+                log.warn("Failed to map local jar file " + localJar + ", reading it as a stream instead: " + e.getMessage());
+            }
+        }
 
-                int bytesRead = jarInput.read(buffer);
+        byte[] jarBytes = fetchJar(identifier);
+        if(jarBytes == null) {
+            return null;
+        }
+        return parseJar(identifier, jarBytes, checksum);
+    }
 
-                while(bytesRead > 0){
-                    baos.write(buffer, 0, bytesRead);
-                    baos.close();
-                    baos.flush();
-                    bytesRead = jarInput.read(buffer);
-                }
+    /**
+     * This method looks up the JAR information of the given artifact in the persistent cache, using the checksum from
+     * its index information. Artifacts without a unique checksum in their index information are never found, as their
+     * checksum is only known once the jar file has been downloaded.
+     *
+     * @param identifier the identifier of the artifact to look up
+     * @return the artifact with its cached JAR information, or null if no cache is set or the artifact is not cached
+     */
+    public Artifact loadCachedJar(ArtifactIdent identifier) {
+        return loadCachedJar(identifier, getIndexChecksum(identifier));
+    }
 
-                byte[] jarBytes = baos.toByteArray();
+    /**
+     * This method parses a local jar file, e.g. from the local Maven cache. The file is memory-mapped and only its
+     * class file entries are inflated, in parallel if parallel parsing is enabled and there are enough of them. If this
+     * resolver outputs its processed artifacts, the jar file is copied to the output directory.
+     *
+     * @param identifier the identifier of the artifact the jar file belongs to
+     * @param jarFile path to the jar file
+     * @return a resolved artifact
+     * @throws IOException when the jar file cannot be mapped or is not a supported zip archive
+     * @throws JarResolutionException when there is an issue parsing the class files of the jar file
+     */
+    public Artifact parseJarFile(ArtifactIdent identifier, Path jarFile) throws IOException, JarResolutionException {
+        return parseJarFile(identifier, jarFile, null);
+    }
+
+    private Artifact parseJarFile(ArtifactIdent identifier, Path jarFile, String checksum) throws IOException, JarResolutionException {
+        if(jarCache != null && checksum == null) {
+            try(InputStream in = Files.newInputStream(jarFile)) {
+                checksum = sha1(in);
+            }
+            Artifact fromCache = loadCachedJar(identifier, checksum);
+            if(fromCache != null) {
+                return fromCache;
+            }
+        }
 
+        try(MappedJarFile jar = MappedJarFile.open(jarFile)) {
+            if(output && pathToDirectory != null) {
                 Path filePath = pathToDirectory.resolve(identifier.getGroupID() + "-" + identifier.getArtifactID() + "-" + identifier.getVersion() + ".jar");
                 if(!Files.exists(filePath)) {
-                    Files.createFile(filePath);
-                    Files.write(filePath, jarBytes);
+                    Files.copy(jarFile, filePath);
                 }
+            }
 
-                jarInput = new ByteArrayInputStream(jarBytes);
+            if(headerOnlyParsing) {
+                List<ClassHeaderReader.ClassHeader> headers = readClassesFromEntries(jar, (content, entryName) -> readClassHeader(content));
+                return ArtifactFactory.createArtifact(storeInCache(checksum, parsingClassHeaders(headers, identifier)));
             }
 
-            List<Tuple2<ClassFile, URL>> classList = readClassesFromJarStream(jarInput, jarURL);
-            return ArtifactFactory.createArtifact(parsingClassFiles(classList, identifier));
+            URL jarURL = identifier.getMavenCentralJarUri().toURL();
+            List<Tuple2<ClassFile, URL>> classList = readClassesFromEntries(jar, (content, entryName) -> readClassFile(content, entryName, jarURL));
+            return ArtifactFactory.createArtifact(storeInCache(checksum, parsingClassFiles(classList, identifier)));
+        }
+    }
 
+    /**
+     * Downloads the jar file of the given artifact without parsing it. If this resolver outputs its processed
+     * artifacts, the jar file is written to the output directory.
+     *
+     * @param identifier an artifact identifier to retrieve the jar file for
+     * @return the contents of the jar file, or null if it does not exist or could not be downloaded
+     */
+    public byte[] fetchJar(ArtifactIdent identifier) {
+        try(InputStream jarInput = MavenRepo.openJarFileInputStream(identifier)) {
+            byte[] jarBytes = jarInput.readAllBytes();
+            if(output && pathToDirectory != null) {
+                Path filePath = pathToDirectory.resolve(identifier.getGroupID() + "-" + identifier.getArtifactID() + "-" + identifier.getVersion() + ".jar");
+                if(!Files.exists(filePath)) {
+                    Files.createFile(filePath);
+                    Files.write(filePath, jarBytes);
+                }
+            }
+            return jarBytes;
         } catch (IOException e) {
             log.error(e);
         } catch (FileNotFoundException ignored) {}
         return null;
     }
 
+    /**
+     * This method parses a jar file that has already been downloaded, e.g. via fetchJar.
+     *
+     * @param identifier the identifier of the artifact the jar file belongs to
+     * @param jarBytes the contents of the jar file
+     * @return a resolved artifact
+     * @throws JarResolutionException when there is an issue parsing the given jar file
+     */
+    public Artifact parseJar(ArtifactIdent identifier, byte[] jarBytes) throws JarResolutionException {
+        return parseJar(identifier, jarBytes, null);
+    }
+
+    private Artifact parseJar(ArtifactIdent identifier, byte[] jarBytes, String checksum) throws JarResolutionException {
+        if(jarCache != null && checksum == null) {
+            try {
+                checksum = sha1(new ByteArrayInputStream(jarBytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Artifact fromCache = loadCachedJar(identifier, checksum);
+            if(fromCache != null) {
+                return fromCache;
+            }
+        }
+
+        if(headerOnlyParsing) {
+            List<ClassHeaderReader.ClassHeader> headers = readClassesFromJarStream(new ByteArrayInputStream(jarBytes), (content, entryName) -> readClassHeader(content));
+            return ArtifactFactory.createArtifact(storeInCache(checksum, parsingClassHeaders(headers, identifier)));
+        }
+
+        try {
+            URL jarURL = identifier.getMavenCentralJarUri().toURL();
+            List<Tuple2<ClassFile, URL>> classList = readClassesFromJarStream(new ByteArrayInputStream(jarBytes), (content, entryName) -> readClassFile(content, entryName, jarURL));
+            return ArtifactFactory.createArtifact(storeInCache(checksum, parsingClassFiles(classList, identifier)));
+        } catch (MalformedURLException e) {
+            throw new JarResolutionException(e.getMessage());
+        }
+    }
+
     /**
      * This method collects jar information from the classList and stores it into a JarInformation object.
      *
@@ -196,6 +349,43 @@ public class JarResolver {
         return temp;
     }
 
+    /**
+     * This method collects jar information from class headers read by the ClassHeaderReader, producing the same
+     * information as parsingClassFiles.
+     *
+     * @param headers the class headers of the jar file
+     * @param identifier the current artifacts identifier
+     * @return information that was read from the class headers
+     * @see JarInformation
+     */
+    public JarInformation parsingClassHeaders(List<ClassHeaderReader.ClassHeader> headers, ArtifactIdent identifier) {
+        long codeSize = 0;
+        long numMethods = 0;
+        long numFields = 0;
+
+        Map<String, List<org.tudo.sse.model.jar.ClassFile>> packages = new HashMap<>();
+
+        for(ClassHeaderReader.ClassHeader header : headers) {
+            numMethods += header.getNumMethods();
+            numFields += header.getNumFields();
+            codeSize += header.getCodeSize();
+
+            org.tudo.sse.model.jar.ClassFile current = header.getClassFile();
+            packages.computeIfAbsent(current.getThistype().getPackageName(), k -> new ArrayList<>()).add(current);
+        }
+
+        JarInformation temp = new JarInformation(identifier);
+
+        temp.setCodesize(codeSize);
+        temp.setNumClassFiles(headers.size());
+        temp.setNumMethods(numMethods);
+        temp.setFields(numFields);
+        temp.setNumPackages(packages.size());
+        temp.setPackages(packages);
+
+        return temp;
+    }
+
     /**
      * This method processes a single classFile converting it from the opal classfile to a custom one.
      * @param classFile opal classfile to be converted
@@ -220,27 +410,109 @@ public class JarResolver {
         return new org.tudo.sse.model.jar.ClassFile(classFile.accessFlags(), thisType, classFile.version(), superType, interfaces);
     }
 
-    private List<Tuple2<ClassFile, URL>> readClassesFromJarStream(InputStream jarStream, URL source) throws JarResolutionException {
-        var entries = new ArrayList<Tuple2<ClassFile, URL>>();
+    private Artifact loadCachedJar(ArtifactIdent identifier, String checksum) {
+        if(jarCache == null || checksum == null) {
+            return null;
+        }
+        JarInformation jar = jarCache.get(checksum, getCacheVariant(), identifier, JarResolver::internType);
+        return jar == null ? null : ArtifactFactory.createArtifact(jar);
+    }
+
+    private JarInformation storeInCache(String checksum, JarInformation jar) {
+        if(jarCache != null && checksum != null) {
+            jarCache.put(checksum, getCacheVariant(), jar);
+        }
+        return jar;
+    }
+
+    private String getCacheVariant() {
+        return headerOnlyParsing ? "header" : "opal";
+    }
+
+    /*
+     * The index lists one package per file deployed for an artifact, e.g. also sources and javadoc jars, without telling
+     * which one is the jar file. The checksum is thus only used if there is no other file with a checksum.
+     */
+    private String getIndexChecksum(ArtifactIdent identifier) {
+        if(jarCache == null) {
+            return null;
+        }
+        Artifact artifact = ArtifactFactory.getArtifact(identifier);
+        IndexInformation index = artifact == null ? null : artifact.getIndexInformation();
+        if(index == null) {
+            return null;
+        }
+
+        String checksum = null;
+        for(Package pack : index.getPackages()) {
+            if(pack != null && pack.getSha1checksum() != null && !"pom".equals(pack.getPackaging())) {
+                if(checksum != null) {
+                    return null;
+                }
+                checksum = pack.getSha1checksum().toLowerCase();
+            }
+        }
+        return JarInformationCache.isChecksum(checksum) ? checksum : null;
+    }
+
+    private static String sha1(InputStream in) throws IOException {
+        try {
+            DigestInputStream digestStream = new DigestInputStream(in, MessageDigest.getInstance("SHA-1"));
+            digestStream.transferTo(OutputStream.nullOutputStream());
+            StringBuilder hex = new StringBuilder(40);
+            for(byte b : digestStream.getMessageDigest().digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported", e);
+        }
+    }
+
+    /*
+     * Type ids are assigned by OPAL in the order types are encountered, so types of cached JAR information are assigned
+     * the ids of the current run.
+     */
+    private static ObjType internType(ObjType type) {
+        ObjectType interned = ObjectType$.MODULE$.apply(type.getFqn());
+        return new ObjType(interned.id(), interned.fqn(), interned.packageName());
+    }
+
+    /*
+     * Reads all class file entries of the jar stream with the given reader. As the jar stream can only be read
+     * sequentially, the first entries are parsed while reading. Once the JAR turns out to contain enough class files for
+     * parallel parsing, the remaining entries are decompressed first and then parsed in parallel, so small JARs are never
+     * buffered. The results are collected in entry order, so the output does not depend on the scheduling.
+     */
+    private <T> List<T> readClassesFromJarStream(InputStream jarStream, BiFunction<byte[], String, List<T>> reader) throws JarResolutionException {
+        var entries = new ArrayList<T>();
+        List<String> entryNames = new ArrayList<>();
+        List<byte[]> entryContents = new ArrayList<>();
+        int parsed = 0;
 
         try (JarInputStream jarInputStream = new JarInputStream(jarStream)){
             var currentEntry = jarInputStream.getNextJarEntry();
             while(currentEntry != null){
                 final var entryName = currentEntry.getName().toLowerCase();
                 if (entryName.endsWith(".class")){
-                    cfReader.ClassFile(getEntryByteStream(jarInputStream))
-                            .map(cf -> {
-                                try {
-                                    return new Tuple2<>((ClassFile) cf, new URL("jar:" + source + "!/" + entryName));
-                                } catch (MalformedURLException e) {
-                                    throw new RuntimeException(e);
-                                }
-                            })
-                            .foreach(entries::add);
+                    if(parallelParsingThreshold > 0 && parsed >= parallelParsingThreshold - 1) {
+                        entryNames.add(entryName);
+                        entryContents.add(jarInputStream.readAllBytes());
+                    } else {
+                        entries.addAll(reader.apply(jarInputStream.readAllBytes(), entryName));
+                        parsed++;
+                    }
                 }
 
                 currentEntry = jarInputStream.getNextJarEntry();
             }
+
+            if(!entryNames.isEmpty()) {
+                entries.addAll(IntStream.range(0, entryNames.size()).parallel()
+                        .mapToObj(i -> reader.apply(entryContents.get(i), entryNames.get(i)))
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()));
+            }
         } catch (Exception e) {
             // OPAL throws some unexpected exceptions when faced with malformed JARs in the index (e.g. ArrayIndexOutOfBounds)
             // Therefore, we catch all exceptions related to the processing of class files here, and wrap them.
@@ -249,21 +521,62 @@ public class JarResolver {
         return entries;
     }
 
-    private DataInputStream getEntryByteStream(InputStream in) throws IOException  {
+    private <T> List<T> readClassesFromEntries(MappedJarFile jar, BiFunction<byte[], String, List<T>> reader) throws JarResolutionException {
+        List<MappedJarFile.Entry> classEntries = jar.getEntries().stream()
+                .filter(entry -> entry.getName().toLowerCase().endsWith(".class"))
+                .collect(Collectors.toList());
 
-        var baos = new ByteArrayOutputStream();
-        var buffer = new byte[32 * 1024];
+        try {
+            Stream<MappedJarFile.Entry> entries = classEntries.stream();
+            if(parallelParsingThreshold > 0 && classEntries.size() >= parallelParsingThreshold) {
+                entries = entries.parallel();
+            }
+            return entries
+                    .map(entry -> reader.apply(readEntry(entry), entry.getName().toLowerCase()))
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            // See readClassesFromJarStream, OPAL may throw unexpected exceptions for malformed class files
+            throw new JarResolutionException(e.getMessage());
+        }
+    }
 
-        int bytesRead = in.read(buffer);
+    private static byte[] readEntry(MappedJarFile.Entry entry) {
+        try {
+            return entry.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Tuple2<ClassFile, URL>> readClassFile(byte[] content, String entryName, URL source) {
+        List<Tuple2<ClassFile, URL>> classFiles = new ArrayList<>(1);
+        SharedReader.INSTANCE.ClassFile(new DataInputStream(new ByteArrayInputStream(content)))
+                .map(cf -> {
+                    try {
+                        return new Tuple2<>((ClassFile) cf, new URL("jar:" + source + "!/" + entryName));
+                    } catch (MalformedURLException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .foreach(classFiles::add);
+        return classFiles;
+    }
 
-        while(bytesRead > 0){
-            baos.write(buffer, 0, bytesRead);
-            baos.close();
-            baos.flush();
-            bytesRead = in.read(buffer);
+    private static List<ClassHeaderReader.ClassHeader> readClassHeader(byte[] content) {
+        try {
+            return Collections.singletonList(ClassHeaderReader.read(content));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        return new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    /*
+     * OPAL's class file reader is thread-safe, but expensive to set up, as it loads and processes the OPAL configuration.
+     * It is therefore created once on first use and shared by all resolver instances, so creating a resolver is cheap.
+     */
+    private static final class SharedReader {
+        private static final Java16LibraryFramework INSTANCE = Project$.MODULE$.JavaClassFileReader(GlobalLogContext$.MODULE$, package$.MODULE$.BaseConfig());
     }
 
 }
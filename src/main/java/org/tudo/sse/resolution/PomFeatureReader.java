@@ -0,0 +1,426 @@
+package org.tudo.sse.resolution;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.ActivationFile;
+import org.apache.maven.model.ActivationOS;
+import org.apache.maven.model.ActivationProperty;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.DistributionManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.License;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.Relocation;
+import org.apache.maven.model.Repository;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.codehaus.plexus.util.xml.pull.EntityReplacementMap;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The PomFeatureReader is a streaming replacement for the MavenXpp3Reader. It only extracts the parts of a POM file that
+ * are needed to build the RawPomFeatures (coordinates, parent, project information, properties, licenses, repositories,
+ * dependencies, dependency management, profiles and relocation) and skips all other sections, such as build, reporting
+ * or developers, without creating any objects for them. The values are trimmed and defaulted in the same way as by the
+ * MavenXpp3Reader, so the resulting model can be processed just like a fully parsed model. Unknown elements are
+ * skipped instead of being rejected.
+ */
+public class PomFeatureReader {
+
+    private final boolean stopAtRelocation;
+
+    /**
+     * Creates a new PomFeatureReader that reads the complete POM file.
+     */
+    public PomFeatureReader() {
+        this(false);
+    }
+
+    /**
+     * Creates a new PomFeatureReader.
+     * @param stopAtRelocation Whether to stop reading once a relocation has been found. The returned model will then
+     *                         only contain the elements that occur before the end of the distributionManagement section.
+     */
+    public PomFeatureReader(boolean stopAtRelocation) {
+        this.stopAtRelocation = stopAtRelocation;
+    }
+
+    /**
+     * Reads the given POM file into a partially populated maven model.
+     * @param input InputStream containing the POM file contents, encoding is detected as for the MavenXpp3Reader
+     * @return A model containing all elements needed to build the RawPomFeatures
+     * @throws IOException If reading from the InputStream fails
+     * @throws XmlPullParserException If the POM file is not well-formed or has no project root element
+     */
+    public Model read(InputStream input) throws IOException, XmlPullParserException {
+        XmlPullParser parser = new MXParser(EntityReplacementMap.defaultEntityReplacementMap);
+        parser.setInput(new XmlStreamReader(input));
+
+        int eventType = parser.getEventType();
+        while(eventType != XmlPullParser.START_TAG) {
+            if(eventType == XmlPullParser.END_DOCUMENT) {
+                throw new XmlPullParserException("Expected root element 'project' but found no element", parser, null);
+            }
+            eventType = parser.next();
+        }
+        if(!"project".equals(parser.getName())) {
+            throw new XmlPullParserException("Expected root element 'project' but found '" + parser.getName() + "'", parser, null);
+        }
+
+        Model model = new Model();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            switch(parser.getName()) {
+                case "groupId":
+                    model.setGroupId(text(parser));
+                    break;
+                case "artifactId":
+                    model.setArtifactId(text(parser));
+                    break;
+                case "version":
+                    model.setVersion(text(parser));
+                    break;
+                case "packaging":
+                    model.setPackaging(text(parser));
+                    break;
+                case "name":
+                    model.setName(text(parser));
+                    break;
+                case "description":
+                    model.setDescription(text(parser));
+                    break;
+                case "url":
+                    model.setUrl(text(parser));
+                    break;
+                case "inceptionYear":
+                    model.setInceptionYear(text(parser));
+                    break;
+                case "parent":
+                    model.setParent(readParent(parser));
+                    break;
+                case "properties":
+                    while(nextTag(parser) == XmlPullParser.START_TAG) {
+                        String key = parser.getName();
+                        model.addProperty(key, parser.nextText().trim());
+                    }
+                    break;
+                case "profiles":
+                    model.setProfiles(readProfiles(parser));
+                    break;
+                case "licenses":
+                    model.setLicenses(readLicenses(parser));
+                    break;
+                case "repositories":
+                    model.setRepositories(readRepositories(parser));
+                    break;
+                case "dependencies":
+                    model.setDependencies(readDependencies(parser));
+                    break;
+                case "dependencyManagement":
+                    model.setDependencyManagement(readDependencyManagement(parser));
+                    break;
+                case "distributionManagement":
+                    model.setDistributionManagement(readDistributionManagement(parser));
+                    if(stopAtRelocation && model.getDistributionManagement().getRelocation() != null) {
+                        return model;
+                    }
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+
+        return model;
+    }
+
+    private Parent readParent(XmlPullParser parser) throws IOException, XmlPullParserException {
+        Parent parent = new Parent();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            switch(parser.getName()) {
+                case "groupId":
+                    parent.setGroupId(text(parser));
+                    break;
+                case "artifactId":
+                    parent.setArtifactId(text(parser));
+                    break;
+                case "version":
+                    parent.setVersion(text(parser));
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return parent;
+    }
+
+    private List<License> readLicenses(XmlPullParser parser) throws IOException, XmlPullParserException {
+        List<License> licenses = new ArrayList<>();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if(!"license".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            License license = new License();
+            while(nextTag(parser) == XmlPullParser.START_TAG) {
+                switch(parser.getName()) {
+                    case "name":
+                        license.setName(text(parser));
+                        break;
+                    case "url":
+                        license.setUrl(text(parser));
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+            licenses.add(license);
+        }
+        return licenses;
+    }
+
+    private List<Repository> readRepositories(XmlPullParser parser) throws IOException, XmlPullParserException {
+        List<Repository> repositories = new ArrayList<>();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if(!"repository".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            Repository repository = new Repository();
+            while(nextTag(parser) == XmlPullParser.START_TAG) {
+                if("url".equals(parser.getName())) {
+                    repository.setUrl(text(parser));
+                } else {
+                    skip(parser);
+                }
+            }
+            repositories.add(repository);
+        }
+        return repositories;
+    }
+
+    private List<Profile> readProfiles(XmlPullParser parser) throws IOException, XmlPullParserException {
+        List<Profile> profiles = new ArrayList<>();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if(!"profile".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            Profile profile = new Profile();
+            while(nextTag(parser) == XmlPullParser.START_TAG) {
+                switch(parser.getName()) {
+                    case "id":
+                        profile.setId(text(parser));
+                        break;
+                    case "activation":
+                        profile.setActivation(readActivation(parser));
+                        break;
+                    case "properties":
+                        while(nextTag(parser) == XmlPullParser.START_TAG) {
+                            String key = parser.getName();
+                            profile.addProperty(key, parser.nextText().trim());
+                        }
+                        break;
+                    case "dependencies":
+                        profile.setDependencies(readDependencies(parser));
+                        break;
+                    case "dependencyManagement":
+                        profile.setDependencyManagement(readDependencyManagement(parser));
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    private Activation readActivation(XmlPullParser parser) throws IOException, XmlPullParserException {
+        Activation activation = new Activation();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            switch(parser.getName()) {
+                case "activeByDefault":
+                    activation.setActiveByDefault(Boolean.parseBoolean(text(parser)));
+                    break;
+                case "jdk":
+                    activation.setJdk(text(parser));
+                    break;
+                case "property":
+                    ActivationProperty property = new ActivationProperty();
+                    while(nextTag(parser) == XmlPullParser.START_TAG) {
+                        if("name".equals(parser.getName())) {
+                            property.setName(text(parser));
+                        } else if("value".equals(parser.getName())) {
+                            property.setValue(text(parser));
+                        } else {
+                            skip(parser);
+                        }
+                    }
+                    activation.setProperty(property);
+                    break;
+                case "os":
+                    // Only the presence of the condition is relevant, it cannot be evaluated for a remote artifact
+                    activation.setOs(new ActivationOS());
+                    skip(parser);
+                    break;
+                case "file":
+                    activation.setFile(new ActivationFile());
+                    skip(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return activation;
+    }
+
+    private DependencyManagement readDependencyManagement(XmlPullParser parser) throws IOException, XmlPullParserException {
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if("dependencies".equals(parser.getName())) {
+                dependencyManagement.setDependencies(readDependencies(parser));
+            } else {
+                skip(parser);
+            }
+        }
+        return dependencyManagement;
+    }
+
+    private List<Dependency> readDependencies(XmlPullParser parser) throws IOException, XmlPullParserException {
+        List<Dependency> dependencies = new ArrayList<>();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if(!"dependency".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            Dependency dependency = new Dependency();
+            while(nextTag(parser) == XmlPullParser.START_TAG) {
+                switch(parser.getName()) {
+                    case "groupId":
+                        dependency.setGroupId(text(parser));
+                        break;
+                    case "artifactId":
+                        dependency.setArtifactId(text(parser));
+                        break;
+                    case "version":
+                        dependency.setVersion(text(parser));
+                        break;
+                    case "scope":
+                        dependency.setScope(text(parser));
+                        break;
+                    case "optional":
+                        dependency.setOptional(text(parser));
+                        break;
+                    case "exclusions":
+                        dependency.setExclusions(readExclusions(parser));
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+            dependencies.add(dependency);
+        }
+        return dependencies;
+    }
+
+    private List<Exclusion> readExclusions(XmlPullParser parser) throws IOException, XmlPullParserException {
+        List<Exclusion> exclusions = new ArrayList<>();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if(!"exclusion".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            Exclusion exclusion = new Exclusion();
+            while(nextTag(parser) == XmlPullParser.START_TAG) {
+                switch(parser.getName()) {
+                    case "groupId":
+                        exclusion.setGroupId(text(parser));
+                        break;
+                    case "artifactId":
+                        exclusion.setArtifactId(text(parser));
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+            exclusions.add(exclusion);
+        }
+        return exclusions;
+    }
+
+    private DistributionManagement readDistributionManagement(XmlPullParser parser) throws IOException, XmlPullParserException {
+        DistributionManagement distributionManagement = new DistributionManagement();
+        while(nextTag(parser) == XmlPullParser.START_TAG) {
+            if(!"relocation".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            Relocation relocation = new Relocation();
+            while(nextTag(parser) == XmlPullParser.START_TAG) {
+                switch(parser.getName()) {
+                    case "groupId":
+                        relocation.setGroupId(text(parser));
+                        break;
+                    case "artifactId":
+                        relocation.setArtifactId(text(parser));
+                        break;
+                    case "version":
+                        relocation.setVersion(text(parser));
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+            distributionManagement.setRelocation(relocation);
+        }
+        return distributionManagement;
+    }
+
+    private static String text(XmlPullParser parser) throws IOException, XmlPullParserException {
+        return parser.nextText().trim();
+    }
+
+    /**
+     * Advances to the next start or end tag, ignoring any text in between (like the MavenXpp3Reader does).
+     */
+    private static int nextTag(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int eventType = parser.next();
+        while(eventType != XmlPullParser.START_TAG && eventType != XmlPullParser.END_TAG) {
+            if(eventType == XmlPullParser.END_DOCUMENT) {
+                throw new XmlPullParserException("Unexpected end of document", parser, null);
+            }
+            eventType = parser.next();
+        }
+        return eventType;
+    }
+
+    /**
+     * Skips the element the parser is currently positioned at, including all of its children.
+     */
+    private static void skip(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int depth = 1;
+        while(depth > 0) {
+            int eventType = parser.next();
+            if(eventType == XmlPullParser.START_TAG) {
+                depth++;
+            } else if(eventType == XmlPullParser.END_TAG) {
+                depth--;
+            } else if(eventType == XmlPullParser.END_DOCUMENT) {
+                throw new XmlPullParserException("Unexpected end of document", parser, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.tudo.sse.resolution;
+
+/**
+ * Defines how much of an artifact's POM information the PomResolver computes. Each profile includes everything the
+ * previous profiles resolve, so analyses can choose the cheapest profile that still provides the features they need.
+ */
+public enum PomResolutionProfile {
+
+    /**
+     * Only the raw features of the artifact's own POM file are parsed (following relocations). This requires a single
+     * POM file download per artifact.
+     */
+    RAW_ONLY,
+
+    /**
+     * Raw features of the artifact and of all its parent POM files are parsed. Import scoped POM files and dependencies
+     * are not resolved.
+     */
+    PARENT_CHAIN,
+
+    /**
+     * Parents and import scoped POM files are parsed and the direct dependencies of the artifact are resolved.
+     */
+    DIRECT_DEPS,
+
+    /**
+     * Additionally to the direct dependencies, all transitive and effective transitive dependencies are resolved.
+     */
+    FULL_TRANSITIVE;
+
+    /**
+     * Retrieves the profile that corresponds to the given transitive resolution flag.
+     * @param resolveTransitives Whether transitive dependencies shall be resolved
+     * @return FULL_TRANSITIVE if transitive dependencies shall be resolved, DIRECT_DEPS otherwise
+     */
+    public static PomResolutionProfile fromTransitives(boolean resolveTransitives) {
+        return resolveTransitives ? FULL_TRANSITIVE : DIRECT_DEPS;
+    }
+}
@@ -3,7 +3,6 @@ package org.tudo.sse.resolution;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.maven.model.*;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
@@ -15,11 +14,12 @@ import org.tudo.sse.ArtifactFactory;
 import org.tudo.sse.model.*;
 import org.tudo.sse.model.pom.License;
 import org.tudo.sse.model.pom.PomInformation;
+import org.tudo.sse.model.pom.PomProfile;
 import org.tudo.sse.model.pom.RawPomFeatures;
 import org.tudo.sse.resolution.releases.DefaultMavenReleaseListProvider;
 import org.tudo.sse.resolution.releases.IReleaseListProvider;
+import org.tudo.sse.resolution.releases.ReleaseListCache;
 import org.tudo.sse.utils.MavenCentralRepository;
-import scala.Tuple2;
 
 import java.io.*;
 import java.net.SocketException;
@@ -37,12 +37,26 @@ public class PomResolver {
     private final Path pathToDirectory;
     private final boolean output;
     private static final MavenCentralRepository MavenRepo = MavenCentralRepository.getInstance();
-    private final boolean resolveTransitives;
+    private final PomResolutionProfile profile;
 
     private static final Logger log = LogManager.getLogger(PomResolver.class);
     private final Map<String, Function<PomInformation, String>> predefinedPomValues;
 
-    private final IReleaseListProvider releaseListProvider;
+    private final ReleaseListCache releaseListCache;
+    private final GenericVersionScheme scheme = new GenericVersionScheme();
+    private final PomFeatureReader pomReader = new PomFeatureReader(true);
+
+    static final int MAX_CACHED_EFFECTIVE_DEPENDENCIES = 10000;
+
+    private volatile ProfileActivationContext activationContext;
+    // Least recently used entries are dropped, as dependencies and parents that are never released are cached as well
+    private final Map<EffectiveDependencyKey, List<org.tudo.sse.model.pom.Dependency>> effectiveDependencyCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<EffectiveDependencyKey, List<org.tudo.sse.model.pom.Dependency>> eldest) {
+                    return size() > MAX_CACHED_EFFECTIVE_DEPENDENCIES;
+                }
+            });
 
     /**
      * Creates a new PomResolver instance. This instance will not output processed POM files and will use the default
@@ -80,10 +94,21 @@ public class PomResolver {
      * @param provider The release list provider instance to use for resolution
      */
     public PomResolver(boolean output, Path pathToDirectory, boolean resolveTransitives, IReleaseListProvider provider) {
+        this(output, pathToDirectory, PomResolutionProfile.fromTransitives(resolveTransitives), provider);
+    }
+
+    /**
+     * Creates a new PomResolver instance that resolves POM information as defined by the given profile.
+     * @param output Whether to output processed POM files
+     * @param pathToDirectory Path to output processed POM files to
+     * @param profile Defines which features are resolved by resolveArtifact
+     * @param provider The release list provider instance to use for resolution
+     */
+    public PomResolver(boolean output, Path pathToDirectory, PomResolutionProfile profile, IReleaseListProvider provider) {
         this.output = output;
         this.pathToDirectory = pathToDirectory;
-        this.resolveTransitives = resolveTransitives;
-        this.releaseListProvider = provider;
+        this.profile = Objects.requireNonNull(profile);
+        this.releaseListCache = new ReleaseListCache(provider);
         predefinedPomValues = new HashMap<>();
         predefinedPomValues.put("project.version", pom -> pom.getIdent().getVersion());
         predefinedPomValues.put("pom.version", pom -> pom.getIdent().getVersion());
@@ -178,8 +203,35 @@ public class PomResolver {
         return poms;
     }
 
+    /**
+     * Retrieves the profile that defines which features are resolved by this instance.
+     * @return The resolution profile of this resolver
+     */
+    public PomResolutionProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Retrieves the context used to evaluate the activation of build profiles.
+     * @return The activation context, or null if build profiles are ignored
+     */
+    public ProfileActivationContext getActivationContext() {
+        return activationContext;
+    }
+
+    /**
+     * Sets the context used to evaluate the activation of build profiles. If set, the dependencies of all artifacts
+     * resolved by this instance include the dependencies of their active profiles. If null (the default), build profiles
+     * are ignored.
+     * @param activationContext The activation context to use, may be null
+     */
+    public void setActivationContext(ProfileActivationContext activationContext) {
+        this.activationContext = activationContext;
+    }
+
     /**
      * This method given an Artifact Identifier, resolves a single artifact (raw features, parent, imports, dependencies, and transitive dependencies).
+     * Which of these features are resolved is defined by the resolution profile of this instance.
      *
      * @param identifier id for the pom artifact to resolve
      * @return an artifact with resolved PomInformation
@@ -191,7 +243,7 @@ public class PomResolver {
     public Artifact resolveArtifact(ArtifactIdent identifier) throws FileNotFoundException, IOException, PomResolutionException {
         Map<ArtifactIdent, Artifact> alrEncountered = new HashMap<>();
         if(output) {
-            try(InputStream inputStream = MavenRepo.openPomFileInputStream(identifier)){
+            try(InputStream inputStream = openPomFile(identifier)){
                 byte[] pomBytes = inputStream.readAllBytes();
 
                 Path filePath = pathToDirectory.resolve(identifier.getGroupID() + "-" + identifier.getArtifactID() + "-" + identifier.getVersion() + ".xml");
@@ -202,10 +254,14 @@ public class PomResolver {
             }
         }
 
+        if(profile == PomResolutionProfile.RAW_ONLY || profile == PomResolutionProfile.PARENT_CHAIN) {
+            return processPartialArtifact(identifier, profile);
+        }
+
         Artifact toReturn = processArtifact(identifier);
-        toReturn.getPomInformation().setResolvedDependencies(resolveDependencies(toReturn.getPomInformation()));
+        toReturn.getPomInformation().setResolvedDependencies(resolveActiveDependencies(toReturn.getPomInformation()));
 
-        if(resolveTransitives) {
+        if(profile == PomResolutionProfile.FULL_TRANSITIVE) {
             resolveAllTransitives(toReturn, alrEncountered, null);
             resolveEffectiveTransitives(toReturn);
         }
@@ -222,79 +278,132 @@ public class PomResolver {
      * @throws PomResolutionException If the POM resolution process fails due to invalid file contents
      */
     public RawPomFeatures processRawPomFeatures(InputStream input, ArtifactIdent identifier) throws PomResolutionException {
-        MavenXpp3Reader reader = new MavenXpp3Reader();
         try {
-            Model model = reader.read(input, true);
-            RawPomFeatures rawPomFeatures = new RawPomFeatures();
+            return processRawPomFeatures(pomReader.read(input), identifier);
+        } catch (IOException | XmlPullParserException e) {
+            try { input.close(); } catch (Exception ignored) {}
+            throw new PomResolutionException(e.getMessage(), identifier, e);
+        }
+    }
 
-            if(model.getDistributionManagement() != null && model.getDistributionManagement().getRelocation() != null) {
-                Relocation relocation = model.getDistributionManagement().getRelocation();
-                ArtifactIdent relocationIdent = new ArtifactIdent(identifier);
+    /**
+     * This method collects the raw features from an already parsed pom model.
+     *
+     * @param model the parsed pom file
+     * @param identifier the identifier of the pom artifact being processed
+     * @return an object containing all the features of the pom file
+     */
+    RawPomFeatures processRawPomFeatures(Model model, ArtifactIdent identifier) {
+        RawPomFeatures rawPomFeatures = new RawPomFeatures();
 
-                if(relocation.getGroupId() != null) {
-                 relocationIdent.setGroupID(relocation.getGroupId());
-                }
+        if(model.getDistributionManagement() != null && model.getDistributionManagement().getRelocation() != null) {
+            Relocation relocation = model.getDistributionManagement().getRelocation();
+            ArtifactIdent relocationIdent = new ArtifactIdent(identifier);
 
-                if(relocation.getArtifactId() != null) {
-                    relocationIdent.setArtifactID(relocation.getArtifactId());
-                }
+            if(relocation.getGroupId() != null) {
+             relocationIdent.setGroupID(relocation.getGroupId());
+            }
 
-                if(relocation.getVersion() != null) {
-                    relocationIdent.setVersion(relocation.getVersion());
-                }
-                rawPomFeatures.setRelocation(relocationIdent);
-                return rawPomFeatures;
+            if(relocation.getArtifactId() != null) {
+                relocationIdent.setArtifactID(relocation.getArtifactId());
             }
 
-            if(model.getRepositories() != null) {
-                List<String> repos = new ArrayList<>();
-                for(Repository repo : model.getRepositories()) {
-                    repos.add(repo.getUrl());
-                }
-                rawPomFeatures.setRepositories(repos);
+            if(relocation.getVersion() != null) {
+                relocationIdent.setVersion(relocation.getVersion());
+            }
+            rawPomFeatures.setRelocation(relocationIdent);
+            return rawPomFeatures;
+        }
+
+        if(model.getRepositories() != null) {
+            List<String> repos = new ArrayList<>();
+            for(Repository repo : model.getRepositories()) {
+                repos.add(repo.getUrl());
             }
+            rawPomFeatures.setRepositories(repos);
+        }
+
+        if(model.getParent() != null) {
+            rawPomFeatures.setParent(new ArtifactIdent(model.getParent().getGroupId(), model.getParent().getArtifactId(), model.getParent().getVersion()));
+        }
 
-            if(model.getParent() != null) {
-                rawPomFeatures.setParent(new ArtifactIdent(model.getParent().getGroupId(), model.getParent().getArtifactId(), model.getParent().getVersion()));
+        rawPomFeatures.setName(model.getName());
+        rawPomFeatures.setDescription(model.getDescription());
+        rawPomFeatures.setUrl(model.getUrl());
+
+        if(model.getProperties() != null) {
+            Map<String, String> props = new HashMap<>();
+            for(String propName : model.getProperties().stringPropertyNames()) {
+                props.put(propName, model.getProperties().getProperty(propName));
             }
+            rawPomFeatures.setProperties(props);
+        }
 
-            rawPomFeatures.setName(model.getName());
-            rawPomFeatures.setDescription(model.getDescription());
-            rawPomFeatures.setUrl(model.getUrl());
+        rawPomFeatures.setPackaging(model.getPackaging());
+        rawPomFeatures.setInceptionYear(model.getInceptionYear());
 
-            if(model.getProperties() != null) {
-                Map<String, String> props = new HashMap<>();
-                for(String propName : model.getProperties().stringPropertyNames()) {
-                    props.put(propName, model.getProperties().getProperty(propName));
-                }
-                rawPomFeatures.setProperties(props);
+        List<org.tudo.sse.model.pom.Dependency> dependencies = getDependencies(model.getDependencies());
+        rawPomFeatures.setDependencies(dependencies);
+
+        List<License> licenses = new ArrayList<>();
+        if(!model.getLicenses().isEmpty()) {
+            for(org.apache.maven.model.License license : model.getLicenses()) {
+                licenses.add(new License(license.getName(), license.getUrl()));
             }
+        }
+        rawPomFeatures.setLicenses(licenses);
 
-            rawPomFeatures.setPackaging(model.getPackaging());
-            rawPomFeatures.setInceptionYear(model.getInceptionYear());
+        if(model.getDependencyManagement() != null) {
+            List<org.tudo.sse.model.pom.Dependency> managedDependencies = getDependencies(model.getDependencyManagement().getDependencies());
+            rawPomFeatures.setDependencyManagement(managedDependencies);
+        }
 
-            List<org.tudo.sse.model.pom.Dependency> dependencies = getDependencies(model.getDependencies());
-            rawPomFeatures.setDependencies(dependencies);
+        rawPomFeatures.setProfiles(getProfiles(model.getProfiles()));
 
-            List<License> licenses = new ArrayList<>();
-            if(!model.getLicenses().isEmpty()) {
-                for(org.apache.maven.model.License license : model.getLicenses()) {
-                    licenses.add(new License(license.getName(), license.getUrl()));
+        return rawPomFeatures;
+    }
+
+    /**
+     * This method converts the pom model profiles to custom class profile objects
+     *
+     * @param modelProfiles a list of maven model profiles
+     * @see PomProfile
+     * @return a list of custom class profile objects
+     */
+    public List<PomProfile> getProfiles(List<Profile> modelProfiles) {
+        List<PomProfile> profiles = new ArrayList<>();
+        for(Profile profile : modelProfiles) {
+            Activation activation = profile.getActivation();
+            boolean activeByDefault = false;
+            String jdk = null;
+            String propertyName = null;
+            String propertyValue = null;
+            boolean osOrFile = false;
+
+            if(activation != null) {
+                activeByDefault = activation.isActiveByDefault();
+                jdk = activation.getJdk();
+                if(activation.getProperty() != null) {
+                    propertyName = activation.getProperty().getName();
+                    propertyValue = activation.getProperty().getValue();
                 }
+                osOrFile = activation.getOs() != null || activation.getFile() != null;
             }
-            rawPomFeatures.setLicenses(licenses);
 
-            if(model.getDependencyManagement() != null) {
-                List<org.tudo.sse.model.pom.Dependency> managedDependencies = getDependencies(model.getDependencyManagement().getDependencies());
-                rawPomFeatures.setDependencyManagement(managedDependencies);
+            List<org.tudo.sse.model.pom.Dependency> managed = null;
+            if(profile.getDependencyManagement() != null) {
+                managed = getDependencies(profile.getDependencyManagement().getDependencies());
             }
 
-            return rawPomFeatures;
+            Map<String, String> props = new HashMap<>();
+            for(String propName : profile.getProperties().stringPropertyNames()) {
+                props.put(propName, profile.getProperties().getProperty(propName));
+            }
 
-        } catch (IOException | XmlPullParserException e) {
-            try { input.close(); } catch (Exception ignored) {}
-            throw new PomResolutionException(e.getMessage(), identifier, e);
+            profiles.add(new PomProfile(profile.getId(), activeByDefault, jdk, propertyName, propertyValue, osOrFile,
+                    getDependencies(profile.getDependencies()), managed, props));
         }
+        return profiles;
     }
 
     /**
@@ -347,14 +456,106 @@ public class PomResolver {
      * @throws IOException If connection errors occur
      */
     public Artifact processArtifact(ArtifactIdent identifier) throws PomResolutionException, FileNotFoundException, IOException {
-        if(ArtifactFactory.getArtifact(identifier) != null && Objects.requireNonNull(ArtifactFactory.getArtifact(identifier)).getPomInformation() != null) {
-            return ArtifactFactory.getArtifact(identifier);
+        Artifact cached = ArtifactFactory.getArtifact(identifier);
+        if(cached != null && cached.getPomInformation() != null) {
+            PomInformation information = cached.getPomInformation();
+            if(information.getRawPomFeatures() != null && information.getPartialProfile() != null) {
+                // Concurrent callers wait for the upgrade, instead of returning the partial artifact in the meantime
+                synchronized(information) {
+                    if(information.getPartialProfile() != null) {
+                        getAllRelevantFiles(information);
+                        information.setPartialProfile(null);
+                    }
+                }
+            }
+            return cached;
+        }
+
+        PomInformation pomInformation = readPomInformation(identifier);
+
+        if(pomInformation.getRawPomFeatures() != null) {
+            getAllRelevantFiles(pomInformation);
+        }
+
+        return ArtifactFactory.createArtifact(pomInformation);
+    }
+
+    /**
+     * Processes an artifact for the RAW_ONLY and PARENT_CHAIN profiles, i.e. without resolving imports and dependencies.
+     * The profile is recorded on the PomInformation, so any resolver completes the artifact if it is later requested via
+     * processArtifact.
+     */
+    private Artifact processPartialArtifact(ArtifactIdent identifier, PomResolutionProfile partialProfile) throws PomResolutionException, FileNotFoundException, IOException {
+        boolean includeParents = partialProfile == PomResolutionProfile.PARENT_CHAIN;
+        Artifact cached = ArtifactFactory.getArtifact(identifier);
+        if(cached != null && cached.getPomInformation() != null) {
+            PomInformation information = cached.getPomInformation();
+            if(includeParents && information.getRawPomFeatures() != null && information.getPartialProfile() == PomResolutionProfile.RAW_ONLY) {
+                synchronized(information) {
+                    if(information.getPartialProfile() == PomResolutionProfile.RAW_ONLY) {
+                        resolvePartialParent(information);
+                        information.setPartialProfile(PomResolutionProfile.PARENT_CHAIN);
+                    }
+                }
+            }
+            return cached;
+        }
+
+        PomInformation pomInformation = readPomInformation(identifier);
+        if(includeParents && pomInformation.getRawPomFeatures() != null) {
+            resolvePartialParent(pomInformation);
+        }
+
+        // Marked before the artifact is published, so it is never mistaken for a completely resolved one
+        pomInformation.setPartialProfile(partialProfile);
+        return ArtifactFactory.createArtifact(pomInformation);
+    }
+
+    /**
+     * Forgets the resolution state kept for the given artifact. This is called once the artifact has been analyzed and
+     * released from the artifact store, so the state does not grow with the number of processed artifacts.
+     * @param identifier identifier of the released artifact
+     */
+    public void release(ArtifactIdent identifier) {
+        ProfileActivationContext context = activationContext;
+        if(context != null) {
+            effectiveDependencyCache.remove(new EffectiveDependencyKey(identifier.getCoordinates(), context));
+        }
+    }
+
+    /**
+     * Gets the number of artifacts whose effective dependencies are cached.
+     * @return The number of cache entries
+     */
+    int getCachedEffectiveDependencies() {
+        return effectiveDependencyCache.size();
+    }
+
+    /*
+     * Opens the POM file of the given artifact. Tests override this to resolve POM files without network access.
+     */
+    InputStream openPomFile(ArtifactIdent identifier) throws FileNotFoundException, IOException {
+        return MavenRepo.openPomFileInputStream(identifier);
+    }
+
+    private void resolvePartialParent(PomInformation pomInformation) {
+        if(pomInformation.getRawPomFeatures().getParent() != null) {
+            try {
+                pomInformation.setParent(processPartialArtifact(pomInformation.getRawPomFeatures().getParent(), PomResolutionProfile.PARENT_CHAIN));
+            } catch(PomResolutionException e) {
+                log.error("Failed to resolve parent: {}", e.getMessage());
+            } catch (FileNotFoundException ignored) {}
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
+    }
 
+    private PomInformation readPomInformation(ArtifactIdent identifier) throws PomResolutionException, FileNotFoundException, IOException {
         PomInformation pomInformation = new PomInformation(identifier);
 
         RawPomFeatures rawPomFeatures;
-        try(InputStream is = MavenRepo.openPomFileInputStream(identifier) ) {
+        try(InputStream is = openPomFile(identifier) ) {
             rawPomFeatures = processRawPomFeatures(is, identifier);
         } catch (SocketException e) {
             throw new PomResolutionException(e.getMessage(), identifier, e);
@@ -363,18 +564,13 @@ public class PomResolver {
         ArtifactIdent relocation = null;
         while(rawPomFeatures != null && rawPomFeatures.getRelocation() != null) {
             relocation = rawPomFeatures.getRelocation();
-            InputStream relocStream = MavenRepo.openPomFileInputStream(relocation);
+            InputStream relocStream = openPomFile(relocation);
             rawPomFeatures = processRawPomFeatures(relocStream, relocation);
             relocStream.close();
         }
         pomInformation.setRelocation(relocation);
         pomInformation.setRawPomFeatures(rawPomFeatures);
-
-        if(pomInformation.getRawPomFeatures() != null) {
-            getAllRelevantFiles(pomInformation);
-        }
-
-        return ArtifactFactory.createArtifact(pomInformation);
+        return pomInformation;
     }
 
     private void getAllRelevantFiles(PomInformation pomInformation) throws PomResolutionException, FileNotFoundException, IOException {
@@ -460,6 +656,156 @@ public class PomResolver {
         return dependencies;
     }
 
+    /**
+     * Resolves the dependencies of the current PomInformation including those contributed by build profiles that are
+     * active in the given context, in the pom itself or in its parents. Properties and managed dependencies of active
+     * profiles take precedence over the ones declared outside of profiles. Results are cached per artifact and
+     * activation context, for at most {@value #MAX_CACHED_EFFECTIVE_DEPENDENCIES} artifacts and until the artifact is
+     * released.
+     *
+     * @param current this is the current information object that dependencies will be resolved from
+     * @param context the context to evaluate profile activation against
+     * @return a list of resolved dependencies
+     */
+    public List<org.tudo.sse.model.pom.Dependency> resolveDependencies(PomInformation current, ProfileActivationContext context) {
+        if(current.getRawPomFeatures() == null) {
+            return resolveDependencies(current);
+        }
+
+        EffectiveDependencyKey key = new EffectiveDependencyKey(current.getIdent().getCoordinates(), context);
+        List<org.tudo.sse.model.pom.Dependency> cached = effectiveDependencyCache.get(key);
+        if(cached != null) {
+            return copyDependencies(cached);
+        }
+
+        PomInformation effective = applyProfiles(current, context);
+        if(effective == current) {
+            return resolveDependencies(current);
+        }
+
+        List<org.tudo.sse.model.pom.Dependency> resolved = resolveDependencies(effective);
+        effectiveDependencyCache.put(key, copyDependencies(resolved));
+        return resolved;
+    }
+
+    /*
+     * Builds a view of the given pom information and its parent chain with the active profiles merged in. Returns the
+     * given information itself if no profile is active in the chain.
+     */
+    private PomInformation applyProfiles(PomInformation current, ProfileActivationContext context) {
+        Artifact parent = current.getParent();
+        PomInformation parentInformation = parent != null ? parent.getPomInformation() : null;
+        PomInformation effectiveParent = parentInformation != null ? applyProfiles(parentInformation, context) : null;
+
+        RawPomFeatures features = current.getRawPomFeatures();
+        List<PomProfile> active = features != null ? context.getActiveProfiles(features.getProfiles()) : List.of();
+        if(active.isEmpty() && effectiveParent == parentInformation) {
+            return current;
+        }
+
+        PomInformation effective = new PomInformation(current.getIdent());
+        effective.setRawPomFeatures(active.isEmpty() ? features : applyProfiles(features, active));
+        effective.setParent(effectiveParent == parentInformation ? parent : new Artifact(effectiveParent));
+        effective.setImports(current.getImports());
+        effective.setRelocation(current.getRelocation());
+        return effective;
+    }
+
+    private static RawPomFeatures applyProfiles(RawPomFeatures features, List<PomProfile> active) {
+        RawPomFeatures effective = new RawPomFeatures(features);
+        Map<String, String> properties = new HashMap<>();
+        if(features.getProperties() != null) {
+            properties.putAll(features.getProperties());
+        }
+
+        // Dependencies are copied, as resolving them fills in managed versions
+        List<org.tudo.sse.model.pom.Dependency> dependencies = new ArrayList<>();
+        Map<String, Integer> positions = new HashMap<>();
+        if(features.getDependencies() != null) {
+            for(org.tudo.sse.model.pom.Dependency dependency : features.getDependencies()) {
+                positions.putIfAbsent(dependency.getIdent().getGA(), dependencies.size());
+                dependencies.add(new org.tudo.sse.model.pom.Dependency(dependency));
+            }
+        }
+
+        // Managed dependencies of active profiles replace the ones with the same G:A declared outside of profiles
+        Map<String, org.tudo.sse.model.pom.Dependency> profileManaged = new LinkedHashMap<>();
+        for(PomProfile profile : active) {
+            properties.putAll(profile.getProperties());
+            for(org.tudo.sse.model.pom.Dependency dependency : profile.getDependencies()) {
+                // Profile dependencies override the ones with the same G:A declared outside of profiles
+                Integer position = positions.get(dependency.getIdent().getGA());
+                if(position != null) {
+                    dependencies.set(position, new org.tudo.sse.model.pom.Dependency(dependency));
+                } else {
+                    positions.put(dependency.getIdent().getGA(), dependencies.size());
+                    dependencies.add(new org.tudo.sse.model.pom.Dependency(dependency));
+                }
+            }
+            if(profile.getDependencyManagement() != null) {
+                for(org.tudo.sse.model.pom.Dependency dependency : profile.getDependencyManagement()) {
+                    profileManaged.put(dependency.getIdent().getGA(), dependency);
+                }
+            }
+        }
+
+        List<org.tudo.sse.model.pom.Dependency> managed = new ArrayList<>();
+        if(features.getDependencyManagement() != null) {
+            for(org.tudo.sse.model.pom.Dependency dependency : features.getDependencyManagement()) {
+                if(!profileManaged.containsKey(dependency.getIdent().getGA())) {
+                    managed.add(dependency);
+                }
+            }
+        }
+        managed.addAll(profileManaged.values());
+
+        effective.setProperties(properties);
+        effective.setDependencies(dependencies);
+        if(!managed.isEmpty() || features.getDependencyManagement() != null) {
+            effective.setDependencyManagement(managed);
+        }
+        return effective;
+    }
+
+    private static List<org.tudo.sse.model.pom.Dependency> copyDependencies(List<org.tudo.sse.model.pom.Dependency> dependencies) {
+        List<org.tudo.sse.model.pom.Dependency> copy = new ArrayList<>(dependencies.size());
+        for(org.tudo.sse.model.pom.Dependency dependency : dependencies) {
+            copy.add(new org.tudo.sse.model.pom.Dependency(dependency));
+        }
+        return copy;
+    }
+
+    private List<org.tudo.sse.model.pom.Dependency> resolveActiveDependencies(PomInformation current) {
+        ProfileActivationContext context = activationContext;
+        if(context == null) {
+            return resolveDependencies(current);
+        }
+        return resolveDependencies(current, context);
+    }
+
+    private static final class EffectiveDependencyKey {
+        private final String coordinates;
+        private final ProfileActivationContext context;
+
+        EffectiveDependencyKey(String coordinates, ProfileActivationContext context) {
+            this.coordinates = coordinates;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            EffectiveDependencyKey that = (EffectiveDependencyKey) o;
+            return coordinates.equals(that.coordinates) && context.equals(that.context);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(coordinates, context);
+        }
+    }
+
     /**
      * This method resolves the dependencies that have any missing information from them (groupId, version, scope)
      *
@@ -496,11 +842,9 @@ public class PomResolver {
         if(dep.getIdent().getVersion() == null) {
             String missingVersion = dep.getIdent().getGroupID()  + ":" + dep.getIdent().getArtifactID();
 
-            for(org.tudo.sse.model.pom.Dependency cur : current.getRawPomFeatures().getDependencyManagement()) {
-                if(missingVersion.equals(cur.getIdent().getGroupID() + ":" + cur.getIdent().getArtifactID())) {
-                    dep.getIdent().setVersion(cur.getIdent().getVersion());
-
-                }
+            org.tudo.sse.model.pom.Dependency managed = current.getRawPomFeatures().getManagedDependency(missingVersion);
+            if(managed != null) {
+                dep.getIdent().setVersion(managed.getIdent().getVersion());
             }
         }
     }
@@ -513,13 +857,11 @@ public class PomResolver {
         if(scope == null) {
             String missingVersion = curIdent.getGroupID()  + ":" + curIdent.getArtifactID();
             if(current.getParent() != null) {
-                if(current.getParent().getPomInformation().getRawPomFeatures() != null && current.getParent().getPomInformation().getRawPomFeatures().getDependencyManagement() != null) {
-                    Tuple2<String, String> depStuff = findGA(missingVersion, current.getParent().getPomInformation().getRawPomFeatures().getDependencyManagement());
-                    if(depStuff != null) {
-                        if(depStuff._2 != null) {
-                            toReturn.setScope(depStuff._2);
-                            return toReturn;
-                        }
+                if(current.getParent().getPomInformation().getRawPomFeatures() != null) {
+                    org.tudo.sse.model.pom.Dependency managed = findGA(missingVersion, current.getParent().getPomInformation().getRawPomFeatures());
+                    if(managed != null && managed.getScope() != null) {
+                        toReturn.setScope(managed.getScope());
+                        return toReturn;
                     }
                 }
 
@@ -531,14 +873,10 @@ public class PomResolver {
 
             if(current.getImports() != null) {
                 for(Artifact anImport : current.getImports()) {
-                    if(anImport.getPomInformation().getRawPomFeatures().getDependencyManagement() != null) {
-                        Tuple2<String, String> depStuff = findGA(missingVersion, anImport.getPomInformation().getRawPomFeatures().getDependencyManagement());
-                        if(depStuff != null) {
-                            if(depStuff._2 != null) {
-                                toReturn.setScope(depStuff._2);
-                                return toReturn;
-                            }
-                        }
+                    org.tudo.sse.model.pom.Dependency managed = findGA(missingVersion, anImport.getPomInformation().getRawPomFeatures());
+                    if(managed != null && managed.getScope() != null) {
+                        toReturn.setScope(managed.getScope());
+                        return toReturn;
                     }
                     toReturn = recursiveHandler(anImport.getPomInformation(), toReturn);
                     if(toReturn.getScope() != null) {
@@ -598,13 +936,13 @@ public class PomResolver {
         if(version == null) {
             String missingVersion = curIdent.getGroupID()  + ":" + curIdent.getArtifactID();
             if(current.getParent() != null) {
-                if(current.getParent().getPomInformation().getRawPomFeatures() != null && current.getParent().getPomInformation().getRawPomFeatures().getDependencyManagement() != null) {
-                    Tuple2<String, String> depStuff = findGA(missingVersion, current.getParent().getPomInformation().getRawPomFeatures().getDependencyManagement());
-                    if(depStuff != null) {
-                        version = depStuff._1;
+                if(current.getParent().getPomInformation().getRawPomFeatures() != null) {
+                    org.tudo.sse.model.pom.Dependency managed = findGA(missingVersion, current.getParent().getPomInformation().getRawPomFeatures());
+                    if(managed != null) {
+                        version = managed.getIdent().getVersion();
                         toReturn.getIdent().setVersion(version);
-                        if(depStuff._2 != null && toReturn.getScope() == null) {
-                            toReturn.setScope(depStuff._2);
+                        if(managed.getScope() != null && toReturn.getScope() == null) {
+                            toReturn.setScope(managed.getScope());
                         }
                         parentResolved = true;
                         current = current.getParent().getPomInformation();
@@ -620,16 +958,14 @@ public class PomResolver {
 
             if(!parentResolved && current.getImports() != null) {
                 for(Artifact anImport : current.getImports()) {
-                    if(anImport.getPomInformation().getRawPomFeatures().getDependencyManagement() != null) {
-                        Tuple2<String, String> depStuff = findGA(missingVersion, anImport.getPomInformation().getRawPomFeatures().getDependencyManagement());
-                        if(depStuff != null) {
-                            version = depStuff._1;
-                            if(depStuff._2 != null && toReturn.getScope() == null) {
-                                toReturn.setScope(depStuff._2);
-                            }
-                            toReturn.getIdent().setVersion(version);
-                            current = anImport.getPomInformation();
+                    org.tudo.sse.model.pom.Dependency managed = findGA(missingVersion, anImport.getPomInformation().getRawPomFeatures());
+                    if(managed != null) {
+                        version = managed.getIdent().getVersion();
+                        if(managed.getScope() != null && toReturn.getScope() == null) {
+                            toReturn.setScope(managed.getScope());
                         }
+                        toReturn.getIdent().setVersion(version);
+                        current = anImport.getPomInformation();
                     }
                     if(version == null) {
                         toReturn = recursiveHandler(anImport.getPomInformation(), toReturn);
@@ -671,17 +1007,12 @@ public class PomResolver {
         return toReturn;
     }
 
-    private Tuple2 findGA(String missing, List<org.tudo.sse.model.pom.Dependency> management) {
-        for (org.tudo.sse.model.pom.Dependency dependency : management) {
-            if (missing.equals(dependency.getIdent().getGroupID() + ":" + dependency.getIdent().getArtifactID())) {
-                if(dependency.getScope() != null) {
-                    return new Tuple2<>(dependency.getIdent().getVersion(), dependency.getScope());
-                } else {
-                    return new Tuple2<>(dependency.getIdent().getVersion(), null);
-                }
-            }
+    private org.tudo.sse.model.pom.Dependency findGA(String missing, RawPomFeatures features) {
+        if(features == null) {
+            return null;
         }
-        return null;
+        // Parent and import lookups use the first declaration of a G:A tuple
+        return features.getFirstManagedDependency(missing);
     }
 
     private org.tudo.sse.model.pom.Dependency recursiveHandler(PomInformation current, org.tudo.sse.model.pom.Dependency toResolve) {
@@ -704,7 +1035,6 @@ public class PomResolver {
     public String resolveVersionRange(org.tudo.sse.model.pom.Dependency toResolve) {
         List<VersionRange> ranges = new ArrayList<>();
         List<String> sets = splitSets(toResolve.getIdent().getVersion());
-        GenericVersionScheme scheme = new GenericVersionScheme();
         String highestMatching = null;
 
         try {
@@ -712,44 +1042,30 @@ public class PomResolver {
               ranges.add(scheme.parseVersionRange(splitRange));
             }
 
-            List<Version> allVersions = new ArrayList<>();
-
-            for(String version : releaseListProvider.getReleases(toResolve.getIdent())){
-                allVersions.add(scheme.parseVersion(version));
-            }
-
-            allVersions.sort(Version::compareTo);
+            Version[] allVersions = releaseListCache.getSortedReleases(toResolve.getIdent());
 
-            if(!allVersions.isEmpty()) {
+            if(allVersions.length > 0) {
 
                 for (VersionRange range : ranges) {
                     if (range.getUpperBound() == null) {
                         //add comparison here to check that the lower bound is met
-                        Version current = allVersions.get(allVersions.size() - 1);
+                        Version current = allVersions[allVersions.length - 1];
 
                         if (range.getLowerBound().isInclusive()) {
                             if (range.getLowerBound().getVersion().compareTo(current) <= 0) {
-                                highestMatching = allVersions.get(allVersions.size() - 1).toString();
+                                highestMatching = current.toString();
                             }
                         } else {
                             if (range.getLowerBound().getVersion().compareTo(current) < 0) {
-                                highestMatching = allVersions.get(allVersions.size() - 1).toString();
+                                highestMatching = current.toString();
                             }
                         }
                         return highestMatching;
                     }
-                    if (!range.getUpperBound().isInclusive()) {
-                        for (Version current : allVersions) {
-                            if (current.compareTo(range.getUpperBound().getVersion()) < 0) {
-                                highestMatching = current.toString();
-                            }
-                        }
-                    } else {
-                        for (Version current : allVersions) {
-                            if (current.compareTo(range.getUpperBound().getVersion()) <= 0) {
-                                highestMatching = current.toString();
-                            }
-                        }
+
+                    Version matching = ReleaseListCache.highestBelowUpperBound(allVersions, range);
+                    if (matching != null) {
+                        highestMatching = matching.toString();
                     }
                 }
             } else {
@@ -763,6 +1079,14 @@ public class PomResolver {
         return highestMatching;
     }
 
+    /**
+     * Retrieves the cache of parsed release lists used to resolve version ranges.
+     * @return The release list cache of this resolver
+     */
+    public ReleaseListCache getReleaseListCache() {
+        return releaseListCache;
+    }
+
     private List<String> splitSets(String range) {
         List<String> ranges = new ArrayList<>();
         StringBuilder current = new StringBuilder();
@@ -858,7 +1182,7 @@ public class PomResolver {
 
     private Artifact recursiveResolver(ArtifactIdent identifier, Map<ArtifactIdent, Artifact> alrEncountered, Set<String> exclusions) throws FileNotFoundException, IOException, PomResolutionException {
         Artifact current = processArtifact(identifier);
-        current.getPomInformation().setResolvedDependencies(resolveDependencies(current.getPomInformation()));
+        current.getPomInformation().setResolvedDependencies(resolveActiveDependencies(current.getPomInformation()));
         resolveAllTransitives(current, alrEncountered, exclusions);
         return current;
     }
@@ -908,7 +1232,7 @@ public class PomResolver {
         }
 
 
-        Map<String, ArtifactIdent> foundGA = new HashMap<>();
+        Map<String, Artifact> foundGA = new HashMap<>();
         Map<String, List<ArtifactIdent>> conflicts = new HashMap<>();
         List<Artifact> toReturn = new ArrayList<>();
 
@@ -919,7 +1243,7 @@ public class PomResolver {
 
             String key = artifact.getIdent().getGroupID() + ":" + artifact.getIdent().getArtifactID();
             if(!foundGA.containsKey(key)) {
-                foundGA.put(key, artifact.getIdent());
+                foundGA.put(key, artifact);
                 if(!artifact.getPomInformation().getAllTransitiveDependencies().isEmpty()) {
                     toProcess.addAll(artifact.getPomInformation().getAllTransitiveDependencies());
                 }
@@ -928,7 +1252,7 @@ public class PomResolver {
                     conflicts.get(key).add(artifact.getIdent());
                 } else {
                     List<ArtifactIdent> temp = new ArrayList<>();
-                    temp.add(foundGA.get(key));
+                    temp.add(foundGA.get(key).getIdent());
                     temp.add(artifact.getIdent());
                     conflicts.put(key, temp);
                 }
@@ -936,8 +1260,9 @@ public class PomResolver {
 
         }
 
-        for(Map.Entry<String,ArtifactIdent> entry : foundGA.entrySet()) {
-            toReturn.add(ArtifactFactory.getArtifact(entry.getValue()));
+        // The artifacts are taken from the dependency graph rather than the store, which may have evicted them already
+        for(Map.Entry<String, Artifact> entry : foundGA.entrySet()) {
+            toReturn.add(entry.getValue());
         }
         toResolve.getPomInformation().setEffectiveTransitiveDependencies(toReturn);
         toResolve.getPomInformation().setTransitiveConflicts(conflicts);
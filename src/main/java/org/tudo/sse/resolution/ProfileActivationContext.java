@@ -0,0 +1,164 @@
+package org.tudo.sse.resolution;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.VersionScheme;
+import org.tudo.sse.model.pom.PomProfile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The ProfileActivationContext describes the environment a pom file is assumed to be built in, i.e. the JDK version,
+ * the user / system properties and the explicitly activated profile ids. It decides which build profiles of a pom file
+ * are active, following the activation rules of Maven: all conditions of a profile have to be met, and profiles that
+ * are active by default are only active if no other profile of the same pom file is active. Operating system and file
+ * conditions cannot be evaluated for remote artifacts, profiles using them are only active if activated explicitly.
+ * Instances are immutable and can be used as cache keys.
+ */
+public final class ProfileActivationContext {
+
+    private static final VersionScheme scheme = new GenericVersionScheme();
+
+    private final String jdkVersion;
+    private final Map<String, String> properties;
+    private final Set<String> activeProfileIds;
+
+    /**
+     * Creates a new activation context.
+     * @param jdkVersion The JDK version to evaluate JDK conditions against, e.g. "11" or "1.8". May be null, in which
+     *                   case profiles with JDK conditions are not active.
+     * @param properties The user and system properties to evaluate property conditions against
+     * @param activeProfileIds Ids of profiles that are activated explicitly (like -P on the command line)
+     */
+    public ProfileActivationContext(String jdkVersion, Map<String, String> properties, Set<String> activeProfileIds) {
+        this.jdkVersion = jdkVersion;
+        this.properties = Map.copyOf(properties);
+        this.activeProfileIds = Set.copyOf(activeProfileIds);
+    }
+
+    /**
+     * Creates a new activation context for the given JDK version without properties or explicitly activated profiles.
+     * @param jdkVersion The JDK version to evaluate JDK conditions against
+     */
+    public ProfileActivationContext(String jdkVersion) {
+        this(jdkVersion, new HashMap<>(), new HashSet<>());
+    }
+
+    /**
+     * Gets the JDK version of this context.
+     * @return the JDK version, may be null
+     */
+    public String getJdkVersion() {
+        return jdkVersion;
+    }
+
+    /**
+     * Gets the properties of this context.
+     * @return an unmodifiable map of property names to values
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Gets the ids of the explicitly activated profiles.
+     * @return an unmodifiable set of profile ids
+     */
+    public Set<String> getActiveProfileIds() {
+        return activeProfileIds;
+    }
+
+    /**
+     * Selects the active profiles out of the profiles declared in a single pom file.
+     * @param profiles the profiles of a pom file, may be null
+     * @return the active profiles in declaration order
+     */
+    public List<PomProfile> getActiveProfiles(List<PomProfile> profiles) {
+        List<PomProfile> active = new ArrayList<>();
+        if(profiles == null) {
+            return active;
+        }
+
+        for(PomProfile profile : profiles) {
+            if(activeProfileIds.contains(profile.getId()) || isActivated(profile)) {
+                active.add(profile);
+            }
+        }
+
+        if(active.isEmpty()) {
+            for(PomProfile profile : profiles) {
+                if(profile.isActiveByDefault()) {
+                    active.add(profile);
+                }
+            }
+        }
+        return active;
+    }
+
+    private boolean isActivated(PomProfile profile) {
+        if(profile.getJdk() == null && profile.getPropertyName() == null) {
+            return false;
+        }
+        if(profile.hasOsOrFileActivation()) {
+            return false;
+        }
+        return (profile.getJdk() == null || matchesJdk(profile.getJdk())) &&
+                (profile.getPropertyName() == null || matchesProperty(profile.getPropertyName(), profile.getPropertyValue()));
+    }
+
+    private boolean matchesJdk(String condition) {
+        if(jdkVersion == null) {
+            return false;
+        }
+
+        boolean negated = condition.startsWith("!");
+        String jdk = negated ? condition.substring(1) : condition;
+        boolean matches;
+        if(jdk.startsWith("[") || jdk.startsWith("(")) {
+            try {
+                matches = scheme.parseVersionConstraint(jdk).containsVersion(scheme.parseVersion(jdkVersion));
+            } catch (InvalidVersionSpecificationException e) {
+                return false;
+            }
+        } else {
+            matches = jdkVersion.startsWith(jdk);
+        }
+        return negated != matches;
+    }
+
+    private boolean matchesProperty(String name, String value) {
+        if(name.startsWith("!")) {
+            return !properties.containsKey(name.substring(1));
+        }
+
+        String actual = properties.get(name);
+        if(value == null || value.isEmpty()) {
+            return actual != null;
+        }
+        if(value.startsWith("!")) {
+            return !value.substring(1).equals(actual);
+        }
+        return value.equals(actual);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProfileActivationContext that = (ProfileActivationContext) o;
+        return Objects.equals(jdkVersion, that.jdkVersion) &&
+                properties.equals(that.properties) &&
+                activeProfileIds.equals(that.activeProfileIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jdkVersion, properties, activeProfileIds);
+    }
+}
@@ -6,7 +6,10 @@ import java.nio.file.Path;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.Artifact;
 import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.resolution.releases.IReleaseListProvider;
+import org.tudo.sse.storage.JarInformationCache;
 
 /**
  * This class manages the pom and jar resolver, giving a way to run one or the other.
@@ -40,50 +43,185 @@ public class ResolverFactory {
         jarResolver = new JarResolver(output, pathToDirectory);
     }
 
+    /**
+     * Creates a new resolver factory instance that uses the given release list provider to resolve version ranges.
+     *
+     * @param output Whether the resolvers produced by this factory shall output the artifacts that they process
+     * @param pathToDirectory Location to which to output the artifacts processed by the resolvers
+     * @param pomIncludeTransitives Whether this factory shall produce a PomResolver that resolves transitive files
+     * @param provider The release list provider to use for POM resolution
+     */
+    public ResolverFactory(boolean output, Path pathToDirectory, boolean pomIncludeTransitives, IReleaseListProvider provider) {
+        this(output, pathToDirectory, PomResolutionProfile.fromTransitives(pomIncludeTransitives), provider);
+    }
+
+    /**
+     * Creates a new resolver factory instance whose PomResolver only resolves the features defined by the given profile.
+     *
+     * @param output Whether the resolvers produced by this factory shall output the artifacts that they process
+     * @param pathToDirectory Location to which to output the artifacts processed by the resolvers
+     * @param pomProfile Defines which POM features the PomResolver of this factory resolves
+     * @param provider The release list provider to use for POM resolution
+     */
+    public ResolverFactory(boolean output, Path pathToDirectory, PomResolutionProfile pomProfile, IReleaseListProvider provider) {
+        pomResolver = new PomResolver(output, pathToDirectory, pomProfile, provider);
+        jarResolver = new JarResolver(output, pathToDirectory);
+    }
+
+    /**
+     * Sets the number of class files from which on the class files of a single JAR are parsed in parallel.
+     *
+     * @param parallelParsingThreshold Minimum number of class files for parallel parsing, or a value of zero or less
+     *                                 to always parse sequentially
+     */
+    public void setParallelParsingThreshold(int parallelParsingThreshold) {
+        jarResolver.setParallelParsingThreshold(parallelParsingThreshold);
+    }
+
+    /**
+     * Sets whether class files are read with the ClassHeaderReader instead of OPAL.
+     *
+     * @param headerOnlyParsing True to read class headers only, false to parse full class files with OPAL
+     */
+    public void setHeaderOnlyParsing(boolean headerOnlyParsing) {
+        jarResolver.setHeaderOnlyParsing(headerOnlyParsing);
+    }
+
+    /**
+     * Sets the context used by the PomResolver to evaluate the activation of build profiles.
+     *
+     * @param activationContext The activation context to use, or null to ignore build profiles
+     */
+    public void setActivationContext(ProfileActivationContext activationContext) {
+        pomResolver.setActivationContext(activationContext);
+    }
+
+    /**
+     * Sets the time after which the release lists cached by the PomResolver are obtained again.
+     *
+     * @param ttlMillis Time to live in milliseconds, a negative value indicates that cached release lists never expire
+     */
+    public void setReleaseListTtl(long ttlMillis) {
+        pomResolver.getReleaseListCache().setTtlMillis(ttlMillis);
+    }
+
+    /**
+     * Gets the JarResolver of this factory, e.g. to resolve further JARs with the same configuration.
+     *
+     * @return The JAR resolver
+     */
+    public JarResolver getJarResolver() {
+        return jarResolver;
+    }
+
+    /**
+     * Sets the persistent cache of JAR information used by the JarResolver.
+     *
+     * @param jarCache The cache to use, or null to always parse JAR files
+     */
+    public void setJarCache(JarInformationCache jarCache) {
+        jarResolver.setJarCache(jarCache);
+    }
+
+    /**
+     * Load the JAR information of the given artifact from the persistent cache, if it is cached.
+     *
+     * @param identifier Artifact identifier to look up
+     * @return The artifact with the cached JAR information, or null if the JAR has to be downloaded and parsed
+     */
+    public Artifact loadCachedJar(ArtifactIdent identifier) {
+        return jarResolver.loadCachedJar(identifier);
+    }
+
+    /**
+     * Forgets the state the resolvers keep for the given artifact, once it has been analyzed and released.
+     *
+     * @param identifier Artifact identifier that has been released
+     */
+    public void release(ArtifactIdent identifier) {
+        pomResolver.release(identifier);
+    }
+
     /**
      * Resolve the POM file of the given artifact.
      *
      * @param identifier Artifact identifier to resolve
+     * @return The resolved artifact, or null if the POM file could not be resolved
      */
-    public void runPom(ArtifactIdent identifier) {
+    public Artifact runPom(ArtifactIdent identifier) {
         try {
-            pomResolver.resolveArtifact(identifier);
+            return pomResolver.resolveArtifact(identifier);
         } catch (IOException | PomResolutionException e) {
             log.error(e);
         } catch (FileNotFoundException ignored) {}
+        return null;
     }
 
     /**
      * Resolve the JAR file of the given artifact.
      *
      * @param identifier Artifact identifier to resolve
+     * @return The resolved artifact, or null if the JAR file could not be resolved
+     */
+    public Artifact runJar(ArtifactIdent identifier) {
+        try {
+            return jarResolver.parseJar(identifier);
+        } catch (JarResolutionException e) {
+            log.error(e);
+        }
+        return null;
+    }
+
+    /**
+     * Download the JAR file of the given artifact without parsing it.
+     *
+     * @param identifier Artifact identifier to download the JAR file for
+     * @return The contents of the JAR file, or null if it is not available
+     */
+    public byte[] fetchJar(ArtifactIdent identifier) {
+        return jarResolver.fetchJar(identifier);
+    }
+
+    /**
+     * Parse a JAR file of the given artifact that has already been downloaded.
+     *
+     * @param identifier Artifact identifier the JAR file belongs to
+     * @param jarBytes Contents of the JAR file
+     * @return The resolved artifact, or null if the JAR file could not be parsed
      */
-    public void runJar(ArtifactIdent identifier) {
+    public Artifact parseJar(ArtifactIdent identifier, byte[] jarBytes) {
         try {
-            jarResolver.parseJar(identifier);
+            return jarResolver.parseJar(identifier, jarBytes);
         } catch (JarResolutionException e) {
             log.error(e);
         }
+        return null;
     }
 
     /**
      * Resolve both the POM and JAR file for the given artifact.
      *
      * @param identifier Artifact identifier to resolve
+     * @return The resolved artifact, or null if neither the POM nor the JAR file could be resolved
      */
-    public void runBoth(ArtifactIdent identifier) {
+    public Artifact runBoth(ArtifactIdent identifier) {
+        Artifact pom = null;
         try {
-            pomResolver.resolveArtifact(identifier);
+            pom = pomResolver.resolveArtifact(identifier);
         } catch (IOException | PomResolutionException e) {
             log.error(e);
         } catch(FileNotFoundException ignored){}
 
         try {
             jarResolver.setOutput(false);
-            jarResolver.parseJar(identifier);
+            Artifact jar = jarResolver.parseJar(identifier);
+            if(jar != null) {
+                return jar;
+            }
         } catch (JarResolutionException e) {
             log.error(e);
         }
+        return pom;
     }
 
 }
@@ -0,0 +1,156 @@
+package org.tudo.sse.resolution.releases;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.index.IndexInformation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This implementation of IReleaseListProvider answers release list requests from memory. The list of releases for
+ * every GA-Tuple is built from a single pass over the Maven Central Index (e.g. an IndexIterator or IndexWalker), or
+ * loaded from a snapshot previously written by this class. Snapshots use the same format as coordinate files, i.e. one
+ * G:A:V triple per line. Libraries that are not contained in the index are delegated to an optional fallback provider.
+ */
+public class IndexReleaseListProvider implements IReleaseListProvider {
+
+    private final Map<String, Set<String>> releases;
+    private final IReleaseListProvider fallback;
+
+    private static final Logger log = LogManager.getLogger(IndexReleaseListProvider.class);
+
+    /**
+     * Creates a new empty provider, to which releases are added via addRelease, e.g. while walking the index. Libraries
+     * without added releases have no releases.
+     */
+    public IndexReleaseListProvider() {
+        this((IReleaseListProvider) null);
+    }
+
+    /**
+     * Creates a new provider from the given index entries. Libraries that are not contained in the index have no
+     * releases.
+     * @param index Iterator over the Maven Central Index, will be consumed completely
+     */
+    public IndexReleaseListProvider(Iterator<IndexInformation> index) {
+        this(index, null);
+    }
+
+    /**
+     * Creates a new provider from the given index entries.
+     * @param index Iterator over the Maven Central Index, will be consumed completely
+     * @param fallback Provider to use for libraries that are not contained in the index, may be null
+     */
+    public IndexReleaseListProvider(Iterator<IndexInformation> index, IReleaseListProvider fallback) {
+        this(fallback);
+        long count = 0;
+        while(index.hasNext()) {
+            IndexInformation current = index.next();
+            if(current != null) {
+                addRelease(current.getIdent());
+                count++;
+            }
+        }
+        log.info("Collected {} releases of {} libraries from the index", count, releases.size());
+    }
+
+    private IndexReleaseListProvider(IReleaseListProvider fallback) {
+        this.releases = new HashMap<>();
+        this.fallback = fallback;
+    }
+
+    /**
+     * Loads a provider from a snapshot file containing one G:A:V triple per line.
+     * @param snapshot Path to the snapshot file
+     * @param fallback Provider to use for libraries that are not contained in the snapshot, may be null
+     * @return A provider answering release lists from the snapshot contents
+     * @throws IOException If reading the snapshot fails
+     */
+    public static IndexReleaseListProvider fromSnapshot(Path snapshot, IReleaseListProvider fallback) throws IOException {
+        IndexReleaseListProvider provider = new IndexReleaseListProvider(fallback);
+
+        try(BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            int i = 0;
+            while(line != null) {
+                String[] parts = line.split(":");
+                if(parts.length == 3) {
+                    provider.addRelease(new ArtifactIdent(parts[0], parts[1], parts[2]));
+                } else if(!line.isBlank()) {
+                    log.error("unable to process Artifact Identifier {} at position {}", line, i);
+                }
+                line = reader.readLine();
+                i++;
+            }
+        }
+
+        log.info("Loaded releases of {} libraries from {}", provider.releases.size(), snapshot);
+        return provider;
+    }
+
+    /**
+     * Writes all releases known to this provider to a snapshot file, one G:A:V triple per line.
+     * @param snapshot Path of the snapshot file to write
+     * @throws IOException If writing the snapshot fails
+     */
+    public synchronized void writeSnapshot(Path snapshot) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(snapshot, StandardCharsets.UTF_8)) {
+            for(Map.Entry<String, Set<String>> entry : releases.entrySet()) {
+                for(String version : entry.getValue()) {
+                    writer.write(entry.getKey());
+                    writer.write(':');
+                    writer.write(version);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the given release to this provider.
+     * @param identifier The G:A:V triple of the release
+     */
+    public synchronized void addRelease(ArtifactIdent identifier) {
+        releases.computeIfAbsent(identifier.getGA(), ga -> new LinkedHashSet<>()).add(identifier.getVersion());
+    }
+
+    /**
+     * Checks whether this provider knows any release of the given library.
+     * @param identifier Identifier of the library (GA-Tuple)
+     * @return True if at least one release is known, false otherwise
+     */
+    public synchronized boolean hasReleases(ArtifactIdent identifier) {
+        return releases.containsKey(identifier.getGA());
+    }
+
+    @Override
+    public List<String> getReleases(ArtifactIdent identifier) throws IOException {
+        Objects.requireNonNull(identifier);
+
+        synchronized (this) {
+            Set<String> versions = releases.get(identifier.getGA());
+            if(versions != null) {
+                return new ArrayList<>(versions);
+            }
+        }
+
+        if(fallback != null) {
+            return fallback.getReleases(identifier);
+        }
+        return List.of();
+    }
+}
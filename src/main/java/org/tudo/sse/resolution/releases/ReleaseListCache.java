@@ -0,0 +1,183 @@
+package org.tudo.sse.resolution.releases;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionRange;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class caches the release lists obtained from an IReleaseListProvider as sorted arrays of parsed versions, one
+ * per GA-Tuple. Cached lists expire after a configurable time to live, after which they are obtained from the provider
+ * again. At most a configurable number of lists is cached, the least recently used ones and expired ones are evicted
+ * first. Range bounds are looked up via binary search on the sorted arrays.
+ */
+public class ReleaseListCache {
+
+    /**
+     * The default time to live for cached release lists, in milliseconds (one hour).
+     */
+    public static final long DEFAULT_TTL_MILLIS = 60 * 60 * 1000;
+
+    /**
+     * The default maximum number of cached release lists.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final IReleaseListProvider provider;
+    private final GenericVersionScheme scheme = new GenericVersionScheme();
+    private final Map<String, CachedReleases> releases;
+    private volatile long ttlMillis;
+
+    /**
+     * Creates a new cache for the given provider using the default time to live.
+     * @param provider The release list provider to obtain release lists from
+     */
+    public ReleaseListCache(IReleaseListProvider provider) {
+        this(provider, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Creates a new cache for the given provider using the default maximum number of cached release lists.
+     * @param provider The release list provider to obtain release lists from
+     * @param ttlMillis Time in milliseconds after which a cached release list is obtained again. A negative value
+     *                  indicates that cached lists never expire.
+     */
+    public ReleaseListCache(IReleaseListProvider provider, long ttlMillis) {
+        this(provider, ttlMillis, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new cache for the given provider.
+     * @param provider The release list provider to obtain release lists from
+     * @param ttlMillis Time in milliseconds after which a cached release list is obtained again. A negative value
+     *                  indicates that cached lists never expire.
+     * @param maxEntries Maximum number of cached release lists
+     */
+    public ReleaseListCache(IReleaseListProvider provider, long ttlMillis, int maxEntries) {
+        if(maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of cached release lists must be positive");
+        }
+        this.provider = Objects.requireNonNull(provider);
+        this.ttlMillis = ttlMillis;
+        this.releases = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedReleases> eldest) {
+                return size() > maxEntries || isExpired(eldest.getValue(), System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * Retrieves the time to live for cached release lists.
+     * @return Time to live in milliseconds, negative if cached lists never expire
+     */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Sets the time to live for cached release lists.
+     * @param ttlMillis Time to live in milliseconds, a negative value indicates that cached lists never expire
+     */
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Removes all cached release lists.
+     */
+    public void clear() {
+        releases.clear();
+    }
+
+    /**
+     * Retrieves the number of currently cached release lists, including expired ones that were not evicted yet.
+     * @return Number of cached release lists
+     */
+    public int size() {
+        return releases.size();
+    }
+
+    /**
+     * Gets the parsed releases of the given library in ascending order. The identifier's version is irrelevant, only
+     * the GA tuple is used to obtain the release list.
+     *
+     * @param identifier Identifier to obtain the release list for (GA-Tuple)
+     * @return Array of versions sorted in ascending order. This array is shared and must not be modified.
+     * @throws IOException If the underlying provider fails to obtain the release list
+     * @throws InvalidVersionSpecificationException If a release of the list cannot be parsed
+     */
+    public Version[] getSortedReleases(ArtifactIdent identifier) throws IOException, InvalidVersionSpecificationException {
+        String ga = identifier.getGA();
+        CachedReleases cached = releases.get(ga);
+        long now = System.currentTimeMillis();
+
+        if(cached == null || isExpired(cached, now)) {
+            List<String> versionList = provider.getReleases(identifier);
+            Version[] versions = new Version[versionList.size()];
+            for(int i = 0; i < versions.length; i++) {
+                versions[i] = scheme.parseVersion(versionList.get(i));
+            }
+            Arrays.sort(versions);
+
+            cached = new CachedReleases(versions, now);
+            releases.put(ga, cached);
+        }
+
+        return cached.versions;
+    }
+
+    /**
+     * Finds the highest version in the given sorted array that does not exceed the upper bound of the given range.
+     * The lower bound of the range is not considered.
+     *
+     * @param versions Versions sorted in ascending order
+     * @param range The range whose upper bound is used
+     * @return The highest version below the range's upper bound, or null if there is none or the range has no upper bound
+     */
+    public static Version highestBelowUpperBound(Version[] versions, VersionRange range) {
+        VersionRange.Bound upper = range.getUpperBound();
+        if(upper == null) {
+            return null;
+        }
+
+        // Index of the first version that lies above the upper bound
+        int low = 0;
+        int high = versions.length;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = versions[mid].compareTo(upper.getVersion());
+            if(cmp < 0 || (cmp == 0 && upper.isInclusive())) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low > 0 ? versions[low - 1] : null;
+    }
+
+    private boolean isExpired(CachedReleases cached, long now) {
+        long ttl = ttlMillis;
+        return ttl >= 0 && now - cached.loadedAt > ttl;
+    }
+
+    private static class CachedReleases {
+        private final Version[] versions;
+        private final long loadedAt;
+
+        private CachedReleases(Version[] versions, long loadedAt) {
+            this.versions = versions;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
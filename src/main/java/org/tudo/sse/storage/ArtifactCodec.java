@@ -0,0 +1,646 @@
+package org.tudo.sse.storage;
+
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.index.IndexInformation;
+import org.tudo.sse.model.index.Package;
+import org.tudo.sse.model.jar.ClassFile;
+import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.model.jar.ObjType;
+import org.tudo.sse.model.pom.Dependency;
+import org.tudo.sse.model.pom.License;
+import org.tudo.sse.model.pom.PomInformation;
+import org.tudo.sse.model.pom.PomProfile;
+import org.tudo.sse.model.pom.RawPomFeatures;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compact binary encoding of artifacts, used by the SpillingArtifactStore and, for JAR information only, by the
+ * JarInformationCache. Strings are written once per record and
+ * referenced by number afterwards, which avoids repeating group ids, package names and type names. References to other
+ * artifacts (parent, imports, transitive dependencies) are written as identifiers and relinked when decoding.
+ */
+final class ArtifactCodec {
+
+    private static final int HAS_INDEX = 1;
+    private static final int HAS_POM = 2;
+    private static final int HAS_JAR = 4;
+
+    private ArtifactCodec() {}
+
+    /**
+     * Encodes the given artifact.
+     * @param artifact The artifact to encode
+     * @return The encoded artifact
+     */
+    static byte[] encode(Artifact artifact) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            new Writer(new DataOutputStream(bytes)).writeArtifact(artifact);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an artifact. The artifact is passed to the given consumer before any references to other artifacts are
+     * relinked, so that cyclic references can be resolved to the artifact that is currently being decoded.
+     *
+     * @param data The encoded artifact
+     * @param references Function resolving the identifiers of referenced artifacts, may return null
+     * @param register Consumer receiving the decoded artifact before its references are relinked
+     * @return The decoded artifact
+     */
+    static Artifact decode(byte[] data, Function<ArtifactIdent, Artifact> references, Consumer<Artifact> register) {
+        try {
+            return new Reader(new DataInputStream(new ByteArrayInputStream(data)), references).readArtifact(register);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes the given JAR information without its identifier.
+     * @param jar The JAR information to encode
+     * @return The encoded JAR information
+     */
+    static byte[] encodeJar(JarInformation jar) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            new Writer(new DataOutputStream(bytes)).writeJar(jar);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes JAR information for the given identifier.
+     * @param data The encoded JAR information
+     * @param ident Identifier of the artifact the JAR information belongs to
+     * @param types Function applied to every decoded type, e.g. to assign the type ids of the current run
+     * @return The decoded JAR information
+     * @throws IOException when the data is truncated
+     */
+    static JarInformation decodeJar(byte[] data, ArtifactIdent ident, UnaryOperator<ObjType> types) throws IOException {
+        Reader reader = new Reader(new DataInputStream(new ByteArrayInputStream(data)), i -> null);
+        reader.types = types;
+        return reader.readJar(ident);
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeArtifact(Artifact artifact) throws IOException {
+            writeIdent(artifact.getIdent());
+            writeIdent(artifact.getRelocation());
+
+            IndexInformation index = artifact.getIndexInformation();
+            PomInformation pom = artifact.getPomInformation();
+            JarInformation jar = artifact.getJarInformation();
+            int flags = (index != null && !index.getPackages().isEmpty() ? HAS_INDEX : 0) | (pom != null ? HAS_POM : 0) | (jar != null ? HAS_JAR : 0);
+            out.writeByte(flags);
+
+            if((flags & HAS_INDEX) != 0) writeIndex(index);
+            if((flags & HAS_JAR) != 0) writeJar(jar);
+            if((flags & HAS_POM) != 0) writePom(pom);
+        }
+
+        private void writeIndex(IndexInformation index) throws IOException {
+            writeString(index.getName());
+            writeVarLong(index.getIndex());
+            writeVarInt(index.getPackages().size());
+            for(Package pack : index.getPackages()) {
+                writeString(pack.getPackaging());
+                out.writeLong(pack.getLastModified());
+                writeVarLong(pack.getSize());
+                writeVarInt(pack.getSourcesExist());
+                writeVarInt(pack.getJavadocExists());
+                writeVarLong(pack.getSignatureExists());
+                writeString(pack.getSha1checksum());
+            }
+        }
+
+        void writeJar(JarInformation jar) throws IOException {
+            writeVarLong(jar.getCodesize());
+            writeVarLong(jar.getNumClassFiles());
+            writeVarLong(jar.getNumMethods());
+            writeVarLong(jar.getFields());
+            writeVarLong(jar.getNumPackages());
+
+            Map<String, List<ClassFile>> packages = jar.getPackages();
+            writeSize(packages);
+            if(packages != null) {
+                for(Map.Entry<String, List<ClassFile>> entry : packages.entrySet()) {
+                    writeString(entry.getKey());
+                    writeSize(entry.getValue());
+                    if(entry.getValue() != null) {
+                        for(ClassFile classFile : entry.getValue()) {
+                            writeVarInt(classFile.getAccessFlags());
+                            writeType(classFile.getThistype());
+                            writeVarLong(classFile.getVersion());
+                            writeType(classFile.getSuperType());
+                            writeSize(classFile.getInterfaceTypes());
+                            if(classFile.getInterfaceTypes() != null) {
+                                for(ObjType type : classFile.getInterfaceTypes()) {
+                                    writeType(type);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void writePom(PomInformation pom) throws IOException {
+            writeIdent(pom.getIdent());
+            writeIdent(pom.getRelocation());
+            writeRaw(pom.getRawPomFeatures());
+            writeReference(pom.getParent());
+            writeReferences(pom.getImports());
+            writeDependencies(pom.getResolvedDependencies());
+            writeReferences(pom.getAllTransitiveDependencies());
+            writeReferences(pom.getEffectiveTransitiveDependencies());
+
+            Map<String, List<ArtifactIdent>> conflicts = pom.getTransitiveConflicts();
+            writeSize(conflicts);
+            if(conflicts != null) {
+                for(Map.Entry<String, List<ArtifactIdent>> entry : conflicts.entrySet()) {
+                    writeString(entry.getKey());
+                    writeSize(entry.getValue());
+                    if(entry.getValue() != null) {
+                        for(ArtifactIdent ident : entry.getValue()) {
+                            writeIdent(ident);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void writeRaw(RawPomFeatures raw) throws IOException {
+            out.writeBoolean(raw != null);
+            if(raw == null) {
+                return;
+            }
+
+            writeIdent(raw.getParent());
+            writeString(raw.getName());
+            writeString(raw.getDescription());
+            writeProperties(raw.getProperties());
+            writeString(raw.getUrl());
+            writeString(raw.getPackaging());
+            writeString(raw.getInceptionYear());
+            writeDependencies(raw.getDependencies());
+            writeSize(raw.getRepositories());
+            if(raw.getRepositories() != null) {
+                for(String repository : raw.getRepositories()) {
+                    writeString(repository);
+                }
+            }
+            writeSize(raw.getLicenses());
+            if(raw.getLicenses() != null) {
+                for(License license : raw.getLicenses()) {
+                    writeString(license.getName());
+                    writeString(license.getUrl());
+                }
+            }
+            writeDependencies(raw.getDependencyManagement());
+            writeIdent(raw.getRelocation());
+            writeSize(raw.getProfiles());
+            if(raw.getProfiles() != null) {
+                for(PomProfile profile : raw.getProfiles()) {
+                    writeString(profile.getId());
+                    out.writeBoolean(profile.isActiveByDefault());
+                    writeString(profile.getJdk());
+                    writeString(profile.getPropertyName());
+                    writeString(profile.getPropertyValue());
+                    out.writeBoolean(profile.hasOsOrFileActivation());
+                    writeDependencies(profile.getDependencies());
+                    writeDependencies(profile.getDependencyManagement());
+                    writeProperties(profile.getProperties());
+                }
+            }
+        }
+
+        private void writeDependencies(List<Dependency> dependencies) throws IOException {
+            writeSize(dependencies);
+            if(dependencies == null) {
+                return;
+            }
+            for(Dependency dependency : dependencies) {
+                writeIdent(dependency.getIdent());
+                writeString(dependency.getScope());
+                out.writeByte((dependency.isResolved() ? 1 : 0) | (dependency.isVersionRange() ? 2 : 0) | (dependency.isOptional() ? 4 : 0));
+                writeSize(dependency.getExclusions());
+                if(dependency.getExclusions() != null) {
+                    for(String exclusion : dependency.getExclusions()) {
+                        writeString(exclusion);
+                    }
+                }
+            }
+        }
+
+        private void writeProperties(Map<String, String> properties) throws IOException {
+            writeSize(properties);
+            if(properties != null) {
+                for(Map.Entry<String, String> entry : properties.entrySet()) {
+                    writeString(entry.getKey());
+                    writeString(entry.getValue());
+                }
+            }
+        }
+
+        private void writeReference(Artifact artifact) throws IOException {
+            writeIdent(artifact == null ? null : artifact.getIdent());
+        }
+
+        private void writeReferences(List<Artifact> artifacts) throws IOException {
+            writeSize(artifacts);
+            if(artifacts != null) {
+                for(Artifact artifact : artifacts) {
+                    writeReference(artifact);
+                }
+            }
+        }
+
+        private void writeType(ObjType type) throws IOException {
+            out.writeBoolean(type != null);
+            if(type != null) {
+                writeVarLong(type.getId());
+                writeString(type.getFqn());
+                writeString(type.getPackageName());
+            }
+        }
+
+        private void writeIdent(ArtifactIdent ident) throws IOException {
+            out.writeBoolean(ident != null);
+            if(ident != null) {
+                writeString(ident.getGroupID());
+                writeString(ident.getArtifactID());
+                writeString(ident.getVersion());
+                String repository = ident.getRepository();
+                writeString(ArtifactIdent.CENTRAL_REPOSITORY_URL.equals(repository) ? null : repository);
+            }
+        }
+
+        private void writeSize(Map<?, ?> map) throws IOException {
+            writeVarInt(map == null ? 0 : map.size() + 1);
+        }
+
+        private void writeSize(Collection<?> collection) throws IOException {
+            writeVarInt(collection == null ? 0 : collection.size() + 1);
+        }
+
+        /*
+         * Strings are encoded as 0 (null), 1 followed by the UTF-8 bytes (first occurrence), or n + 2 for a reference
+         * to the n-th distinct string of the record.
+         */
+        private void writeString(String value) throws IOException {
+            if(value == null) {
+                writeVarInt(0);
+                return;
+            }
+
+            Integer known = strings.get(value);
+            if(known != null) {
+                writeVarInt(known + 2);
+            } else {
+                strings.put(value, strings.size());
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(1);
+                writeVarInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final Function<ArtifactIdent, Artifact> references;
+        private final List<String> strings = new ArrayList<>();
+        private UnaryOperator<ObjType> types = UnaryOperator.identity();
+
+        Reader(DataInputStream in, Function<ArtifactIdent, Artifact> references) {
+            this.in = in;
+            this.references = references;
+        }
+
+        Artifact readArtifact(Consumer<Artifact> register) throws IOException {
+            ArtifactIdent ident = readIdent();
+            ArtifactIdent relocation = readIdent();
+            int flags = in.readByte();
+
+            IndexInformation index = (flags & HAS_INDEX) != 0 ? readIndex(ident) : null;
+            JarInformation jar = (flags & HAS_JAR) != 0 ? readJar(ident) : null;
+
+            // The POM information is filled after registering, as it may (indirectly) refer to this artifact
+            PomInformation pom = new PomInformation(ident);
+            Artifact artifact = new Artifact(pom);
+            artifact.relocation = relocation;
+            artifact.setIndexInformation(index);
+            artifact.setJarInformation(jar);
+            if((flags & HAS_POM) == 0) {
+                artifact.setPomInformation(null);
+            }
+            register.accept(artifact);
+
+            if((flags & HAS_POM) != 0) {
+                readPom(pom);
+            }
+            return artifact;
+        }
+
+        private IndexInformation readIndex(ArtifactIdent ident) throws IOException {
+            String name = readString();
+            long position = readVarLong();
+            int numPackages = readVarInt();
+            IndexInformation index = null;
+            for(int i = 0; i < numPackages; i++) {
+                Package pack = readPackage();
+                if(index == null) {
+                    index = new IndexInformation(ident, pack);
+                } else {
+                    index.addAPackage(pack);
+                }
+            }
+            if(index != null) {
+                index.setName(name);
+                index.setIndex(position);
+            }
+            return index;
+        }
+
+        private Package readPackage() throws IOException {
+            String packaging = readString();
+            long lastModified = in.readLong();
+            long size = readVarLong();
+            int sourcesExist = readVarInt();
+            int javadocExists = readVarInt();
+            long signatureExists = readVarLong();
+            String sha1 = readString();
+            return new Package(packaging, lastModified, size, sourcesExist, javadocExists, signatureExists, sha1);
+        }
+
+        JarInformation readJar(ArtifactIdent ident) throws IOException {
+            JarInformation jar = new JarInformation(ident);
+            jar.setCodesize(readVarLong());
+            jar.setNumClassFiles(readVarLong());
+            jar.setNumMethods(readVarLong());
+            jar.setFields(readVarLong());
+            jar.setNumPackages(readVarLong());
+
+            int numPackages = readSize();
+            if(numPackages >= 0) {
+                Map<String, List<ClassFile>> packages = new HashMap<>();
+                for(int i = 0; i < numPackages; i++) {
+                    String packageName = readString();
+                    int numClasses = readSize();
+                    List<ClassFile> classes = numClasses < 0 ? null : new ArrayList<>(numClasses);
+                    for(int j = 0; j < numClasses; j++) {
+                        int accessFlags = readVarInt();
+                        ObjType thisType = readType();
+                        long version = readVarLong();
+                        ObjType superType = readType();
+                        int numInterfaces = readSize();
+                        List<ObjType> interfaces = numInterfaces < 0 ? null : new ArrayList<>(numInterfaces);
+                        for(int k = 0; k < numInterfaces; k++) {
+                            interfaces.add(readType());
+                        }
+                        classes.add(new ClassFile(accessFlags, thisType, version, superType, interfaces));
+                    }
+                    packages.put(packageName, classes);
+                }
+                jar.setPackages(packages);
+            }
+            return jar;
+        }
+
+        private void readPom(PomInformation pom) throws IOException {
+            pom.setIdent(readIdent());
+            pom.setRelocation(readIdent());
+            pom.setRawPomFeatures(readRaw());
+            pom.setParent(readReference());
+            pom.setImports(readReferences());
+            pom.setResolvedDependencies(readDependencies());
+            pom.setAllTransitiveDependencies(readReferences());
+            pom.setEffectiveTransitiveDependencies(readReferences());
+
+            int numConflicts = readSize();
+            if(numConflicts >= 0) {
+                Map<String, List<ArtifactIdent>> conflicts = new HashMap<>();
+                for(int i = 0; i < numConflicts; i++) {
+                    String ga = readString();
+                    int numIdents = readSize();
+                    List<ArtifactIdent> idents = numIdents < 0 ? null : new ArrayList<>(numIdents);
+                    for(int j = 0; j < numIdents; j++) {
+                        idents.add(readIdent());
+                    }
+                    conflicts.put(ga, idents);
+                }
+                pom.setTransitiveConflicts(conflicts);
+            }
+        }
+
+        private RawPomFeatures readRaw() throws IOException {
+            if(!in.readBoolean()) {
+                return null;
+            }
+
+            RawPomFeatures raw = new RawPomFeatures();
+            raw.setParent(readIdent());
+            raw.setName(readString());
+            raw.setDescription(readString());
+            raw.setProperties(readProperties());
+            raw.setUrl(readString());
+            raw.setPackaging(readString());
+            raw.setInceptionYear(readString());
+            raw.setDependencies(readDependencies());
+            int numRepositories = readSize();
+            if(numRepositories >= 0) {
+                List<String> repositories = new ArrayList<>(numRepositories);
+                for(int i = 0; i < numRepositories; i++) {
+                    repositories.add(readString());
+                }
+                raw.setRepositories(repositories);
+            }
+            int numLicenses = readSize();
+            if(numLicenses >= 0) {
+                List<License> licenses = new ArrayList<>(numLicenses);
+                for(int i = 0; i < numLicenses; i++) {
+                    licenses.add(new License(readString(), readString()));
+                }
+                raw.setLicenses(licenses);
+            }
+            raw.setDependencyManagement(readDependencies());
+            raw.setRelocation(readIdent());
+            int numProfiles = readSize();
+            if(numProfiles >= 0) {
+                List<PomProfile> profiles = new ArrayList<>(numProfiles);
+                for(int i = 0; i < numProfiles; i++) {
+                    String id = readString();
+                    boolean activeByDefault = in.readBoolean();
+                    String jdk = readString();
+                    String propertyName = readString();
+                    String propertyValue = readString();
+                    boolean osOrFileActivation = in.readBoolean();
+                    List<Dependency> dependencies = readDependencies();
+                    List<Dependency> dependencyManagement = readDependencies();
+                    Map<String, String> properties = readProperties();
+                    profiles.add(new PomProfile(id, activeByDefault, jdk, propertyName, propertyValue, osOrFileActivation,
+                            dependencies, dependencyManagement, properties));
+                }
+                raw.setProfiles(profiles);
+            }
+            return raw;
+        }
+
+        private List<Dependency> readDependencies() throws IOException {
+            int numDependencies = readSize();
+            if(numDependencies < 0) {
+                return null;
+            }
+
+            List<Dependency> dependencies = new ArrayList<>(numDependencies);
+            for(int i = 0; i < numDependencies; i++) {
+                ArtifactIdent ident = readIdent();
+                String scope = readString();
+                int flags = in.readByte();
+                int numExclusions = readSize();
+                Set<String> exclusions = numExclusions < 0 ? null : new LinkedHashSet<>();
+                for(int j = 0; j < numExclusions; j++) {
+                    exclusions.add(readString());
+                }
+                dependencies.add(new Dependency(ident, scope, (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, exclusions));
+            }
+            return dependencies;
+        }
+
+        private Map<String, String> readProperties() throws IOException {
+            int numProperties = readSize();
+            if(numProperties < 0) {
+                return null;
+            }
+
+            Map<String, String> properties = new LinkedHashMap<>();
+            for(int i = 0; i < numProperties; i++) {
+                properties.put(readString(), readString());
+            }
+            return properties;
+        }
+
+        private Artifact readReference() throws IOException {
+            ArtifactIdent ident = readIdent();
+            return ident == null ? null : references.apply(ident);
+        }
+
+        private List<Artifact> readReferences() throws IOException {
+            int numReferences = readSize();
+            if(numReferences < 0) {
+                return null;
+            }
+
+            List<Artifact> artifacts = new ArrayList<>(numReferences);
+            for(int i = 0; i < numReferences; i++) {
+                Artifact artifact = readReference();
+                if(artifact != null) {
+                    artifacts.add(artifact);
+                }
+            }
+            return artifacts;
+        }
+
+        private ObjType readType() throws IOException {
+            if(!in.readBoolean()) {
+                return null;
+            }
+            long id = readVarLong();
+            String fqn = readString();
+            return types.apply(new ObjType(id, fqn, readString()));
+        }
+
+        private ArtifactIdent readIdent() throws IOException {
+            if(!in.readBoolean()) {
+                return null;
+            }
+            String groupId = readString();
+            String artifactId = readString();
+            ArtifactIdent ident = new ArtifactIdent(groupId, artifactId, readString());
+            String repository = readString();
+            if(repository != null) {
+                ident.setRepository(repository);
+            }
+            return ident;
+        }
+
+        private int readSize() throws IOException {
+            return readVarInt() - 1;
+        }
+
+        private String readString() throws IOException {
+            int tag = readVarInt();
+            if(tag == 0) {
+                return null;
+            } else if(tag > 1) {
+                return strings.get(tag - 2);
+            }
+
+            byte[] bytes = new byte[readVarInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        private int readVarInt() throws IOException {
+            return (int) readVarLong();
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = in.readByte();
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while((current & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.tudo.sse.storage;
+
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Interface defining the storage backend of the ArtifactFactory. Implementations decide how long artifacts are retained,
+ * which allows bounding the memory used by runs over large parts of Maven Central. All implementations have to be safe
+ * for concurrent access.
+ */
+public interface IArtifactStore {
+
+    /**
+     * Gets the artifact stored for the given identifier.
+     *
+     * @param ident Identifier of the artifact
+     * @return The stored artifact, or null if no artifact is (or is no longer) stored for the identifier
+     */
+    Artifact get(ArtifactIdent ident);
+
+    /**
+     * Atomically computes the artifact stored for the given identifier, like ConcurrentHashMap.compute.
+     *
+     * @param ident Identifier of the artifact
+     * @param remapping Function receiving the identifier and the currently stored artifact (or null), returning the
+     *                  artifact to store (or null to remove it)
+     * @return The artifact stored after the computation, or null if none
+     */
+    Artifact compute(ArtifactIdent ident, BiFunction<ArtifactIdent, Artifact, Artifact> remapping);
+
+    /**
+     * Removes the artifact stored for the given identifier.
+     *
+     * @param ident Identifier of the artifact
+     * @return The removed artifact, or null if none was stored
+     */
+    Artifact remove(ArtifactIdent ident);
+
+    /**
+     * Signals that the artifact for the given identifier has been analyzed and is no longer required by the analysis
+     * itself. Stores may use this to evict the artifact early, it may still be retained if it is shared with others.
+     *
+     * @param ident Identifier of the analyzed artifact
+     */
+    void release(ArtifactIdent ident);
+
+    /**
+     * Gets the number of artifacts currently stored.
+     *
+     * @return The number of stored artifacts
+     */
+    int size();
+
+    /**
+     * Removes all stored artifacts.
+     */
+    void clear();
+
+    /**
+     * Gets a snapshot of all artifacts currently stored. Stores that do not hold all artifacts in memory may return a
+     * read-only view that loads artifacts while iterating.
+     *
+     * @return Map of identifiers to their artifacts
+     */
+    Map<ArtifactIdent, Artifact> snapshot();
+}
@@ -0,0 +1,141 @@
+package org.tudo.sse.storage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.model.jar.ObjType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent cache of JAR information, keyed by the SHA-1 checksum of the JAR file. The information of a JAR file
+ * only depends on its contents, so it can be reused across runs and by different analyses, which avoids downloading
+ * and parsing JAR files that have been processed before. As the results of different class file readers differ
+ * slightly, entries are additionally keyed by a variant naming the reader.
+ * <p>
+ * Every entry is stored in its own file, named after the checksum and located in a subdirectory named after the first
+ * two characters of the checksum. Entries are written to a temporary file and then moved into place, so concurrent
+ * runs sharing the cache directory never read partially written entries. Entries that cannot be read are treated as
+ * missing.
+ */
+public class JarInformationCache {
+
+    private static final Logger log = LogManager.getLogger(JarInformationCache.class);
+
+    private static final byte[] MAGIC = {'J', 'I', 'C', 1};
+    private static final Pattern CHECKSUM = Pattern.compile("[0-9a-f]{40}");
+
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache in the given directory, creating the directory if it does not exist.
+     * @param directory Directory holding the cache entries
+     * @throws IOException when the directory cannot be created
+     */
+    public JarInformationCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Checks whether the given string is a valid SHA-1 checksum for this cache, i.e. 40 lowercase hex digits.
+     * @param checksum The string to check
+     * @return True if the string can be used as key of this cache, false otherwise
+     */
+    public static boolean isChecksum(String checksum) {
+        return checksum != null && CHECKSUM.matcher(checksum).matches();
+    }
+
+    /**
+     * Loads the JAR information of the JAR file with the given checksum.
+     * @param checksum SHA-1 checksum of the JAR file
+     * @param variant Name of the class file reader the information was produced with
+     * @param ident Identifier of the artifact the returned information is assigned to
+     * @param types Function applied to every type of the loaded information, e.g. to assign the type ids of the
+     *              current run, as type ids are not stable across runs
+     * @return The JAR information, or null if it is not cached
+     */
+    public JarInformation get(String checksum, String variant, ArtifactIdent ident, UnaryOperator<ObjType> types) {
+        if(!isChecksum(checksum)) {
+            return null;
+        }
+
+        Path entry = entryPath(checksum, variant);
+        try {
+            byte[] data = Files.readAllBytes(entry);
+            if(data.length >= MAGIC.length && Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+                JarInformation jar = ArtifactCodec.decodeJar(Arrays.copyOfRange(data, MAGIC.length, data.length), ident, types);
+                hits.incrementAndGet();
+                return jar;
+            }
+            log.warn("Ignoring cache entry " + entry + " of an unknown format");
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException | RuntimeException e) {
+            // corrupted entries may also fail decoding with runtime exceptions, e.g. for invalid string references
+            log.warn("Ignoring unreadable cache entry " + entry + ": " + e.getMessage());
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the JAR information of the JAR file with the given checksum, replacing an existing entry.
+     * @param checksum SHA-1 checksum of the JAR file
+     * @param variant Name of the class file reader the information was produced with
+     * @param jar The JAR information to store
+     */
+    public void put(String checksum, String variant, JarInformation jar) {
+        if(!isChecksum(checksum)) {
+            return;
+        }
+
+        Path entry = entryPath(checksum, variant);
+        Path temp = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            temp = Files.createTempFile(entry.getParent(), checksum, ".tmp");
+            byte[] encoded = ArtifactCodec.encodeJar(jar);
+            byte[] data = Arrays.copyOf(MAGIC, MAGIC.length + encoded.length);
+            System.arraycopy(encoded, 0, data, MAGIC.length, encoded.length);
+            Files.write(temp, data);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write cache entry " + entry + ": " + e.getMessage());
+            if(temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found a cached entry.
+     * @return The number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached entry.
+     * @return The number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private Path entryPath(String checksum, String variant) {
+        return directory.resolve(checksum.substring(0, 2)).resolve(checksum + "." + variant);
+    }
+}
@@ -0,0 +1,205 @@
+package org.tudo.sse.storage;
+
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Artifact store that is bounded by the total weight of its released artifacts (by default, every artifact weighs one,
+ * so the number of artifacts is bounded). Only artifacts that have been released after their analysis are evicted,
+ * least recently used first, so artifacts that are still being resolved or analyzed are never dropped. Artifacts that
+ * are never released, i.e. shared parents, imports and dependencies of analyzed artifacts, are retained as well. To
+ * avoid a global lock, the store is split into independent segments by identifier hash, each of which is bounded by an
+ * equal share of the total weight.
+ */
+public class LruArtifactStore implements IArtifactStore {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final ToLongFunction<Artifact> weigher;
+
+    /**
+     * Creates a new store retaining at most the given number of artifacts.
+     * @param maxArtifacts Maximum number of artifacts to retain
+     */
+    public LruArtifactStore(long maxArtifacts) {
+        this(maxArtifacts, artifact -> 1);
+    }
+
+    /**
+     * Creates a new store bounded by the total weight of its artifacts.
+     * @param maxWeight Maximum total weight of the retained artifacts
+     * @param weigher Function computing the weight of an artifact, e.g. based on the number of class files it contains
+     */
+    public LruArtifactStore(long maxWeight, ToLongFunction<Artifact> weigher) {
+        this(maxWeight, weigher, (int) Math.min(MAX_SEGMENTS, Math.max(1, maxWeight)));
+    }
+
+    LruArtifactStore(long maxWeight, ToLongFunction<Artifact> weigher, int numSegments) {
+        if(maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive: " + maxWeight);
+        }
+
+        this.segments = new Segment[numSegments];
+        for(int i = 0; i < numSegments; i++) {
+            segments[i] = new Segment(Math.max(1, maxWeight / numSegments));
+        }
+        this.weigher = weigher;
+    }
+
+    private Segment segmentFor(ArtifactIdent ident) {
+        int hash = ident.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+
+    @Override
+    public Artifact get(ArtifactIdent ident) {
+        Segment segment = segmentFor(ident);
+        synchronized (segment) {
+            Node node = segment.access(ident);
+            return node == null ? null : node.artifact;
+        }
+    }
+
+    @Override
+    public Artifact compute(ArtifactIdent ident, BiFunction<ArtifactIdent, Artifact, Artifact> remapping) {
+        Segment segment = segmentFor(ident);
+        synchronized (segment) {
+            Node node = segment.access(ident);
+            Artifact result = remapping.apply(ident, node == null ? null : node.artifact);
+            if(result == null) {
+                segment.remove(ident);
+            } else {
+                segment.put(ident, new Node(result, weigher.applyAsLong(result)));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public Artifact remove(ArtifactIdent ident) {
+        Segment segment = segmentFor(ident);
+        synchronized (segment) {
+            Node node = segment.remove(ident);
+            return node == null ? null : node.artifact;
+        }
+    }
+
+    @Override
+    public void release(ArtifactIdent ident) {
+        Segment segment = segmentFor(ident);
+        synchronized (segment) {
+            segment.release(ident);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.live.size() + segment.released.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for(Segment segment : segments) {
+            synchronized (segment) {
+                segment.live.clear();
+                segment.released.clear();
+                segment.weight = 0;
+            }
+        }
+    }
+
+    @Override
+    public Map<ArtifactIdent, Artifact> snapshot() {
+        Map<ArtifactIdent, Artifact> snapshot = new HashMap<>();
+        for(Segment segment : segments) {
+            synchronized (segment) {
+                segment.live.forEach((ident, node) -> snapshot.put(ident, node.artifact));
+                segment.released.forEach((ident, node) -> snapshot.put(ident, node.artifact));
+            }
+        }
+        return snapshot;
+    }
+
+    private static final class Node {
+        private final Artifact artifact;
+        private final long weight;
+
+        Node(Artifact artifact, long weight) {
+            this.artifact = artifact;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A segment holds live artifacts and released artifacts in access order. Only released artifacts are evicted.
+     * Callers have to synchronize on the segment.
+     */
+    private static final class Segment {
+        private final Map<ArtifactIdent, Node> live = new HashMap<>();
+        private final LinkedHashMap<ArtifactIdent, Node> released = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxWeight;
+        private long weight;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        Node access(ArtifactIdent ident) {
+            Node node = live.get(ident);
+            // Released artifacts that are accessed again (e.g. as parent of another artifact) stay released, but are
+            // moved to the end of the eviction order
+            return node != null ? node : released.get(ident);
+        }
+
+        void put(ArtifactIdent ident, Node node) {
+            Node previous = released.containsKey(ident) ? released.put(ident, node) : live.put(ident, node);
+            if(previous != null) {
+                weight -= previous.weight;
+            }
+            weight += node.weight;
+            evict();
+        }
+
+        void release(ArtifactIdent ident) {
+            Node node = live.remove(ident);
+            if(node != null) {
+                released.put(ident, node);
+                evict();
+            }
+        }
+
+        Node remove(ArtifactIdent ident) {
+            Node node = live.remove(ident);
+            if(node == null) {
+                node = released.remove(ident);
+            }
+            if(node != null) {
+                weight -= node.weight;
+            }
+            return node;
+        }
+
+        private void evict() {
+            Iterator<Map.Entry<ArtifactIdent, Node>> iterator = released.entrySet().iterator();
+            while(weight > maxWeight && iterator.hasNext()) {
+                weight -= iterator.next().getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+}
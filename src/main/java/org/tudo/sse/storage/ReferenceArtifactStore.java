@@ -0,0 +1,140 @@
+package org.tudo.sse.storage;
+
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Artifact store that only retains artifacts while they are referenced elsewhere. With weak retention, an artifact is
+ * dropped as soon as it is no longer referenced, e.g. once its analysis has completed and no other artifact refers to
+ * it as parent, import or dependency. With soft retention, unreferenced artifacts are kept until the JVM runs low on
+ * memory.
+ */
+public class ReferenceArtifactStore implements IArtifactStore {
+
+    private final Map<ArtifactIdent, Reference<Artifact>> artifacts = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Artifact> queue = new ReferenceQueue<>();
+    private final boolean soft;
+
+    /**
+     * Creates a new store.
+     * @param soft Whether to retain artifacts softly (until memory runs low) instead of weakly
+     */
+    public ReferenceArtifactStore(boolean soft) {
+        this.soft = soft;
+    }
+
+    /**
+     * Checks whether this store retains artifacts softly.
+     * @return True for soft retention, false for weak retention
+     */
+    public boolean isSoft() {
+        return soft;
+    }
+
+    @Override
+    public Artifact get(ArtifactIdent ident) {
+        expungeCleared();
+        Reference<Artifact> reference = artifacts.get(ident);
+        return reference == null ? null : reference.get();
+    }
+
+    @Override
+    public Artifact compute(ArtifactIdent ident, BiFunction<ArtifactIdent, Artifact, Artifact> remapping) {
+        expungeCleared();
+        Artifact[] result = new Artifact[1];
+        artifacts.compute(ident, (key, reference) -> {
+            Artifact current = reference == null ? null : reference.get();
+            result[0] = remapping.apply(key, current);
+            if(result[0] == null) {
+                return null;
+            } else if(result[0] == current) {
+                return reference;
+            }
+            return soft ? new SoftEntry(key, result[0], queue) : new WeakEntry(key, result[0], queue);
+        });
+        return result[0];
+    }
+
+    @Override
+    public Artifact remove(ArtifactIdent ident) {
+        Reference<Artifact> reference = artifacts.remove(ident);
+        return reference == null ? null : reference.get();
+    }
+
+    @Override
+    public void release(ArtifactIdent ident) {
+        // Artifacts are dropped by the garbage collector once they are no longer referenced
+    }
+
+    @Override
+    public int size() {
+        expungeCleared();
+        return artifacts.size();
+    }
+
+    @Override
+    public void clear() {
+        artifacts.clear();
+    }
+
+    @Override
+    public Map<ArtifactIdent, Artifact> snapshot() {
+        expungeCleared();
+        Map<ArtifactIdent, Artifact> snapshot = new HashMap<>();
+        artifacts.forEach((ident, reference) -> {
+            Artifact artifact = reference.get();
+            if(artifact != null) {
+                snapshot.put(ident, artifact);
+            }
+        });
+        return snapshot;
+    }
+
+    private void expungeCleared() {
+        Reference<? extends Artifact> cleared;
+        while((cleared = queue.poll()) != null) {
+            artifacts.remove(((KeyedReference) cleared).getKey(), cleared);
+        }
+    }
+
+    private interface KeyedReference {
+        ArtifactIdent getKey();
+    }
+
+    private static final class WeakEntry extends WeakReference<Artifact> implements KeyedReference {
+        private final ArtifactIdent key;
+
+        WeakEntry(ArtifactIdent key, Artifact artifact, ReferenceQueue<Artifact> queue) {
+            super(artifact, queue);
+            this.key = key;
+        }
+
+        @Override
+        public ArtifactIdent getKey() {
+            return key;
+        }
+    }
+
+    private static final class SoftEntry extends SoftReference<Artifact> implements KeyedReference {
+        private final ArtifactIdent key;
+
+        SoftEntry(ArtifactIdent key, Artifact artifact, ReferenceQueue<Artifact> queue) {
+            super(artifact, queue);
+            this.key = key;
+        }
+
+        @Override
+        public ArtifactIdent getKey() {
+            return key;
+        }
+    }
+}
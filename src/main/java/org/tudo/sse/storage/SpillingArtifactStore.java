@@ -0,0 +1,603 @@
+package org.tudo.sse.storage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/**
+ * Artifact store for runs that collect more artifacts than fit into the heap. A bounded number of artifacts is kept in
+ * memory, artifacts that have been released after their analysis are spilled to a local file in a compact binary
+ * encoding (least recently used first) and loaded again when accessed. Artifacts that have not been released, i.e.
+ * artifacts that are still being resolved or analyzed and shared parents or dependencies, are never spilled, so they
+ * can be modified safely.
+ * <p>
+ * Spilled artifacts are appended to the file, while an in-memory index maps identifiers to their position. Space of
+ * artifacts that are loaded again is reclaimed by compacting the file once it mostly consists of stale records.
+ * References between artifacts (e.g. parents or transitive dependencies) are stored as identifiers and relinked when
+ * loading. Note that an artifact loaded from disk is a new object, so modifications to a released artifact that has
+ * been spilled in the meantime are not reflected.
+ * <p>
+ * Artifacts are encoded, written and read without holding a global lock, so concurrent resolvers only contend on the
+ * identifiers they access and on the order in which released artifacts are spilled.
+ * <p>
+ * The snapshot of this store loads artifacts lazily while iterating, so all collected artifacts can be post-processed
+ * without holding them in memory at the same time.
+ */
+public class SpillingArtifactStore implements IArtifactStore, Closeable {
+
+    private static final Logger log = LogManager.getLogger(SpillingArtifactStore.class);
+    private static final long MIN_COMPACTION_BYTES = 64L * 1024 * 1024;
+
+    private final long maxHotArtifacts;
+    private final boolean deleteOnClose;
+    private final Path file;
+    private final ConcurrentHashMap<ArtifactIdent, Slot> slots = new ConcurrentHashMap<>();
+    // Released artifacts that are in memory, in access order. Guarded by itself. Artifacts are added once their slot
+    // is stored, as a concurrent eviction would otherwise still see the previous slot and skip them.
+    private final LinkedHashMap<ArtifactIdent, Boolean> released = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong pinned = new AtomicLong();
+    // Appending and reading records takes the read lock, compacting the file takes the write lock
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+    private final AtomicLong end = new AtomicLong();
+    private final AtomicLong garbage = new AtomicLong();
+    private FileChannel channel;
+
+    /**
+     * Creates a new store spilling to a temporary file, which is deleted when the store is closed.
+     * @param maxHotArtifacts Maximum number of artifacts to keep in memory
+     * @throws IOException if the temporary file cannot be created
+     */
+    public SpillingArtifactStore(long maxHotArtifacts) throws IOException {
+        this(Files.createTempFile("marin-artifacts", ".bin"), maxHotArtifacts, true);
+    }
+
+    /**
+     * Creates a new store spilling to the given file. Existing contents of the file are discarded.
+     * @param file The file to spill artifacts to
+     * @param maxHotArtifacts Maximum number of artifacts to keep in memory
+     * @throws IOException if the file cannot be opened
+     */
+    public SpillingArtifactStore(Path file, long maxHotArtifacts) throws IOException {
+        this(file, maxHotArtifacts, false);
+    }
+
+    private SpillingArtifactStore(Path file, long maxHotArtifacts, boolean deleteOnClose) throws IOException {
+        if(maxHotArtifacts <= 0) {
+            throw new IllegalArgumentException("Maximum number of in-memory artifacts must be positive: " + maxHotArtifacts);
+        }
+
+        this.file = file;
+        this.maxHotArtifacts = maxHotArtifacts;
+        this.deleteOnClose = deleteOnClose;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Gets the file artifacts are spilled to.
+     * @return Path of the spill file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of artifacts currently spilled to disk.
+     * @return The number of spilled artifacts
+     */
+    public int spilledSize() {
+        int spilled = 0;
+        for(Slot slot : slots.values()) {
+            if(slot.isSpilled()) {
+                spilled++;
+            }
+        }
+        return spilled;
+    }
+
+    @Override
+    public Artifact get(ArtifactIdent ident) {
+        Slot slot = slots.get(ident);
+        if(slot == null) {
+            return null;
+        } else if(slot.isSpilled()) {
+            Artifact artifact = load(ident);
+            evict();
+            return artifact;
+        }
+        if(slot.released) {
+            touch(ident);
+        }
+        return slot.artifact;
+    }
+
+    @Override
+    public Artifact compute(ArtifactIdent ident, BiFunction<ArtifactIdent, Artifact, Artifact> remapping) {
+        Artifact[] result = new Artifact[1];
+        boolean[] spilled = new boolean[1];
+        boolean[] wasReleased = new boolean[1];
+        do {
+            spilled[0] = false;
+            wasReleased[0] = false;
+            if(slots.containsKey(ident)) {
+                load(ident);
+            }
+            slots.compute(ident, (key, slot) -> {
+                if(slot != null && slot.isSpilled()) {
+                    // Spilled again before the computation, so it has to be loaded once more
+                    spilled[0] = true;
+                    return slot;
+                }
+
+                result[0] = remapping.apply(key, slot == null ? null : slot.artifact);
+                if(result[0] == null) {
+                    if(slot != null) {
+                        unlink(key, slot);
+                    }
+                    return null;
+                } else if(slot == null) {
+                    pinned.incrementAndGet();
+                    return new Slot(result[0], null, false);
+                }
+                // The artifact may be about to be spilled, which is discarded as its slot changes, so it has to be added
+                // to the eviction order again
+                wasReleased[0] = slot.released;
+                // A new slot marks the artifact as modified, so concurrent spills of the old state are discarded
+                return new Slot(result[0], null, slot.released);
+            });
+        } while(spilled[0]);
+        if(wasReleased[0]) {
+            track(ident);
+        }
+        evict();
+        return result[0];
+    }
+
+    @Override
+    public Artifact remove(ArtifactIdent ident) {
+        fileLock.readLock().lock();
+        try {
+            Slot slot = slots.remove(ident);
+            if(slot == null) {
+                return null;
+            }
+            unlink(ident, slot);
+            return slot.isSpilled() ? decode(ident, slot.location, new HashMap<>()) : slot.artifact;
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void release(ArtifactIdent ident) {
+        boolean[] changed = new boolean[1];
+        slots.computeIfPresent(ident, (key, slot) -> {
+            if(slot.released) {
+                return slot;
+            }
+            pinned.decrementAndGet();
+            changed[0] = true;
+            return new Slot(slot.artifact, null, true);
+        });
+        if(changed[0]) {
+            track(ident);
+        }
+        evict();
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public void clear() {
+        fileLock.writeLock().lock();
+        try {
+            slots.clear();
+            synchronized (released) {
+                released.clear();
+            }
+            pinned.set(0);
+            channel.truncate(0);
+            end.set(0);
+            garbage.set(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<ArtifactIdent, Artifact> snapshot() {
+        return new SnapshotView();
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileLock.writeLock().lock();
+        try {
+            channel.close();
+            if(deleteOnClose) {
+                Files.deleteIfExists(file);
+            }
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private void touch(ArtifactIdent ident) {
+        synchronized (released) {
+            released.get(ident);
+        }
+    }
+
+    private void track(ArtifactIdent ident) {
+        synchronized (released) {
+            released.put(ident, Boolean.TRUE);
+        }
+    }
+
+    /*
+     * Updates the bookkeeping for a slot that has been removed. Invoked while the slot is locked.
+     */
+    private void unlink(ArtifactIdent ident, Slot slot) {
+        if(slot.isSpilled()) {
+            discard(slot.location);
+        } else if(slot.released) {
+            synchronized (released) {
+                released.remove(ident);
+            }
+        } else {
+            pinned.decrementAndGet();
+        }
+    }
+
+    private Artifact peek(ArtifactIdent ident) {
+        Slot slot = slots.get(ident);
+        if(slot == null) {
+            return null;
+        } else if(!slot.isSpilled()) {
+            return slot.artifact;
+        }
+
+        fileLock.readLock().lock();
+        try {
+            // The file may have been compacted since the slot was read
+            slot = slots.get(ident);
+            if(slot == null) {
+                return null;
+            }
+            return slot.isSpilled() ? decode(ident, slot.location, new HashMap<>()) : slot.artifact;
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Loads the artifact and all spilled artifacts it references into memory. The requested artifact is inserted last,
+     * so it is the most recently used one when evicting afterwards. If another thread loads or spills the same
+     * artifacts concurrently, the artifacts it stores take precedence.
+     */
+    private Artifact load(ArtifactIdent ident) {
+        while(true) {
+            Slot slot = slots.get(ident);
+            if(slot == null || !slot.isSpilled()) {
+                return slot == null ? null : slot.artifact;
+            }
+
+            Map<ArtifactIdent, Decoded> loaded = new LinkedHashMap<>();
+            fileLock.readLock().lock();
+            try {
+                slot = slots.get(ident);
+                if(slot == null || !slot.isSpilled()) {
+                    continue;
+                }
+                decode(ident, slot.location, loaded);
+            } finally {
+                fileLock.readLock().unlock();
+            }
+
+            Decoded requested = loaded.remove(ident);
+            for(Map.Entry<ArtifactIdent, Decoded> entry : loaded.entrySet()) {
+                install(entry.getKey(), entry.getValue());
+            }
+            Artifact artifact = install(ident, requested);
+            if(artifact != null) {
+                return artifact;
+            }
+        }
+    }
+
+    private Artifact install(ArtifactIdent ident, Decoded decoded) {
+        boolean[] loaded = new boolean[1];
+        Slot installed = slots.computeIfPresent(ident, (key, slot) -> {
+            if(slot.isSpilled() && slot.location == decoded.location) {
+                discard(slot.location);
+                loaded[0] = true;
+                return new Slot(decoded.artifact, null, true);
+            }
+            return slot;
+        });
+        if(loaded[0]) {
+            track(ident);
+        }
+        return installed == null || installed.isSpilled() ? null : installed.artifact;
+    }
+
+    private Artifact decode(ArtifactIdent ident, Location location, Map<ArtifactIdent, Decoded> loaded) {
+        return ArtifactCodec.decode(read(location), reference -> resolveReference(reference, loaded),
+                decoded -> loaded.put(ident, new Decoded(decoded, location)));
+    }
+
+    private Artifact resolveReference(ArtifactIdent ident, Map<ArtifactIdent, Decoded> loaded) {
+        Decoded decoded = loaded.get(ident);
+        if(decoded != null) {
+            return decoded.artifact;
+        }
+
+        Slot slot = slots.get(ident);
+        if(slot == null) {
+            return null;
+        }
+        return slot.isSpilled() ? decode(ident, slot.location, loaded) : slot.artifact;
+    }
+
+    /*
+     * Spills the least recently used released artifacts until the number of in-memory artifacts is within the bound.
+     * Artifacts are encoded and written without holding a lock on the store. If an artifact is modified, removed or
+     * loaded by another thread meanwhile, its record is discarded.
+     */
+    private void evict() {
+        while(true) {
+            ArtifactIdent victim;
+            synchronized (released) {
+                if(released.isEmpty() || pinned.get() + released.size() <= maxHotArtifacts) {
+                    break;
+                }
+                Iterator<ArtifactIdent> eldest = released.keySet().iterator();
+                victim = eldest.next();
+                eldest.remove();
+            }
+
+            Slot slot = slots.get(victim);
+            if(slot == null || slot.isSpilled() || !slot.released) {
+                continue;
+            }
+            byte[] data = ArtifactCodec.encode(slot.artifact);
+
+            fileLock.readLock().lock();
+            try {
+                Location location = append(data);
+                Slot current = slots.computeIfPresent(victim, (key, value) -> value == slot ? new Slot(null, location, true) : value);
+                if(current == null || current.location != location) {
+                    discard(location);
+                }
+            } finally {
+                fileLock.readLock().unlock();
+            }
+        }
+
+        if(garbage.get() > MIN_COMPACTION_BYTES && garbage.get() > end.get() / 2) {
+            compact();
+        }
+    }
+
+    private Location append(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + data.length);
+        buffer.putInt(data.length).put(data).flip();
+        long start = end.getAndAdd(buffer.limit());
+        try {
+            long position = start;
+            while(buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Location(start + Integer.BYTES, data.length);
+    }
+
+    private byte[] read(Location location) {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        try {
+            while(buffer.hasRemaining()) {
+                if(channel.read(buffer, location.offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of spill file " + file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.array();
+    }
+
+    private void discard(Location location) {
+        garbage.addAndGet(Integer.BYTES + location.length);
+    }
+
+    private void compact() {
+        if(!fileLock.writeLock().tryLock()) {
+            // Another thread is compacting, or records are being read or written and compaction is retried later
+            return;
+        }
+        try {
+            if(garbage.get() <= MIN_COMPACTION_BYTES || garbage.get() <= end.get() / 2) {
+                return;
+            }
+
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long position = 0;
+            for(Map.Entry<ArtifactIdent, Slot> entry : slots.entrySet()) {
+                Slot slot = entry.getValue();
+                if(!slot.isSpilled()) {
+                    continue;
+                }
+                Location location = slot.location;
+                long recordStart = location.offset - Integer.BYTES;
+                long recordLength = Integer.BYTES + location.length;
+                long copied = 0;
+                while(copied < recordLength) {
+                    copied += channel.transferTo(recordStart + copied, recordLength - copied, target);
+                }
+                // Fails if the artifact has been loaded meanwhile, which leaves a stale record in the compacted file
+                slots.replace(entry.getKey(), slot, new Slot(null, new Location(position + Integer.BYTES, location.length), true));
+                position += recordLength;
+            }
+
+            log.debug("Compacted spill file from " + end.get() + " to " + position + " bytes");
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+            channel = target;
+            end.set(position);
+            garbage.set(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * The state of a stored artifact: either in memory (artifact is set) or spilled (location is set). Slots are
+     * immutable, so a spill can check whether the artifact has been modified while it was encoded.
+     */
+    private static final class Slot {
+        private final Artifact artifact;
+        private final Location location;
+        private final boolean released;
+
+        Slot(Artifact artifact, Location location, boolean released) {
+            this.artifact = artifact;
+            this.location = location;
+            this.released = released;
+        }
+
+        boolean isSpilled() {
+            return location != null;
+        }
+    }
+
+    private static final class Decoded {
+        private final Artifact artifact;
+        private final Location location;
+
+        Decoded(Artifact artifact, Location location) {
+            this.artifact = artifact;
+            this.location = location;
+        }
+    }
+
+    private static final class Location {
+        private final long offset;
+        private final int length;
+
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Read-only view of all artifacts in the store, loading spilled artifacts one at a time without keeping them in
+     * memory.
+     */
+    private final class SnapshotView extends AbstractMap<ArtifactIdent, Artifact> {
+
+        @Override
+        public Artifact get(Object key) {
+            if(!(key instanceof ArtifactIdent)) {
+                return null;
+            }
+            return peek((ArtifactIdent) key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if(!(key instanceof ArtifactIdent)) {
+                return false;
+            }
+            return slots.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return SpillingArtifactStore.this.size();
+        }
+
+        @Override
+        public Set<Entry<ArtifactIdent, Artifact>> entrySet() {
+            return new AbstractSet<Entry<ArtifactIdent, Artifact>>() {
+                @Override
+                public Iterator<Entry<ArtifactIdent, Artifact>> iterator() {
+                    return new SnapshotIterator(new ArrayList<>(slots.keySet()).iterator());
+                }
+
+                @Override
+                public int size() {
+                    return SpillingArtifactStore.this.size();
+                }
+            };
+        }
+    }
+
+    private final class SnapshotIterator implements Iterator<Map.Entry<ArtifactIdent, Artifact>> {
+        private final Iterator<ArtifactIdent> idents;
+        private Map.Entry<ArtifactIdent, Artifact> next;
+
+        SnapshotIterator(Iterator<ArtifactIdent> idents) {
+            this.idents = idents;
+        }
+
+        @Override
+        public boolean hasNext() {
+            // Artifacts removed after the iteration started are skipped
+            while(next == null && idents.hasNext()) {
+                ArtifactIdent ident = idents.next();
+                Artifact artifact = peek(ident);
+                if(artifact != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(ident, artifact);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<ArtifactIdent, Artifact> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<ArtifactIdent, Artifact> current = next;
+            next = null;
+            return current;
+        }
+    }
+}
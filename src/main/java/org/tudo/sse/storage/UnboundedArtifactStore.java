@@ -0,0 +1,51 @@
+package org.tudo.sse.storage;
+
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Artifact store that retains all artifacts for the lifetime of the JVM. This is the default store of the
+ * ArtifactFactory.
+ */
+public class UnboundedArtifactStore implements IArtifactStore {
+
+    private final Map<ArtifactIdent, Artifact> artifacts = new ConcurrentHashMap<>();
+
+    @Override
+    public Artifact get(ArtifactIdent ident) {
+        return artifacts.get(ident);
+    }
+
+    @Override
+    public Artifact compute(ArtifactIdent ident, BiFunction<ArtifactIdent, Artifact, Artifact> remapping) {
+        return artifacts.compute(ident, remapping);
+    }
+
+    @Override
+    public Artifact remove(ArtifactIdent ident) {
+        return artifacts.remove(ident);
+    }
+
+    @Override
+    public void release(ArtifactIdent ident) {}
+
+    @Override
+    public int size() {
+        return artifacts.size();
+    }
+
+    @Override
+    public void clear() {
+        artifacts.clear();
+    }
+
+    @Override
+    public Map<ArtifactIdent, Artifact> snapshot() {
+        return new HashMap<>(artifacts);
+    }
+}
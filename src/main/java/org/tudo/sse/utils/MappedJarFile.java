@@ -0,0 +1,214 @@
+package org.tudo.sse.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only access to a local JAR (ZIP) file via a memory mapping. The entries are listed from the central directory at
+ * the end of the archive, so no entry has to be decompressed to find the others, and each entry is only inflated when
+ * it is read. Entries may be read concurrently.
+ * <p>
+ * ZIP64 archives and archives spanning multiple disks are not supported, opening them fails with an IOException.
+ */
+public final class MappedJarFile implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<Entry> entries;
+
+    private MappedJarFile(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.entries = Collections.unmodifiableList(readCentralDirectory());
+    }
+
+    /**
+     * Maps the given JAR file into memory and reads its central directory.
+     * @param file Path to the JAR file
+     * @return The opened JAR file
+     * @throws IOException when the file cannot be mapped or is not a supported ZIP archive
+     */
+    public static MappedJarFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("JAR file too large to be mapped: " + file);
+            }
+            return new MappedJarFile(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets all entries of the JAR file, in the order of the central directory.
+     * @return List of entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Closes the underlying file channel. The mapping itself is released once it is garbage collected.
+     * @throws IOException when closing the channel fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        int end = findEndOfCentralDirectory();
+        if(buffer.getShort(end + 4) != 0 || buffer.getShort(end + 6) != 0) {
+            throw new IOException("Multi-disk ZIP archives are not supported");
+        }
+        int count = Short.toUnsignedInt(buffer.getShort(end + 10));
+        long directorySize = Integer.toUnsignedLong(buffer.getInt(end + 12));
+        long directoryOffset = Integer.toUnsignedLong(buffer.getInt(end + 16));
+        if(count == 0xFFFF || directoryOffset == 0xFFFFFFFFL || directoryOffset + directorySize > end) {
+            throw new IOException("ZIP64 or malformed ZIP archives are not supported");
+        }
+
+        List<Entry> result = new ArrayList<>(count);
+        int position = (int) directoryOffset;
+        for(int i = 0; i < count; i++) {
+            if(buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid central directory header at " + position);
+            }
+            int method = Short.toUnsignedInt(buffer.getShort(position + 10));
+            long compressedSize = Integer.toUnsignedLong(buffer.getInt(position + 20));
+            long size = Integer.toUnsignedLong(buffer.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(buffer.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(buffer.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(buffer.getShort(position + 32));
+            long localOffset = Integer.toUnsignedLong(buffer.getInt(position + 42));
+            if(compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL) {
+                throw new IOException("ZIP64 entries are not supported");
+            }
+
+            byte[] name = new byte[nameLength];
+            ByteBuffer nameBuffer = buffer.duplicate();
+            nameBuffer.position(position + CENTRAL_HEADER_SIZE);
+            nameBuffer.get(name);
+            result.add(new Entry(new String(name, StandardCharsets.UTF_8), method, (int) compressedSize, (int) size, (int) localOffset));
+
+            position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return result;
+    }
+
+    private int findEndOfCentralDirectory() throws IOException {
+        int limit = buffer.capacity();
+        int lowest = Math.max(0, limit - END_SIZE - MAX_COMMENT_SIZE);
+        for(int position = limit - END_SIZE; position >= lowest; position--) {
+            if(buffer.getInt(position) == END_SIGNATURE) {
+                return position;
+            }
+        }
+        throw new IOException("No ZIP end of central directory record found");
+    }
+
+    /**
+     * An entry of the JAR file.
+     */
+    public final class Entry {
+        private final String name;
+        private final int method;
+        private final int compressedSize;
+        private final int size;
+        private final int localOffset;
+
+        private Entry(String name, int method, int compressedSize, int size, int localOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localOffset = localOffset;
+        }
+
+        /**
+         * Gets the name of the entry, i.e. its path within the JAR file.
+         * @return The entry name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the uncompressed size of the entry.
+         * @return The size in bytes
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Reads and, if necessary, inflates the contents of the entry.
+         * @return The uncompressed contents
+         * @throws IOException when the entry is malformed or uses an unsupported compression method
+         */
+        public byte[] read() throws IOException {
+            if(buffer.getInt(localOffset) != LOCAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid local header for entry " + name);
+            }
+            // the local header may have a different extra field than the central directory
+            int nameLength = Short.toUnsignedInt(buffer.getShort(localOffset + 26));
+            int extraLength = Short.toUnsignedInt(buffer.getShort(localOffset + 28));
+            ByteBuffer data = buffer.duplicate();
+            data.position(localOffset + LOCAL_HEADER_SIZE + nameLength + extraLength);
+            data.limit(data.position() + compressedSize);
+
+            byte[] contents = new byte[size];
+            if(method == STORED) {
+                data.get(contents);
+            } else if(method == DEFLATED) {
+                Inflater inflater = new Inflater(true);
+                try {
+                    inflater.setInput(data);
+                    int read = 0;
+                    while(read < size && !inflater.finished()) {
+                        int inflated = inflater.inflate(contents, read, size - read);
+                        if(inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        read += inflated;
+                    }
+                    if(read != size) {
+                        throw new IOException("Unexpected size of entry " + name + ": " + read + " instead of " + size);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Invalid compressed data in entry " + name, e);
+                } finally {
+                    inflater.end();
+                }
+            } else {
+                throw new IOException("Unsupported compression method " + method + " of entry " + name);
+            }
+            return contents;
+        }
+    }
+}
@@ -3,12 +3,14 @@ package org.tudo.sse.utils;
 import org.tudo.sse.model.ArtifactIdent;
 import org.tudo.sse.resolution.FileNotFoundException;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * This class manages all the url building and http requests for retrieving artifacts from the maven central repository,
@@ -17,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 public final class MavenCentralRepository {
 
     private static final String RepoBasePath = "https://repo1.maven.org/maven2/";
+    private static final Path LocalRepoPath = Paths.get(System.getProperty("user.home"), ".m2", "repository");
 
     private static MavenCentralRepository theInstance = null;
 
@@ -55,27 +58,33 @@ public final class MavenCentralRepository {
      * @throws FileNotFoundException If the artifact does not exist / does not have a JAR file
      */
     public InputStream openJarFileInputStream(ArtifactIdent ident) throws IOException, FileNotFoundException {
-        //add thing here to check m2 cache for the jar that's being looked for
-        String m2Repo = System.getProperty("user.home") + File.separator + ".m2" + File.separator + "repository";
-
-        // Combine to get the full path
-        String fullPath;
-        try {
-            fullPath = m2Repo + File.separator + buildJarFileURI(ident);
-            // Create a File object
-            File artifactFile = new File(fullPath);
-            if(artifactFile.exists()) {
-                return new FileInputStream(artifactFile);
-            }
-
-        } catch (URISyntaxException e) {
-            throw new RuntimeException(e);
+        Path localJar = getLocalJarFile(ident);
+        if(localJar != null) {
+            return Files.newInputStream(localJar);
         }
 
         return ResourceConnections.openInputStream(ident.getMavenCentralJarUri());
 
     }
 
+    /**
+     * Looks up the JAR file of the given artifact in the local Maven cache (~/.m2/repository).
+     * @param ident Artifact identifier for which to look up the JAR file
+     * @return Path to the cached JAR file, or null if it is not in the local cache
+     */
+    public Path getLocalJarFile(ArtifactIdent ident) {
+        try {
+            Path artifactFile = LocalRepoPath
+                    .resolve(ident.getGroupID().replace('.', '/'))
+                    .resolve(ident.getArtifactID())
+                    .resolve(ident.getVersion())
+                    .resolve(ident.getArtifactID() + "-" + ident.getVersion() + ".jar");
+            return Files.isRegularFile(artifactFile) ? artifactFile : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
     /**
      * Returns the one instance of this Maven Central repository
      * @return The instance (singleton)
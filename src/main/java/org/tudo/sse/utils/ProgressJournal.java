@@ -0,0 +1,332 @@
+package org.tudo.sse.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tracks which items of a run (identified by their position in the index or coordinates file) have been completed by
+ * the workers, as opposed to how far the producer has walked. The watermark is the position from which a restarted run
+ * has to continue, everything before it has been completed. Failed items hold back the watermark, so a restarted run
+ * walks them again and retries them, while it skips the completed items between them.
+ * <p>
+ * If a file is given, every completed and failed item is appended to it as soon as it is recorded, together with a
+ * checkpoint of the watermark every {@value #CHECKPOINT_INTERVAL} records. Opening an existing journal restores its
+ * state, so a resumed run can skip completed items and retry failed ones, even if they were processed out of order by
+ * multiple threads. The journal is compacted on opening, on closing and every {@value #COMPACTION_INTERVAL} records, by
+ * atomically replacing the file with a checkpoint followed by the records above the watermark.
+ * <p>
+ * Journal lines have one of the following formats, lines that cannot be parsed (e.g. a partially written last line) are
+ * ignored:
+ * <ul>
+ *     <li>W position - all items before the position have been completed, except for failed ones</li>
+ *     <li>D position g:a:v - the item has been completed</li>
+ *     <li>F position g:a:v - processing the item failed</li>
+ * </ul>
+ */
+public class ProgressJournal implements Closeable {
+
+    private static final Logger log = LogManager.getLogger(ProgressJournal.class);
+
+    static final int CHECKPOINT_INTERVAL = 1000;
+    static final int COMPACTION_INTERVAL = 1000000;
+
+    private final Path file;
+    private FileChannel channel;
+
+    private final TreeMap<Long, ArtifactIdent> inFlight = new TreeMap<>();
+    private final Map<ArtifactIdent, ArrayDeque<Long>> positions = new HashMap<>();
+    private final TreeMap<Long, String> done = new TreeMap<>();
+    private final TreeMap<Long, String> failed = new TreeMap<>();
+    private long base;
+    private long last = -1;
+    private long completed;
+    private long recordsSinceCheckpoint;
+    private long recordsSinceCompaction;
+
+    /**
+     * Creates a journal that only tracks progress in memory.
+     */
+    public ProgressJournal() {
+        this.file = null;
+    }
+
+    private ProgressJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the journal at the given path, restoring its state if the file exists.
+     * @param file Path of the journal file
+     * @return The opened journal
+     * @throws IOException when the journal file cannot be read or written
+     */
+    public static ProgressJournal open(Path file) throws IOException {
+        ProgressJournal journal = new ProgressJournal(file);
+        if(Files.exists(file)) {
+            journal.load();
+        }
+        journal.compact();
+        return journal;
+    }
+
+    /**
+     * Registers an item that is about to be processed.
+     * @param position Position of the item in the index or coordinates file
+     * @param identifier Identifier of the item
+     * @return False if the item has already been completed in a previous run and must be skipped, true otherwise
+     */
+    public synchronized boolean begin(long position, ArtifactIdent identifier) {
+        last = Math.max(last, position);
+        if(isCompleted(position)) {
+            return false;
+        }
+        inFlight.put(position, identifier);
+        positions.computeIfAbsent(identifier, k -> new ArrayDeque<>()).add(position);
+        return true;
+    }
+
+    /**
+     * Records that the producer has walked all positions before the given one, including positions that do not hold an
+     * item, so the watermark can move past them once the items before them are done.
+     * @param position First position the producer has not walked yet
+     */
+    public synchronized void walkedTo(long position) {
+        last = Math.max(last, position - 1);
+    }
+
+    /**
+     * Records that the given item has been completed. Identifiers that have not been registered are ignored.
+     * @param identifier Identifier of the completed item
+     */
+    public synchronized void complete(ArtifactIdent identifier) {
+        Long position = finish(identifier);
+        if(position != null) {
+            failed.remove(position);
+            if(position >= base) {
+                done.put(position, identifier.getCoordinates());
+            }
+            completed++;
+            append("D " + position + " " + identifier.getCoordinates());
+        }
+    }
+
+    /**
+     * Records that processing the given item failed, so it is retried when resuming. Identifiers that have not been
+     * registered are ignored.
+     * @param identifier Identifier of the failed item
+     */
+    public synchronized void fail(ArtifactIdent identifier) {
+        Long position = finish(identifier);
+        if(position != null) {
+            failed.put(position, identifier.getCoordinates());
+            append("F " + position + " " + identifier.getCoordinates());
+        }
+    }
+
+    /**
+     * Checks whether the item at the given position has been completed.
+     * @param position Position of the item
+     * @return True if the item has been completed, false otherwise
+     */
+    public synchronized boolean isCompleted(long position) {
+        return !failed.containsKey(position) && (position < base || done.containsKey(position));
+    }
+
+    /**
+     * Gets the position from which a restarted run has to continue. All items before this position have been
+     * completed. It never passes a failed item, so the failed items are walked again and retried when resuming.
+     * @return The watermark position
+     */
+    public synchronized long getWatermark() {
+        long watermark = getFinished();
+        return failed.isEmpty() ? watermark : Math.min(watermark, failed.firstKey());
+    }
+
+    /**
+     * Gets the number of items completed since the journal was opened.
+     * @return The number of completed items
+     */
+    public synchronized long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of items whose processing failed and that have not been completed since.
+     * @return The number of failed items
+     */
+    public synchronized int getFailed() {
+        return failed.size();
+    }
+
+    /**
+     * Gets the number of items that have been registered, but have neither completed nor failed yet.
+     * @return The number of items in progress
+     */
+    public synchronized int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Rewrites the journal file so that it only contains the current watermark and the records above it.
+     * @throws IOException when the journal file cannot be written
+     */
+    public synchronized void compact() throws IOException {
+        if(file == null) {
+            return;
+        }
+        advanceBase();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        content.append("W ").append(base).append('\n');
+        for(Map.Entry<Long, String> entry : done.entrySet()) {
+            content.append("D ").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        for(Map.Entry<Long, String> entry : failed.entrySet()) {
+            content.append("F ").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        try(FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, content);
+            out.force(true);
+        }
+
+        if(channel != null) {
+            channel.close();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        recordsSinceCheckpoint = 0;
+        recordsSinceCompaction = 0;
+    }
+
+    /**
+     * Compacts and closes the journal file.
+     * @throws IOException when the journal file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(channel != null) {
+            compact();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private Long finish(ArtifactIdent identifier) {
+        ArrayDeque<Long> pending = positions.get(identifier);
+        if(pending == null) {
+            return null;
+        }
+        Long position = pending.poll();
+        if(pending.isEmpty()) {
+            positions.remove(identifier);
+        }
+        inFlight.remove(position);
+        return position;
+    }
+
+    /**
+     * Gets the number of completed items above the base that are tracked individually.
+     * @return The number of tracked completed items
+     */
+    synchronized int getTracked() {
+        return done.size();
+    }
+
+    /*
+     * Gets the position before which all items have either been completed or failed. Unlike the watermark, this is
+     * not held back by failed items, as those are tracked separately.
+     */
+    private long getFinished() {
+        long finished = inFlight.isEmpty() ? last + 1 : inFlight.firstKey();
+        return Math.max(base, finished);
+    }
+
+    private void advanceBase() {
+        long finished = getFinished();
+        if(finished > base) {
+            base = finished;
+            done.headMap(base).clear();
+        }
+    }
+
+    private void append(String record) {
+        // The base is advanced even if the journal is only kept in memory, so completed items do not pile up
+        boolean checkpoint = ++recordsSinceCheckpoint >= CHECKPOINT_INTERVAL;
+        if(checkpoint) {
+            advanceBase();
+            recordsSinceCheckpoint = 0;
+        }
+        if(channel == null) {
+            return;
+        }
+        try {
+            writeFully(channel, new StringBuilder(record).append('\n'));
+            if(++recordsSinceCompaction >= COMPACTION_INTERVAL) {
+                compact();
+            } else if(checkpoint) {
+                writeFully(channel, new StringBuilder("W ").append(base).append('\n'));
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write progress journal " + file, e);
+        }
+    }
+
+    private void load() throws IOException {
+        long records = 0;
+        try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                try {
+                    if(parts.length == 2 && parts[0].equals("W")) {
+                        base = Math.max(base, Long.parseLong(parts[1]));
+                    } else if(parts.length == 3 && parts[0].equals("D")) {
+                        long position = Long.parseLong(parts[1]);
+                        failed.remove(position);
+                        done.put(position, parts[2]);
+                    } else if(parts.length == 3 && parts[0].equals("F")) {
+                        long position = Long.parseLong(parts[1]);
+                        if(!done.containsKey(position)) {
+                            failed.put(position, parts[2]);
+                        }
+                    } else {
+                        log.warn("Ignoring malformed progress journal entry: " + line);
+                        continue;
+                    }
+                    records++;
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring malformed progress journal entry: " + line);
+                }
+            }
+        }
+        done.headMap(base).clear();
+        last = base - 1;
+        log.info("Restored progress journal " + file + " from " + records + " records: resuming at position " + getWatermark()
+                + ", " + done.size() + " items completed beyond it, " + failed.size() + " failed items to retry");
+    }
+
+    private static void writeFully(FileChannel target, CharSequence content) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(content.toString());
+        while(buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package org.tudo.sse.utils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.Semaphore;
 import org.tudo.sse.resolution.FileNotFoundException;
 
 /**
@@ -16,6 +18,18 @@ public final class ResourceConnections {
 
     private ResourceConnections() {}
 
+    private static volatile Semaphore requestLimit = null;
+
+    /**
+     * Limits the number of requests that may be in progress at the same time, across all threads. Requests exceeding
+     * the limit wait until another request has completed.
+     *
+     * @param maxRequests Maximum number of concurrent requests, or a value of zero or less for no limit
+     */
+    public static void setMaxConcurrentRequests(int maxRequests) {
+        requestLimit = maxRequests > 0 ? new Semaphore(maxRequests) : null;
+    }
+
     /**
      * This method attempts to open a connection to a given url, handling fileNotFound and redirect response codes.
      *
@@ -56,6 +70,16 @@ public final class ResourceConnections {
      * @throws IOException when there is an issue opening a file
      * @throws FileNotFoundException handles errors that occur when the file to process isn't found*/
     public static InputStream openInputStream(final URI toOpen) throws IOException, FileNotFoundException {
+        Semaphore limit = requestLimit;
+        if(limit != null) {
+            try {
+                limit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to request " + toOpen);
+            }
+        }
+
         try {
             HttpURLConnection con = openConnection(toOpen);
             InputStream conStream = con.getInputStream();
@@ -65,6 +89,10 @@ public final class ResourceConnections {
             return new ByteArrayInputStream(allBytes);
         } catch (NullPointerException e) {
             return null;
+        } finally {
+            if(limit != null) {
+                limit.release();
+            }
         }
     }
 }
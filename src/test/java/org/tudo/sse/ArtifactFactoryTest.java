@@ -0,0 +1,57 @@
+package org.tudo.sse;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.index.IndexInformation;
+import org.tudo.sse.model.index.Package;
+import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.model.pom.PomInformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactFactoryTest {
+
+    @Test
+    void concurrentCreateArtifact() throws Exception {
+        int numArtifacts = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for(int kind = 0; kind < 3; kind++) {
+            final int current = kind;
+            futures.add(pool.submit(() -> {
+                for(int i = 0; i < numArtifacts; i++) {
+                    ArtifactIdent ident = new ArtifactIdent("org.concurrent", "a" + i, "1.0");
+                    if(current == 0) {
+                        ArtifactFactory.createArtifact(new IndexInformation(ident, new Package("jar", 0, 0, 0, 0, 0, null)));
+                    } else if(current == 1) {
+                        ArtifactFactory.createArtifact(new PomInformation(ident));
+                    } else {
+                        ArtifactFactory.createArtifact(new JarInformation(ident));
+                    }
+                }
+            }));
+        }
+
+        for(Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        for(int i = 0; i < numArtifacts; i++) {
+            Artifact artifact = ArtifactFactory.getArtifact(new ArtifactIdent("org.concurrent", "a" + i, "1.0"));
+            assertNotNull(artifact);
+            assertTrue(artifact.hasIndexInformation());
+            assertTrue(artifact.hasPomInformation());
+            assertTrue(artifact.hasJarInformation());
+        }
+        assertNull(ArtifactFactory.getArtifact(null));
+    }
+}
@@ -3,11 +3,19 @@ package org.tudo.sse;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.tudo.sse.model.Artifact;
 import org.tudo.sse.model.ArtifactIdent;
 import org.tudo.sse.model.index.Package;
+import org.tudo.sse.model.jar.JarInformation;
 import org.tudo.sse.model.pom.License;
 import org.tudo.sse.model.pom.PomInformation;
+import org.tudo.sse.resolution.PomResolutionProfile;
+import org.tudo.sse.resolution.ProfileActivationContext;
+import org.tudo.sse.resolution.releases.IndexReleaseListProvider;
+import org.tudo.sse.resolution.releases.ReleaseListCache;
+import org.tudo.sse.storage.SpillingArtifactStore;
+import org.tudo.sse.storage.UnboundedArtifactStore;
 import org.tudo.sse.testutils.DummyEvaluationAnalysis;
 import org.tudo.sse.utils.IndexIterator;
 import scala.Tuple2;
@@ -94,6 +102,28 @@ class MavenCentralAnalysisTest {
 
     }
 
+    @Test
+    void parsePomProfile() {
+        assertNull(tester.getSetupInfo().getPomResolutionProfile());
+        tester.parseCmdLine(new String[]{"--pom-profile", "parent_chain"});
+        assertEquals(PomResolutionProfile.PARENT_CHAIN, tester.getSetupInfo().getPomResolutionProfile());
+    }
+
+    @Test
+    void parseReleaseTtl() {
+        assertEquals(ReleaseListCache.DEFAULT_TTL_MILLIS, tester.getSetupInfo().getReleaseTtlMillis());
+        tester.parseCmdLine(new String[]{"--release-ttl", "-1"});
+        assertEquals(-1, tester.getSetupInfo().getReleaseTtlMillis());
+    }
+
+    @Test
+    void parseActivation() {
+        tester.parseCmdLine(new String[]{"--activation", "17:fast,legacy"});
+        assertEquals(new ProfileActivationContext("17", Map.of(), Set.of("fast", "legacy")), tester.getSetupInfo().getActivationContext());
+        tester.parseCmdLine(new String[]{"--activation", "1.8"});
+        assertEquals(new ProfileActivationContext("1.8"), tester.getSetupInfo().getActivationContext());
+    }
+
     @Test
     void parseCmdLineNegative() {
         List<String[]> cliInputs = new ArrayList<>();
@@ -111,6 +141,12 @@ class MavenCentralAnalysisTest {
         cliInputs.add(args);
         args = new String[]{"--coordinates"};
         cliInputs.add(args);
+        args = new String[]{"--pom-profile", "licenses"};
+        cliInputs.add(args);
+        args = new String[]{"--store", "spill:0"};
+        cliInputs.add(args);
+        args = new String[]{"--release-ttl", "1h"};
+        cliInputs.add(args);
 
         for(String[] input : cliInputs) {
             assertThrows(RuntimeException.class, () -> tester.parseCmdLine(input));
@@ -241,6 +277,78 @@ class MavenCentralAnalysisTest {
         }
     }
 
+    @Test
+    void unavailableArtifactsDoNotHoldBackProgress(@TempDir Path dir) throws URISyntaxException, IOException {
+        ArtifactIdent missing = new ArtifactIdent("junit", "junit", "4.13.2");
+        List<ArtifactIdent> analyzed = new ArrayList<>();
+        MavenCentralAnalysis tester = new MavenCentralAnalysis() {
+            @Override
+            public void analyzeArtifact(Artifact current) {
+                analyzed.add(current.getIdent());
+            }
+
+            @Override
+            public Artifact callResolver(ArtifactIdent identifier) {
+                //behaves like the JAR resolver for an artifact without a JAR file
+                return identifier.equals(missing) ? null : new Artifact(new JarInformation(identifier));
+            }
+        };
+        tester.resolveJar = true;
+
+        Path name = dir.resolve("stop.txt");
+        tester.runAnalysis(new String[]{"--coordinates", "src/main/resources/coordinates.txt", "--name", name.toString()});
+
+        assertEquals(9, analyzed.size());
+        assertFalse(analyzed.contains(missing));
+        assertEquals(9, getEndingIndex(name));
+    }
+
+    @Test
+    void writeReleaseSnapshot(@TempDir Path dir) throws URISyntaxException, IOException {
+        MavenCentralAnalysis tester = new MavenCentralAnalysis() {
+            @Override
+            public void analyzeArtifact(Artifact current) {}
+        };
+
+        Path snapshot = dir.resolve("releases.txt");
+        tester.runAnalysis(new String[]{"--coordinates", "src/main/resources/coordinates.txt", "--name", dir.resolve("stop.txt").toString(), "--write-releases", snapshot.toString()});
+
+        IndexReleaseListProvider releases = IndexReleaseListProvider.fromSnapshot(snapshot, null);
+        for(String line : Files.readAllLines(Path.of("src/main/resources/coordinates.txt"))) {
+            String[] parts = line.split(":");
+            assertTrue(releases.getReleases(new ArtifactIdent(parts[0], parts[1], null)).contains(parts[2]));
+        }
+    }
+
+    @Test
+    void spillFileIsClosedByTheNextRun(@TempDir Path dir) throws URISyntaxException, IOException {
+        MavenCentralAnalysis tester = new MavenCentralAnalysis() {
+            @Override
+            public void analyzeArtifact(Artifact current) {}
+
+            @Override
+            public Artifact callResolver(ArtifactIdent identifier) {
+                return ArtifactFactory.createArtifact(new JarInformation(identifier));
+            }
+        };
+        tester.resolveJar = true;
+        String[] args = {"--coordinates", "src/main/resources/coordinates.txt", "--name", dir.resolve("stop.txt").toString(), "--store", "spill:2"};
+
+        tester.parseCmdLine(args);
+        assertFalse(ArtifactFactory.getStore() instanceof SpillingArtifactStore);
+
+        Map<ArtifactIdent, Artifact> artifacts = tester.runAnalysis(args);
+        assertEquals(10, artifacts.size());
+        SpillingArtifactStore store = (SpillingArtifactStore) ArtifactFactory.getStore();
+        assertTrue(Files.exists(store.getFile()));
+
+        // The next run spills to a new temporary file and deletes the previous one
+        tester.runAnalysis(args);
+        assertNotSame(store, ArtifactFactory.getStore());
+        assertFalse(Files.exists(store.getFile()));
+        ArtifactFactory.setStore(new UnboundedArtifactStore());
+    }
+
     @Test
     void checkMultiThreading() {
         List<String[]> singleArgs = new ArrayList<>();
@@ -10,6 +10,7 @@ import org.tudo.sse.resolution.PomResolver;
 import org.tudo.sse.resolution.releases.IReleaseListProvider;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -81,6 +82,10 @@ class LocalPomInformationTest {
         assertThrows(RuntimeException.class, () -> new LocalPomInformation("src/test/resources/brokenlocalPom.xml", resolver));
         assertThrows(RuntimeException.class, () -> new LocalPomInformation(new File("src/test/resources/brokenlocalPom.xml"), resolver));
         assertThrows(RuntimeException.class, () -> new LocalPomInformation(new FileInputStream("src/test/resources/brokenlocalPom.xml"), resolver));
+
+        // Local files are parsed strictly, so unknown elements are rejected
+        String unknownElement = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version><unknown/></project>";
+        assertThrows(RuntimeException.class, () -> new LocalPomInformation(new ByteArrayInputStream(unknownElement.getBytes(StandardCharsets.UTF_8)), resolver));
     }
 
     void testFeatureExtraction(List<LocalPomInformation> tests) {
@@ -6,18 +6,25 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Test;
 import org.tudo.sse.ArtifactFactory;
+import org.tudo.sse.model.jar.ClassFile;
 import org.tudo.sse.model.jar.ClassFileNode;
 import org.tudo.sse.model.jar.DefinedClassFileNode;
+import org.tudo.sse.model.jar.PackageIndex;
+import org.tudo.sse.model.jar.TypeIndex;
 import org.tudo.sse.resolution.*;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.tudo.sse.model.jar.TypeFixtures.*;
 
 
 class TypeStructureTest {
@@ -68,6 +75,104 @@ class TypeStructureTest {
 
     }
 
+    @Test
+    void parallelDependencyResolutionMatchesSequential() {
+        ArtifactIdent ident = new ArtifactIdent("org.springframework", "spring-web", "6.1.11");
+        Artifact artifact;
+        try {
+            artifact = resolver.parseJar(ident);
+            pomResolver.resolveArtifact(ident);
+        } catch (JarResolutionException | PomResolutionException | FileNotFoundException | IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        Map<String, ClassFileNode> sequential = artifact.buildTypeStructure(resolver, 1);
+        Map<String, ClassFileNode> parallel = artifact.buildTypeStructure(resolver, 8);
+
+        assertEquals(sequential.keySet(), parallel.keySet());
+        for(Map.Entry<String, ClassFileNode> root : sequential.entrySet()) {
+            assertEquals(childNames(root.getValue()), childNames(parallel.get(root.getKey())));
+        }
+    }
+
+    @Test
+    void lazyDependencyResolutionMatchesEager() {
+        ArtifactIdent ident = new ArtifactIdent("org.springframework", "spring-web", "6.1.11");
+        Artifact artifact;
+        try {
+            artifact = resolver.parseJar(ident);
+            pomResolver.resolveArtifact(ident);
+        } catch (JarResolutionException | PomResolutionException | FileNotFoundException | IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        Map<String, ClassFileNode> eager = artifact.buildTypeStructure(resolver, 8);
+        PackageIndex packageIndex = new PackageIndex();
+        Map<String, ClassFileNode> unknown = artifact.buildTypeStructure(resolver, 8, packageIndex);
+        assertTrue(packageIndex.size() > 0);
+        Map<String, ClassFileNode> known = artifact.buildTypeStructure(resolver, 8, packageIndex);
+
+        for(Map<String, ClassFileNode> lazy : List.of(unknown, known)) {
+            assertEquals(eager.keySet(), lazy.keySet());
+            for(Map.Entry<String, ClassFileNode> root : eager.entrySet()) {
+                assertEquals(childNames(root.getValue()), childNames(lazy.get(root.getKey())));
+            }
+        }
+    }
+
+    @Test
+    void typesAreResolvedOnce() {
+        // every interface extends both interfaces of the previous level, which takes 2^depth steps if types are
+        // resolved again each time they are reached
+        int depth = 40;
+        List<ClassFile> classFiles = new ArrayList<>();
+        classFiles.add(classFile("deep/I0", "java/lang/Object"));
+        classFiles.add(classFile("deep/J0", "java/lang/Object"));
+        for(int i = 1; i <= depth; i++) {
+            classFiles.add(classFile("deep/I" + i, "java/lang/Object", "deep/I" + (i - 1), "deep/J" + (i - 1)));
+            classFiles.add(classFile("deep/J" + i, "java/lang/Object", "deep/I" + (i - 1), "deep/J" + (i - 1)));
+        }
+        classFiles.add(classFile("deep/A", "java/lang/Object", "deep/I" + depth));
+        classFiles.add(classFile("deep/B", "deep/A"));
+        classFiles.add(classFile("deep/C", "deep/A", "deep/I" + depth, "ext/Unknown"));
+        classFiles.add(classFile("deep/D", "deep/B", "ext/Unknown"));
+        Artifact artifact = artifact("deep", classFiles.toArray(new ClassFile[0]));
+
+        Map<String, ClassFileNode> roots = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> artifact.buildTypeStructure(new TypeIndex()));
+
+        // each type is a single child of java/lang/Object, even if it is also reached as supertype of another type
+        ClassFileNode object = roots.get("java/lang/Object");
+        assertEquals(2 * (depth + 1) + 1, object.getChildren().size());
+        Map<String, ClassFileNode> nodes = new HashMap<>();
+        for(ClassFileNode child : object.getChildren()) {
+            assertNull(nodes.put(child.getThisType().getFqn(), child));
+        }
+
+        ClassFileNode i0 = nodes.get("deep/I0");
+        assertEquals(2, i0.getChildren().size());
+        assertSame(((DefinedClassFileNode) nodes.get("deep/I1")).getInterfaceNodes().get(0), i0);
+        assertSame(((DefinedClassFileNode) nodes.get("deep/J1")).getInterfaceNodes().get(0), i0);
+
+        ClassFileNode a = nodes.get("deep/A");
+        assertEquals(2, a.getChildren().size());
+        ClassFileNode b = a.getChildren().get(0).getThisType().getFqn().equals("deep/B") ? a.getChildren().get(0) : a.getChildren().get(1);
+        assertEquals(1, b.getChildren().size());
+        assertEquals("deep/D", b.getChildren().get(0).getThisType().getFqn());
+
+        ClassFileNode unknown = ((DefinedClassFileNode) b.getChildren().get(0)).getInterfaceNodes().get(0);
+        assertEquals(2, unknown.getChildren().size());
+        assertFalse(roots.containsKey("ext/Unknown"));
+    }
+
+    List<String> childNames(ClassFileNode node) {
+        List<String> names = new ArrayList<>();
+        for(ClassFileNode child : node.getChildren()) {
+            names.add(child.getThisType().getFqn());
+        }
+        return names;
+    }
+
     ClassFileNode findNode(ClassFileNode root, String toFind) {
 
         for(ClassFileNode cur : root.getChildren()) {
@@ -0,0 +1,80 @@
+package org.tudo.sse.model.jar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackageIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static JarInformation jar(ArtifactIdent ident, String... fqns) {
+        Map<String, List<ClassFile>> packages = new HashMap<>();
+        for(String fqn : fqns) {
+            String packageName = fqn.contains("/") ? fqn.substring(0, fqn.lastIndexOf('/')) : "";
+            packages.computeIfAbsent(packageName, k -> new ArrayList<>())
+                    .add(new ClassFile(33, new ObjType(fqn.hashCode(), fqn, packageName), 55, null, List.of()));
+        }
+        JarInformation jar = new JarInformation(ident);
+        jar.setPackages(packages);
+        return jar;
+    }
+
+    @Test
+    void recordsPackagesOfJars() {
+        ArtifactIdent first = new ArtifactIdent("org.index", "first", "1.0");
+        ArtifactIdent second = new ArtifactIdent("org.index", "second", "1.0");
+        ArtifactIdent empty = new ArtifactIdent("org.index", "empty", "1.0");
+
+        PackageIndex index = new PackageIndex();
+        index.add(first, jar(first, "org/a/A", "org/b/B", "Default"));
+        index.add(second, jar(second, "org/b/C"));
+        index.add(empty, null);
+
+        assertEquals(3, index.size());
+        assertTrue(index.contains(empty));
+        assertFalse(index.contains(new ArtifactIdent("org.index", "first", "2.0")));
+        assertTrue(index.provides(first, "org/a"));
+        assertTrue(index.provides(first, "org/b"));
+        assertTrue(index.provides(second, "org/b"));
+        assertFalse(index.provides(second, "org/a"));
+        assertFalse(index.provides(first, ""));
+
+        index.add(first, jar(first, "org/c/C"));
+        assertFalse(index.provides(first, "org/a"));
+        assertTrue(index.provides(first, "org/c"));
+        assertTrue(index.provides(second, "org/b"));
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        ArtifactIdent first = new ArtifactIdent("org.index", "first", "1.0");
+        ArtifactIdent empty = new ArtifactIdent("org.index", "empty", "1.0");
+        PackageIndex index = new PackageIndex();
+        index.add(first, jar(first, "org/a/A", "org/b/B"));
+        index.add(empty, null);
+
+        Path file = tempDir.resolve("packages");
+        index.write(file);
+        Files.writeString(file, "malformed org/a\n", StandardOpenOption.APPEND);
+        PackageIndex read = PackageIndex.read(file);
+
+        assertEquals(2, read.size());
+        assertTrue(read.provides(first, "org/a"));
+        assertTrue(read.provides(first, "org/b"));
+        assertTrue(read.contains(empty));
+        assertFalse(read.provides(empty, "org/a"));
+    }
+}
@@ -0,0 +1,40 @@
+package org.tudo.sse.model.jar;
+
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds class files and JAR artifacts from fully qualified type names for tests of the type index and type
+ * structures.
+ */
+public final class TypeFixtures {
+
+    private TypeFixtures() {}
+
+    public static ObjType type(String fqn) {
+        return new ObjType(fqn.hashCode(), fqn, fqn.substring(0, fqn.lastIndexOf('/')));
+    }
+
+    public static ClassFile classFile(String fqn, String superType, String... interfaces) {
+        List<ObjType> interfaceTypes = new ArrayList<>();
+        for(String itfe : interfaces) {
+            interfaceTypes.add(type(itfe));
+        }
+        return new ClassFile(33, type(fqn), 55, superType == null ? null : type(superType), interfaceTypes);
+    }
+
+    public static Artifact artifact(String name, ClassFile... classFiles) {
+        Map<String, List<ClassFile>> packages = new HashMap<>();
+        for(ClassFile classFile : classFiles) {
+            packages.computeIfAbsent(classFile.getThistype().getPackageName(), k -> new ArrayList<>()).add(classFile);
+        }
+        JarInformation jar = new JarInformation(new ArtifactIdent("org.types", name, "1.0"));
+        jar.setPackages(packages);
+        return new Artifact(jar);
+    }
+}
@@ -0,0 +1,60 @@
+package org.tudo.sse.model.jar;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.Artifact;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.tudo.sse.model.jar.TypeFixtures.*;
+
+class TypeIndexTest {
+
+    @Test
+    void firstArtifactTakesPrecedence() {
+        Artifact first = artifact("first", classFile("dup/A", "java/lang/Object"), classFile("one/B", "java/lang/Object"));
+        Artifact second = artifact("second", classFile("dup/A", "java/lang/Object"), classFile("two/C", "java/lang/Object"));
+
+        TypeIndex index = new TypeIndex();
+        index.add(first);
+        index.add(second);
+        index.add(first);
+
+        assertEquals(3, index.size());
+        assertSame(first, index.get("dup/A").getArtifact());
+        assertSame(first, index.get("one/B").getArtifact());
+        assertSame(second, index.get("two/C").getArtifact());
+        assertEquals("two/C", index.get("two/C").getClassFile().getThistype().getFqn());
+        assertNull(index.get("java/lang/Object"));
+        assertTrue(index.contains(second));
+    }
+
+    @Test
+    void buildTypeStructureWithSharedIndex() {
+        Artifact dependency = artifact("dep", classFile("dep/Base", "java/lang/Object", "dep/Marker"),
+                classFile("dep/Marker", "java/lang/Object"));
+        Artifact app = artifact("app", classFile("app/Impl", "dep/Base", "dep/Marker", "ext/Unknown"),
+                classFile("app/Sub", "app/Impl"));
+
+        TypeIndex dependencies = new TypeIndex();
+        dependencies.add(dependency);
+        Map<String, ClassFileNode> roots = app.buildTypeStructure(dependencies);
+
+        ClassFileNode object = roots.get("java/lang/Object");
+        DefinedClassFileNode base = null;
+        for(ClassFileNode child : object.getChildren()) {
+            if(child.getThisType().getFqn().equals("dep/Base")) {
+                base = (DefinedClassFileNode) child;
+            }
+        }
+        assertNotNull(base);
+        assertEquals("dep/Marker", base.getInterfaceNodes().get(0).getThisType().getFqn());
+        assertEquals("app/Impl", base.getChildren().get(0).getThisType().getFqn());
+
+        DefinedClassFileNode impl = (DefinedClassFileNode) base.getChildren().get(0);
+        assertEquals(2, impl.getInterfaceNodes().size());
+        assertEquals("dep/Marker", impl.getInterfaceNodes().get(0).getThisType().getFqn());
+        assertTrue(impl.getInterfaceNodes().get(1) instanceof VirtualClassFileNode);
+        assertEquals("ext/Unknown", impl.getInterfaceNodes().get(1).getThisType().getFqn());
+    }
+}
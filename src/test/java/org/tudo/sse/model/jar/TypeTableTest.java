@@ -0,0 +1,86 @@
+package org.tudo.sse.model.jar;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeTableTest {
+
+    private static ObjType type(long id, String fqn) {
+        return new ObjType(id, fqn, fqn.substring(0, fqn.lastIndexOf('/')));
+    }
+
+    @Test
+    void classFilesShareOneTable() {
+        Map<String, List<ClassFile>> packages = new HashMap<>();
+        List<ClassFile> classes = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            classes.add(new ClassFile(33, type(100 + i, "org/table/C" + i), 55, type(1, "java/lang/Object"),
+                    List.of(type(2, "java/io/Serializable"), type(3, "java/lang/Comparable"))));
+        }
+        packages.put("org/table", classes);
+        packages.put("org/table/sub", List.of(new ClassFile(1537, type(200, "org/table/sub/I"), 52, type(1, "java/lang/Object"), List.of())));
+
+        JarInformation jar = new JarInformation(new ArtifactIdent("org.table", "t", "1.0"));
+        jar.setPackages(packages);
+
+        TypeTable table = jar.getPackages().get("org/table").get(0).getTypeTable();
+        // ten classes, the interface, Object, Serializable and Comparable
+        assertEquals(14, table.size());
+        for(List<ClassFile> compacted : jar.getPackages().values()) {
+            for(ClassFile classFile : compacted) {
+                assertSame(table, classFile.getTypeTable());
+            }
+        }
+
+        List<ClassFile> compacted = jar.getPackages().get("org/table");
+        assertEquals(10, compacted.size());
+        for(int i = 0; i < 10; i++) {
+            ClassFile classFile = compacted.get(i);
+            assertEquals("org/table/C" + i, classFile.getThistype().getFqn());
+            assertEquals(100 + i, classFile.getThistype().getId());
+            assertEquals("org/table", classFile.getThistype().getPackageName());
+            assertEquals(33, classFile.getAccessFlags());
+            assertEquals(55, classFile.getVersion());
+            assertEquals("java/lang/Object", classFile.getSuperType().getFqn());
+            assertEquals(List.of("java/io/Serializable", "java/lang/Comparable"),
+                    List.of(classFile.getInterfaceTypes().get(0).getFqn(), classFile.getInterfaceTypes().get(1).getFqn()));
+            assertEquals(compacted.get(0).getSuperTypeIndex(), classFile.getSuperTypeIndex());
+        }
+        assertTrue(jar.getPackages().get("org/table/sub").get(0).getInterfaceTypes().isEmpty());
+
+        // Types are created on access, but compare equal
+        assertEquals(compacted.get(0).getSuperType(), compacted.get(1).getSuperType());
+        assertEquals(compacted.get(0).getSuperType().hashCode(), compacted.get(1).getSuperType().hashCode());
+        assertNotEquals(compacted.get(0).getThistype(), compacted.get(1).getThistype());
+        assertThrows(UnsupportedOperationException.class, () -> compacted.get(0).getInterfaceTypes().add(type(4, "java/lang/Runnable")));
+
+        // Package lists stay modifiable
+        compacted.add(new ClassFile(33, type(300, "org/table/Added"), 55, type(1, "java/lang/Object"), null));
+        assertEquals(11, jar.getPackages().get("org/table").size());
+    }
+
+    @Test
+    void missingTypesAreKept() {
+        Map<String, List<ClassFile>> packages = new HashMap<>();
+        packages.put("java/lang", List.of(new ClassFile(33, type(1, "java/lang/Object"), 45, null, null)));
+        packages.put("empty", null);
+
+        JarInformation jar = new JarInformation(new ArtifactIdent("org.table", "t", "1.0"));
+        jar.setPackages(packages);
+
+        ClassFile object = jar.getPackages().get("java/lang").get(0);
+        assertNull(object.getSuperType());
+        assertEquals(-1, object.getSuperTypeIndex());
+        assertNull(object.getInterfaceTypes());
+        assertTrue(jar.getPackages().containsKey("empty"));
+        assertNull(jar.getPackages().get("empty"));
+        assertThrows(IndexOutOfBoundsException.class, () -> object.getTypeTable().get(1));
+    }
+}
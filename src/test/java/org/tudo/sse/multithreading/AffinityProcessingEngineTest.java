@@ -0,0 +1,82 @@
+package org.tudo.sse.multithreading;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AffinityProcessingEngineTest {
+
+    @Test
+    void processesAllIdentifiersOnTheThreadOfTheirGA() throws InterruptedException {
+        Map<String, String> threadByGA = new ConcurrentHashMap<>();
+        Set<String> misplaced = ConcurrentHashMap.newKeySet();
+        Set<ArtifactIdent> processed = ConcurrentHashMap.newKeySet();
+        Consumer<ArtifactIdent> processor = ProcessingWorkload.processor(processed);
+        AffinityProcessingEngine engine = new AffinityProcessingEngine(4, 8, SchedulingAffinity.GA::keyOf, ident -> {
+            String thread = threadByGA.putIfAbsent(ident.getGA(), Thread.currentThread().getName());
+            if(thread != null && !thread.equals(Thread.currentThread().getName())) {
+                misplaced.add(ident.getCoordinates());
+            }
+            processor.accept(ident);
+        });
+        ProcessingWorkload.submit(engine);
+
+        assertEquals(ProcessingWorkload.SIZE - 1, processed.size());
+        assertEquals(ProcessingWorkload.SIZE - 1, engine.getProcessed());
+        assertEquals(1, engine.getFailed());
+        assertEquals(10, threadByGA.size());
+        assertTrue(misplaced.isEmpty(), () -> "Processed on another thread than their GA: " + misplaced);
+    }
+
+    @Test
+    void processesVersionsOfGAConsecutively() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<ArtifactIdent> processed = Collections.synchronizedList(new ArrayList<>());
+        AffinityProcessingEngine engine = new AffinityProcessingEngine(1, 100, SchedulingAffinity.GA::keyOf, ident -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.add(ident);
+        });
+
+        engine.submit(new ArtifactIdent("org.engine", "first", "1.0"));
+        for(int v = 0; v < 5; v++) {
+            for(int a = 0; a < 4; a++) {
+                engine.submit(new ArtifactIdent("org.engine", "a" + a, String.valueOf(v)));
+            }
+        }
+        blocked.countDown();
+        engine.awaitCompletion();
+
+        assertEquals(21, processed.size());
+        assertEquals(5, engine.getKeySwitches());
+        for(int a = 0; a < 4; a++) {
+            for(int v = 0; v < 5; v++) {
+                ArtifactIdent ident = processed.get(1 + a * 5 + v);
+                assertEquals("a" + a, ident.getArtifactID());
+                assertEquals(String.valueOf(v), ident.getVersion());
+            }
+        }
+    }
+
+    @Test
+    void groupAffinityKeysByGroupId() {
+        ArtifactIdent first = new ArtifactIdent("org.engine", "a0", "1.0");
+        ArtifactIdent second = new ArtifactIdent("org.engine", "a1", "1.0");
+
+        assertEquals(SchedulingAffinity.GROUP.keyOf(first), SchedulingAffinity.GROUP.keyOf(second));
+        assertNotEquals(SchedulingAffinity.GA.keyOf(first), SchedulingAffinity.GA.keyOf(second));
+    }
+}
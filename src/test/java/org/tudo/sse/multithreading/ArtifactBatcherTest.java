@@ -0,0 +1,145 @@
+package org.tudo.sse.multithreading;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.pom.PomInformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactBatcherTest {
+
+    private static Artifact artifact(int i) {
+        return new Artifact(new PomInformation(new ArtifactIdent("org.batch", "a" + i, "1.0")));
+    }
+
+    @Test
+    void flushesFullBatchesAndRemainder() {
+        List<List<Artifact>> batches = new ArrayList<>();
+        try(ArtifactBatcher batcher = new ArtifactBatcher(10, 0, batches::add)) {
+            for(int i = 0; i < 25; i++) {
+                batcher.add(artifact(i));
+            }
+            assertEquals(2, batches.size());
+        }
+
+        assertEquals(3, batches.size());
+        assertEquals(10, batches.get(0).size());
+        assertEquals(5, batches.get(2).size());
+        assertEquals("a24", batches.get(2).get(4).getIdent().getArtifactID());
+    }
+
+    @Test
+    void flushesAfterInterval() throws InterruptedException {
+        List<List<Artifact>> batches = Collections.synchronizedList(new ArrayList<>());
+        try(ArtifactBatcher batcher = new ArtifactBatcher(100, 50, batches::add)) {
+            batcher.add(artifact(0));
+            for(int i = 0; i < 100 && batches.isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, batches.size());
+        }
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void deliversBatchesOneAtATime() throws Exception {
+        AtomicInteger inConsumer = new AtomicInteger();
+        AtomicInteger maxInConsumer = new AtomicInteger();
+        AtomicInteger total = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try(ArtifactBatcher batcher = new ArtifactBatcher(7, 5, batch -> {
+            maxInConsumer.accumulateAndGet(inConsumer.incrementAndGet(), Math::max);
+            total.addAndGet(batch.size());
+            inConsumer.decrementAndGet();
+        })) {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < 8; t++) {
+                final int offset = t * 1000;
+                futures.add(pool.submit(() -> {
+                    for(int i = 0; i < 1000; i++) {
+                        batcher.add(artifact(offset + i));
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8000, total.get());
+        assertEquals(1, maxInConsumer.get());
+    }
+
+    @Test
+    void consumerExceptionsDoNotReachAddingThreads() {
+        List<List<Artifact>> batches = new ArrayList<>();
+        try(ArtifactBatcher batcher = new ArtifactBatcher(2, 0, batch -> {
+            if(batches.isEmpty()) {
+                batches.add(null);
+                throw new IllegalStateException("analysis failed");
+            }
+            batches.add(batch);
+        })) {
+            for(int i = 0; i < 5; i++) {
+                batcher.add(artifact(i));
+            }
+        }
+
+        // The failing batch is not retried, the following ones are still passed on
+        assertEquals(3, batches.size());
+        assertEquals("a2", batches.get(1).get(0).getIdent().getArtifactID());
+        assertEquals("a4", batches.get(2).get(0).getIdent().getArtifactID());
+    }
+
+    @Test
+    void addDoesNotWaitForConsumer() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<List<Artifact>> batches = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try(ArtifactBatcher batcher = new ArtifactBatcher(2, 0, batch -> {
+            entered.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(batch);
+        })) {
+            // The first full batch blocks its thread in the consumer
+            Future<?> blocked = pool.submit(() -> {
+                batcher.add(artifact(0));
+                batcher.add(artifact(1));
+            });
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            // Filling further batches returns, they are passed on by the thread that is already in the consumer
+            for(int i = 2; i < 6; i++) {
+                batcher.add(artifact(i));
+            }
+            assertFalse(blocked.isDone());
+
+            proceed.countDown();
+            blocked.get(10, TimeUnit.SECONDS);
+            assertEquals(3, batches.size());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals("a0", batches.get(0).get(0).getIdent().getArtifactID());
+        assertEquals("a2", batches.get(1).get(0).getIdent().getArtifactID());
+        assertEquals("a4", batches.get(2).get(0).getIdent().getArtifactID());
+    }
+}
@@ -0,0 +1,85 @@
+package org.tudo.sse.multithreading;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorProcessingEngineTest {
+
+    @Test
+    void processesAllIdentifiers() throws InterruptedException {
+        Set<ArtifactIdent> processed = ConcurrentHashMap.newKeySet();
+        ExecutorProcessingEngine engine = new ExecutorProcessingEngine(4, 8, ProcessingWorkload.processor(processed));
+        ProcessingWorkload.submit(engine);
+
+        assertEquals(ProcessingWorkload.SIZE - 1, processed.size());
+        assertFalse(processed.contains(ProcessingWorkload.FAILING));
+        assertEquals(ProcessingWorkload.SIZE - 1, engine.getProcessed());
+        assertEquals(1, engine.getFailed());
+        assertEquals(0, engine.getPending());
+    }
+
+    @Test
+    void blocksProducerWhenFull() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        ExecutorProcessingEngine engine = new ExecutorProcessingEngine(2, 2, ident -> {
+            started.incrementAndGet();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        engine.submit(new ArtifactIdent("org.engine", "a0", "1.0"));
+        engine.submit(new ArtifactIdent("org.engine", "a1", "1.0"));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            engine.submit(new ArtifactIdent("org.engine", "a2", "1.0"));
+            submitted.countDown();
+        });
+        producer.start();
+
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, engine.getPending());
+
+        blocked.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        engine.awaitCompletion();
+        assertEquals(3, started.get());
+    }
+
+    @Test
+    void virtualThreadsKeepManyInProgress() throws InterruptedException {
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+        ExecutorProcessingEngine engine = ExecutorProcessingEngine.withVirtualThreads(100, ident -> {
+            maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inProgress.decrementAndGet();
+            }
+        });
+
+        for(int i = 0; i < 1000; i++) {
+            engine.submit(new ArtifactIdent("org.engine", "a" + i, "1.0"));
+        }
+        engine.awaitCompletion();
+
+        assertEquals(1000, engine.getProcessed());
+        assertTrue(maxInProgress.get() > 10);
+        assertTrue(maxInProgress.get() <= 100);
+    }
+}
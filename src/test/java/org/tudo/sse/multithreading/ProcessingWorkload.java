@@ -0,0 +1,42 @@
+package org.tudo.sse.multithreading;
+
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Workload shared by the processing engine tests: 50 versions of 10 libraries, where processing one of the artifacts
+ * fails.
+ */
+final class ProcessingWorkload {
+
+    static final int SIZE = 500;
+    static final ArtifactIdent FAILING = new ArtifactIdent("org.engine", "a3", "13");
+
+    private ProcessingWorkload() {}
+
+    /*
+     * Processor recording the processed identifiers, which fails for the FAILING identifier.
+     */
+    static Consumer<ArtifactIdent> processor(Set<ArtifactIdent> processed) {
+        return ident -> {
+            if(ident.equals(FAILING)) {
+                throw new IllegalStateException("Failing on purpose");
+            }
+            processed.add(ident);
+        };
+    }
+
+    /*
+     * Submits the workload version by version and waits for the engine to complete.
+     */
+    static void submit(IProcessingEngine engine) throws InterruptedException {
+        for(int v = 0; v < 50; v++) {
+            for(int a = 0; a < 10; a++) {
+                engine.submit(new ArtifactIdent("org.engine", "a" + a, String.valueOf(v)));
+            }
+        }
+        engine.awaitCompletion();
+    }
+}
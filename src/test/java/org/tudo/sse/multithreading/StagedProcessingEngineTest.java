@@ -0,0 +1,76 @@
+package org.tudo.sse.multithreading;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedProcessingEngineTest {
+
+    @Test
+    void passesItemsThroughAllStages() throws InterruptedException {
+        Set<ArtifactIdent> analyzed = ConcurrentHashMap.newKeySet();
+        Set<String> analyzeThreads = ConcurrentHashMap.newKeySet();
+        StagedProcessingEngine<String, ArtifactIdent> engine = new StagedProcessingEngine<>(8, 2, 1, 4,
+                ident -> ident.getArtifactID().equals("a7") ? null : ident.getCoordinates(),
+                coordinates -> {
+                    if(coordinates.contains(":a13:")) {
+                        throw new IllegalStateException("Failing on purpose");
+                    }
+                    String[] parts = coordinates.split(":");
+                    return new ArtifactIdent(parts[0], parts[1], parts[2]);
+                },
+                ident -> {
+                    analyzeThreads.add(Thread.currentThread().getName());
+                    analyzed.add(ident);
+                });
+
+        for(int i = 0; i < 200; i++) {
+            engine.submit(new ArtifactIdent("org.staged", "a" + i, "1.0"));
+        }
+        engine.awaitCompletion();
+
+        assertEquals(198, analyzed.size());
+        assertFalse(analyzed.contains(new ArtifactIdent("org.staged", "a7", "1.0")));
+        assertEquals(1, analyzeThreads.size());
+
+        List<StagedProcessingEngine.StageStatistics> statistics = engine.getStatistics();
+        assertEquals("fetch", statistics.get(0).getName());
+        assertEquals(200, statistics.get(0).getProcessed());
+        assertEquals(198, statistics.get(1).getProcessed());
+        assertEquals(1, statistics.get(1).getFailed());
+        assertEquals(198, statistics.get(2).getProcessed());
+        for(StagedProcessingEngine.StageStatistics stage : statistics) {
+            assertEquals(0, stage.getQueueDepth());
+        }
+    }
+
+    @Test
+    void waitingForNextStageIsNotBusy() throws InterruptedException {
+        StagedProcessingEngine<ArtifactIdent, ArtifactIdent> engine = new StagedProcessingEngine<>(1, 1, 1, 1,
+                ident -> ident,
+                ident -> ident,
+                ident -> {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+        for(int i = 0; i < 20; i++) {
+            engine.submit(new ArtifactIdent("org.staged", "a" + i, "1.0"));
+        }
+        engine.awaitCompletion();
+
+        // Fetch and parse spend their time waiting for the slow analysis stage
+        List<StagedProcessingEngine.StageStatistics> statistics = engine.getStatistics();
+        assertTrue(statistics.get(0).getUtilization() < 0.5, statistics.get(0)::toString);
+        assertTrue(statistics.get(1).getUtilization() < 0.5, statistics.get(1)::toString);
+        assertTrue(statistics.get(2).getUtilization() > 0.5, statistics.get(2)::toString);
+    }
+}
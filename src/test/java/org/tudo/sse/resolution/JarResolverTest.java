@@ -4,15 +4,32 @@ import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.tudo.sse.model.ArtifactIdent;
 import org.tudo.sse.model.jar.ClassFile;
 import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.storage.JarInformationCache;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,6 +60,24 @@ class JarResolverTest {
             throw new RuntimeException(e);
         }
 
+        assertExpectedJarInformation(toTest);
+    }
+
+    @Test
+    void parseJarHeaderOnly() {
+        JarInformation toTest;
+        jarResolver.setHeaderOnlyParsing(true);
+        ArtifactIdent identifier = new ArtifactIdent("com.google.common.html.types", "types", "1.0.0");
+        try {
+            toTest = jarResolver.parseJar(identifier, jarResolver.fetchJar(identifier)).getJarInformation();
+        } catch (JarResolutionException e) {
+            throw new RuntimeException(e);
+        }
+
+        assertExpectedJarInformation(toTest);
+    }
+
+    void assertExpectedJarInformation(JarInformation toTest) {
         //test statistics
         Map<String, String> stats = (Map<String, String>) json.get("Statistics");
         assertEquals(Long.parseLong(stats.get("codeSize")), toTest.getCodesize());
@@ -79,4 +114,147 @@ class JarResolverTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void parallelParsingMatchesSequential() throws IOException, URISyntaxException, JarResolutionException {
+        byte[] jar = buildJarOfOwnClasses();
+
+        JarInformation sequential = jarResolver.parseJar(new ArtifactIdent("org.parsing", "sequential", "1.0"), jar).getJarInformation();
+        assertTrue(sequential.getNumClassFiles() > 50);
+
+        // Entries before the threshold is reached are parsed while reading, the remaining ones in parallel
+        int classFiles = (int) sequential.getNumClassFiles();
+        int count = 0;
+        for(int threshold : new int[]{1, classFiles / 2, classFiles + 1}) {
+            jarResolver.setParallelParsingThreshold(threshold);
+            JarInformation parallel = jarResolver.parseJar(new ArtifactIdent("org.parsing", "parallel", "1." + count++), jar).getJarInformation();
+
+            assertEquals(sequential.getNumClassFiles(), parallel.getNumClassFiles());
+            assertEquals(sequential.getNumMethods(), parallel.getNumMethods());
+            assertEquals(sequential.getFields(), parallel.getFields());
+            assertEquals(sequential.getCodesize(), parallel.getCodesize());
+            assertEquals(sequential.getPackages().keySet(), parallel.getPackages().keySet());
+            for(Map.Entry<String, List<ClassFile>> entry : sequential.getPackages().entrySet()) {
+                List<ClassFile> parallelClasses = parallel.getPackages().get(entry.getKey());
+                assertEquals(entry.getValue().size(), parallelClasses.size());
+                for(int i = 0; i < parallelClasses.size(); i++) {
+                    assertEquals(entry.getValue().get(i).getThistype().getFqn(), parallelClasses.get(i).getThistype().getFqn());
+                    assertEquals(entry.getValue().get(i).getAccessFlags(), parallelClasses.get(i).getAccessFlags());
+                }
+            }
+        }
+    }
+
+    @Test
+    void headerOnlyParsingMatchesOpal() throws IOException, URISyntaxException, JarResolutionException {
+        byte[] jar = buildJarOfOwnClasses();
+
+        JarInformation opal = jarResolver.parseJar(new ArtifactIdent("org.parsing", "opal", "1.0"), jar).getJarInformation();
+        jarResolver.setHeaderOnlyParsing(true);
+        JarInformation headers = jarResolver.parseJar(new ArtifactIdent("org.parsing", "headers", "1.0"), jar).getJarInformation();
+
+        // OPAL additionally synthesizes class files for lambda expressions, all other class files have to be the same
+        Map<String, ClassFile> opalClasses = new HashMap<>();
+        for(List<ClassFile> classes : opal.getPackages().values()) {
+            for(ClassFile classFile : classes) {
+                opalClasses.put(classFile.getThistype().getFqn(), classFile);
+            }
+        }
+        assertTrue(headers.getNumClassFiles() > 50);
+        for(List<ClassFile> classes : headers.getPackages().values()) {
+            for(ClassFile actual : classes) {
+                ClassFile expected = opalClasses.remove(actual.getThistype().getFqn());
+                assertNotNull(expected);
+                assertEquals(expected.getThistype().getId(), actual.getThistype().getId());
+                assertEquals(expected.getThistype().getPackageName(), actual.getThistype().getPackageName());
+                assertEquals(expected.getAccessFlags(), actual.getAccessFlags());
+                assertEquals(expected.getVersion(), actual.getVersion());
+                assertEquals(expected.getSuperType().getFqn(), actual.getSuperType().getFqn());
+                assertEquals(expected.getInterfaceTypes().size(), actual.getInterfaceTypes().size());
+                for(int j = 0; j < actual.getInterfaceTypes().size(); j++) {
+                    assertEquals(expected.getInterfaceTypes().get(j).getFqn(), actual.getInterfaceTypes().get(j).getFqn());
+                }
+            }
+        }
+        for(String synthesized : opalClasses.keySet()) {
+            assertTrue(synthesized.contains("Lambda"), synthesized);
+        }
+    }
+
+    @Test
+    void resolversShareReaderAcrossThreads() throws Exception {
+        byte[] jar = buildJarOfOwnClasses();
+        long expected = jarResolver.parseJar(new ArtifactIdent("org.parsing", "shared", "0"), jar).getJarInformation().getCodesize();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> codeSizes = new ArrayList<>();
+            for(int i = 1; i <= 8; i++) {
+                ArtifactIdent identifier = new ArtifactIdent("org.parsing", "shared", String.valueOf(i));
+                codeSizes.add(executor.submit(() -> new JarResolver().parseJar(identifier, jar).getJarInformation().getCodesize()));
+            }
+            for(Future<Long> codeSize : codeSizes) {
+                assertEquals(expected, codeSize.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parseJarFileMatchesStream(@TempDir Path dir) throws IOException, URISyntaxException, JarResolutionException {
+        byte[] jar = buildJarOfOwnClasses();
+        Path jarFile = dir.resolve("own.jar");
+        Files.write(jarFile, jar);
+
+        JarInformation stream = jarResolver.parseJar(new ArtifactIdent("org.parsing", "stream", "1.0"), jar).getJarInformation();
+        jarResolver.setParallelParsingThreshold(1);
+        JarInformation mapped = jarResolver.parseJarFile(new ArtifactIdent("org.parsing", "mapped", "1.0"), jarFile).getJarInformation();
+
+        assertEquals(stream.getNumClassFiles(), mapped.getNumClassFiles());
+        assertEquals(stream.getNumMethods(), mapped.getNumMethods());
+        assertEquals(stream.getFields(), mapped.getFields());
+        assertEquals(stream.getCodesize(), mapped.getCodesize());
+        assertEquals(stream.getPackages().keySet(), mapped.getPackages().keySet());
+    }
+
+    @Test
+    void jarCacheSkipsParsing(@TempDir Path dir) throws IOException, URISyntaxException, JarResolutionException {
+        byte[] jar = buildJarOfOwnClasses();
+        JarInformationCache cache = new JarInformationCache(dir);
+        jarResolver.setJarCache(cache);
+
+        JarInformation parsed = jarResolver.parseJar(new ArtifactIdent("org.parsing", "parsed", "1.0"), jar).getJarInformation();
+        assertEquals(0, cache.getHits());
+
+        ArtifactIdent other = new ArtifactIdent("org.parsing", "cached", "1.0");
+        JarInformation cached = jarResolver.parseJar(other, jar).getJarInformation();
+        assertEquals(1, cache.getHits());
+        assertEquals(other, cached.getIdent());
+        assertEquals(gson.toJson(parsed.getPackages()), gson.toJson(cached.getPackages()));
+        assertEquals(parsed.getCodesize(), cached.getCodesize());
+
+        // results of the header reader differ slightly, so they are cached separately
+        jarResolver.setHeaderOnlyParsing(true);
+        jarResolver.parseJar(new ArtifactIdent("org.parsing", "headers", "1.0"), jar);
+        assertEquals(1, cache.getHits());
+    }
+
+    private byte[] buildJarOfOwnClasses() throws IOException, URISyntaxException {
+        Path classes = Paths.get(JarResolver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<Path> classFiles;
+        try(Stream<Path> files = Files.walk(classes)) {
+            classFiles = files.filter(file -> file.toString().endsWith(".class")).sorted().collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(JarOutputStream jar = new JarOutputStream(bytes)) {
+            for(Path classFile : classFiles) {
+                jar.putNextEntry(new JarEntry(classes.relativize(classFile).toString().replace('\\', '/')));
+                jar.write(Files.readAllBytes(classFile));
+                jar.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+}
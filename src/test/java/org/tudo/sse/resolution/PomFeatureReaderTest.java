@@ -0,0 +1,114 @@
+package org.tudo.sse.resolution;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("unchecked")
+class PomFeatureReaderTest {
+
+    private static final Logger log = LogManager.getLogger(PomFeatureReaderTest.class);
+
+    private final Gson gson = new Gson();
+    private final PomResolver resolver = new PomResolver(false);
+    private final ArtifactIdent ident = new ArtifactIdent("g", "a", "1");
+
+    /*
+     * The test POMs plus a few real POM files from Maven Central, which are kept in the test resources.
+     */
+    static List<byte[]> corpus() throws IOException {
+        List<byte[]> poms = new ArrayList<>();
+
+        InputStream resource = PomFeatureReaderTest.class.getClassLoader().getResourceAsStream("PomInputs.json");
+        assert resource != null;
+        Reader targetReader = new InputStreamReader(resource);
+        Map<String, Object> json = new Gson().fromJson(targetReader, new TypeToken<Map<String, Object>>() {}.getType());
+        for(String input : (List<String>) ((Map<String, Object>) json.get("processRawFeatures")).get("inputs")) {
+            poms.add(input.getBytes(StandardCharsets.UTF_8));
+        }
+
+        for(String local : List.of("localPom.xml", "brokenlocalPom.xml", "conflictsPom1.xml", "conflictsPom2.xml",
+                "poms/commons-lang3-3.14.0.pom", "poms/junit-4.13.2.pom", "poms/guava-parent-32.1.3-jre.pom",
+                "poms/maven-core-3.9.6.pom")) {
+            poms.add(Files.readAllBytes(Path.of("src/test/resources", local)));
+        }
+        return poms;
+    }
+
+    @Test
+    void equivalentToMavenModel() throws IOException, XmlPullParserException {
+        for(byte[] pom : corpus()) {
+            Model full = new MavenXpp3Reader().read(new ByteArrayInputStream(pom), true);
+            Model partial = new PomFeatureReader().read(new ByteArrayInputStream(pom));
+
+            assertEquals(full.getGroupId(), partial.getGroupId());
+            assertEquals(full.getArtifactId(), partial.getArtifactId());
+            assertEquals(full.getVersion(), partial.getVersion());
+            assertEquals(gson.toJson(resolver.processRawPomFeatures(full, ident)), gson.toJson(resolver.processRawPomFeatures(partial, ident)));
+        }
+    }
+
+    @Test
+    void stopsAtRelocation() throws IOException, XmlPullParserException {
+        String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version>" +
+                "<distributionManagement><relocation><groupId>g2</groupId></relocation></distributionManagement>" +
+                "<build><plugins><plugin>";
+
+        Model model = new PomFeatureReader(true).read(new ByteArrayInputStream(pom.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("g2", model.getDistributionManagement().getRelocation().getGroupId());
+        assertThrows(IOException.class, () -> new PomFeatureReader().read(new ByteArrayInputStream(pom.getBytes(StandardCharsets.UTF_8))));
+        assertThrows(XmlPullParserException.class, () -> new PomFeatureReader().read(new ByteArrayInputStream("<settings/>".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /*
+     * Compares the throughput of both readers on the corpus. Excluded from the default build, run it with
+     * mvn -P benchmark test -Dtest=PomFeatureReaderTest
+     */
+    @Test
+    @Tag("benchmark")
+    void throughput() throws IOException, XmlPullParserException {
+        List<byte[]> poms = corpus();
+        int rounds = 200;
+
+        for(int warmup = 0; warmup < 2; warmup++) {
+            long fullStart = System.nanoTime();
+            for(int i = 0; i < rounds; i++) {
+                for(byte[] pom : poms) {
+                    assertNotNull(new MavenXpp3Reader().read(new ByteArrayInputStream(pom), true));
+                }
+            }
+            long fullTime = System.nanoTime() - fullStart;
+
+            long partialStart = System.nanoTime();
+            for(int i = 0; i < rounds; i++) {
+                for(byte[] pom : poms) {
+                    assertNotNull(new PomFeatureReader().read(new ByteArrayInputStream(pom)));
+                }
+            }
+            long partialTime = System.nanoTime() - partialStart;
+
+            log.info("Parsed {} POM files: MavenXpp3Reader {} ms, PomFeatureReader {} ms", rounds * poms.size(), fullTime / 1000000, partialTime / 1000000);
+        }
+    }
+}
@@ -14,16 +14,21 @@ import java.util.List;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import org.apache.commons.io.IOUtils;
 import org.tudo.sse.model.pom.Dependency;
 import org.tudo.sse.model.pom.License;
+import org.tudo.sse.model.pom.PomInformation;
 import org.tudo.sse.model.pom.RawPomFeatures;
 import org.tudo.sse.resolution.releases.DefaultMavenReleaseListProvider;
 import org.tudo.sse.resolution.releases.IReleaseListProvider;
+import org.tudo.sse.resolution.releases.ReleaseListCache;
 
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,7 +64,7 @@ class PomResolverTest {
         for(String input : inputs) {
             RawPomFeatures current = null;
             try {
-                current = pomResolver.processRawPomFeatures(IOUtils.toInputStream(input), null);
+                current = pomResolver.processRawPomFeatures(IOUtils.toInputStream(input, StandardCharsets.UTF_8), null);
             } catch (PomResolutionException e) {
                 fail(e);
             }
@@ -69,6 +74,65 @@ class PomResolverTest {
 
     }
 
+    @Test
+    void managedDependencyLookup() {
+        String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version>" +
+                "<dependencyManagement><dependencies>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>1.0</version><scope>test</scope></dependency>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-api</artifactId><version>2.0</version></dependency>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>9.9</version></dependency>" +
+                "</dependencies></dependencyManagement></project>";
+
+        RawPomFeatures features = null;
+        try {
+            features = pomResolver.processRawPomFeatures(IOUtils.toInputStream(pom, StandardCharsets.UTF_8), null);
+        } catch (PomResolutionException e) {
+            fail(e);
+        }
+
+        assertEquals("9.9", features.getManagedDependency("org.x:x-core").getIdent().getVersion());
+        assertNull(features.getManagedDependency("org.x:x-core").getScope());
+        assertEquals("1.0", features.getFirstManagedDependency("org.x:x-core").getIdent().getVersion());
+        assertEquals("2.0", features.getManagedDependency("org.x:x-api").getIdent().getVersion());
+        assertSame(features.getManagedDependency("org.x:x-api"), features.getFirstManagedDependency("org.x:x-api"));
+        assertNull(features.getManagedDependency("org.x:x-impl"));
+        assertNull(features.getFirstManagedDependency("org.x:x-impl"));
+
+        features.getDependencyManagement().remove(2);
+        assertEquals("1.0", features.getManagedDependency("org.x:x-core").getIdent().getVersion());
+        assertEquals("test", features.getManagedDependency("org.x:x-core").getScope());
+
+        // Renaming an indexed dependency in place drops it from its previous tuple
+        features.getDependencyManagement().get(0).getIdent().setArtifactID("x-impl");
+        assertNull(features.getManagedDependency("org.x:x-core"));
+        assertEquals("1.0", features.getFirstManagedDependency("org.x:x-impl").getIdent().getVersion());
+
+        features.setDependencyManagement(new ArrayList<>());
+        assertNull(features.getManagedDependency("org.x:x-core"));
+    }
+
+    @Test
+    void parentManagedDependencyLookup() throws PomResolutionException {
+        String parentPom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>parent</artifactId><version>1</version>" +
+                "<dependencyManagement><dependencies>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>1.0</version></dependency>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>9.9</version><scope>test</scope></dependency>" +
+                "</dependencies></dependencyManagement></project>";
+        String childPom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-core</artifactId></dependency></dependencies></project>";
+
+        PomInformation parent = new PomInformation(new ArtifactIdent("g", "parent", "1"));
+        parent.setRawPomFeatures(pomResolver.processRawPomFeatures(IOUtils.toInputStream(parentPom, StandardCharsets.UTF_8), parent.getIdent()));
+        PomInformation info = new PomInformation(new ArtifactIdent("g", "a", "1"));
+        info.setRawPomFeatures(pomResolver.processRawPomFeatures(IOUtils.toInputStream(childPom, StandardCharsets.UTF_8), info.getIdent()));
+        info.setParent(new Artifact(parent));
+
+        // Versions and scopes managed by a parent come from the first declaration of a G:A tuple
+        Dependency resolved = pomResolver.resolveDependency(info.getRawPomFeatures().getDependencies().get(0), info);
+        assertEquals("org.x:x-core:1.0", resolved.getIdent().getCoordinates());
+        assertEquals("compile", resolved.getScope());
+    }
+
     @Test
     void processArtifacts() {
         //walk 10 indexes
@@ -268,6 +332,198 @@ class PomResolverTest {
 
     }
 
+    @Test
+    void versionRangeReleaseCache() {
+        List<String> versionsAvailable = List.of("1.0", "2.0", "1.5", "3.0-beta", "2.1");
+        AtomicInteger requests = new AtomicInteger(0);
+
+        IReleaseListProvider countingProvider = new IReleaseListProvider() {
+            @Override
+            public List<String> getReleases(ArtifactIdent identifier) throws IOException {
+                requests.incrementAndGet();
+                return versionsAvailable;
+            }
+        };
+
+        PomResolver cachingResolver = new PomResolver(true, countingProvider);
+
+        Dependency first = new Dependency(new ArtifactIdent("g", "a", "[1.0,2.0)"), "compile", false, true, false, null);
+        Dependency second = new Dependency(new ArtifactIdent("g", "a", "(,2.1]"), "compile", false, true, false, null);
+        Dependency third = new Dependency(new ArtifactIdent("g", "a", "[2.0,)"), "compile", false, true, false, null);
+
+        assertEquals("1.5", cachingResolver.resolveVersionRange(first));
+        assertEquals("2.1", cachingResolver.resolveVersionRange(second));
+        assertEquals("3.0-beta", cachingResolver.resolveVersionRange(third));
+        assertEquals(1, requests.get());
+
+        cachingResolver.getReleaseListCache().clear();
+        assertEquals("1.5", cachingResolver.resolveVersionRange(first));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void releaseListCacheIsBounded() throws Exception {
+        AtomicInteger requests = new AtomicInteger(0);
+        ReleaseListCache cache = new ReleaseListCache(identifier -> {
+            requests.incrementAndGet();
+            return List.of("1.0");
+        }, -1, 2);
+
+        cache.getSortedReleases(new ArtifactIdent("g", "a", "1.0"));
+        cache.getSortedReleases(new ArtifactIdent("g", "b", "1.0"));
+        cache.getSortedReleases(new ArtifactIdent("g", "a", "1.0"));
+        cache.getSortedReleases(new ArtifactIdent("g", "c", "1.0"));
+        assertEquals(2, cache.size());
+        assertEquals(3, requests.get());
+
+        // The least recently used release list was evicted
+        cache.getSortedReleases(new ArtifactIdent("g", "a", "1.0"));
+        assertEquals(3, requests.get());
+        cache.getSortedReleases(new ArtifactIdent("g", "b", "1.0"));
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void resolutionProfiles() throws Exception {
+        Map<String, String> poms = new HashMap<>();
+        for(String name : List.of("raw", "chain")) {
+            poms.put("org.example.profiles:" + name + "-parent:1",
+                    "<project><modelVersion>4.0.0</modelVersion><groupId>org.example.profiles</groupId><artifactId>" + name + "-parent</artifactId><version>1</version>" +
+                    "<dependencyManagement><dependencies><dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>1.0</version></dependency></dependencies></dependencyManagement></project>");
+            poms.put("org.example.profiles:" + name + ":1",
+                    "<project><modelVersion>4.0.0</modelVersion><parent><groupId>org.example.profiles</groupId><artifactId>" + name + "-parent</artifactId><version>1</version></parent>" +
+                    "<artifactId>" + name + "</artifactId>" +
+                    "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-core</artifactId></dependency></dependencies></project>");
+        }
+
+        ArtifactIdent ident = new ArtifactIdent("org.example.profiles", "raw", "1");
+        PomResolver rawResolver = offlineResolver(PomResolutionProfile.RAW_ONLY, poms);
+        Artifact raw = rawResolver.resolveArtifact(ident);
+        assertNotNull(raw.getPomInformation().getRawPomFeatures().getParent());
+        assertNull(raw.getPomInformation().getParent());
+        assertNull(raw.getPomInformation().getResolvedDependencies());
+        assertEquals(PomResolutionProfile.RAW_ONLY, raw.getPomInformation().getPartialProfile());
+
+        // Requesting the partial artifact in full completes it in place
+        assertSame(raw, rawResolver.processArtifact(ident));
+        assertNull(raw.getPomInformation().getPartialProfile());
+        assertEquals("raw-parent", raw.getPomInformation().getParent().getIdent().getArtifactID());
+        assertNotNull(raw.getPomInformation().getParent().getPomInformation().getImports());
+
+        ident = new ArtifactIdent("org.example.profiles", "chain", "1");
+        PomResolver chainResolver = offlineResolver(PomResolutionProfile.PARENT_CHAIN, poms);
+        Artifact parentChain = chainResolver.resolveArtifact(ident);
+        Artifact parent = parentChain.getPomInformation().getParent();
+        assertEquals("chain-parent", parent.getIdent().getArtifactID());
+        assertNull(parent.getPomInformation().getImports());
+        assertNull(parentChain.getPomInformation().getResolvedDependencies());
+        assertEquals(PomResolutionProfile.PARENT_CHAIN, parent.getPomInformation().getPartialProfile());
+
+        // The partial resolution is recorded on the artifact, so another resolver completes it as well
+        assertSame(parentChain, offlineResolver(PomResolutionProfile.DIRECT_DEPS, poms).processArtifact(ident));
+        assertNotNull(parent.getPomInformation().getImports());
+        assertEquals(List.of("org.x:x-core:1.0"), coordinates(chainResolver.resolveDependencies(parentChain.getPomInformation())));
+    }
+
+    private PomResolver offlineResolver(PomResolutionProfile profile, Map<String, String> poms) {
+        return new PomResolver(false, null, profile, DefaultMavenReleaseListProvider.getInstance()) {
+            @Override
+            InputStream openPomFile(ArtifactIdent identifier) throws FileNotFoundException, IOException {
+                String pom = poms.get(identifier.getCoordinates());
+                if(pom == null) {
+                    throw new FileNotFoundException(identifier.getMavenCentralPomUri().toURL());
+                }
+                return IOUtils.toInputStream(pom, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    @Test
+    void profileActivation() throws PomResolutionException {
+        String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version>" +
+                "<properties><x.version>1.0</x.version></properties>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>${x.version}</version></dependency></dependencies>" +
+                "<profiles>" +
+                "<profile><id>default</id><activation><activeByDefault>true</activeByDefault></activation>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-default</artifactId><version>1.0</version></dependency></dependencies></profile>" +
+                "<profile><id>modern</id><activation><jdk>[11,)</jdk></activation><properties><x.version>2.0</x.version></properties>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-modern</artifactId><version>${x.version}</version></dependency></dependencies></profile>" +
+                "<profile><id>fast</id><activation><property><name>fast</name></property><os><family>unix</family></os></activation>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-fast</artifactId><version>1.0</version></dependency></dependencies></profile>" +
+                "</profiles></project>";
+
+        PomInformation info = new PomInformation(new ArtifactIdent("g", "a", "1"));
+        info.setRawPomFeatures(pomResolver.processRawPomFeatures(IOUtils.toInputStream(pom, StandardCharsets.UTF_8), info.getIdent()));
+        assertEquals(3, info.getRawPomFeatures().getProfiles().size());
+
+        List<Dependency> legacy = pomResolver.resolveDependencies(info, new ProfileActivationContext("1.8"));
+        assertEquals(List.of("org.x:x-core:1.0", "org.x:x-default:1.0"), coordinates(legacy));
+
+        ProfileActivationContext modern = new ProfileActivationContext("17", Map.of("fast", "true"), Set.of());
+        List<Dependency> effective = pomResolver.resolveDependencies(info, modern);
+        assertEquals(List.of("org.x:x-core:2.0", "org.x:x-modern:2.0"), coordinates(effective));
+
+        effective.get(0).getIdent().setVersion("mutated");
+        assertEquals(List.of("org.x:x-core:2.0", "org.x:x-modern:2.0"), coordinates(pomResolver.resolveDependencies(info, modern)));
+
+        ProfileActivationContext explicit = new ProfileActivationContext("17", Map.of(), Set.of("fast"));
+        assertEquals(List.of("org.x:x-core:2.0", "org.x:x-modern:2.0", "org.x:x-fast:1.0"), coordinates(pomResolver.resolveDependencies(info, explicit)));
+    }
+
+    @Test
+    void parentProfileActivation() throws PomResolutionException {
+        String parentPom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>parent</artifactId><version>1</version>" +
+                "<dependencyManagement><dependencies>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>1.0</version></dependency>" +
+                "</dependencies></dependencyManagement>" +
+                "<profiles><profile><id>modern</id><activation><jdk>[11,)</jdk></activation>" +
+                "<dependencyManagement><dependencies>" +
+                "<dependency><groupId>org.x</groupId><artifactId>x-core</artifactId><version>2.0</version></dependency>" +
+                "</dependencies></dependencyManagement></profile></profiles></project>";
+        String childPom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-core</artifactId></dependency></dependencies></project>";
+
+        PomInformation parent = new PomInformation(new ArtifactIdent("g", "parent", "1"));
+        parent.setRawPomFeatures(pomResolver.processRawPomFeatures(IOUtils.toInputStream(parentPom, StandardCharsets.UTF_8), parent.getIdent()));
+        PomInformation info = new PomInformation(new ArtifactIdent("g", "a", "1"));
+        info.setRawPomFeatures(pomResolver.processRawPomFeatures(IOUtils.toInputStream(childPom, StandardCharsets.UTF_8), info.getIdent()));
+        info.setParent(new Artifact(parent));
+
+        assertEquals(List.of("org.x:x-core:1.0"), coordinates(pomResolver.resolveDependencies(info, new ProfileActivationContext("1.8"))));
+        assertEquals(List.of("org.x:x-core:2.0"), coordinates(pomResolver.resolveDependencies(info, new ProfileActivationContext("17"))));
+        assertNull(info.getRawPomFeatures().getDependencies().get(0).getIdent().getVersion());
+    }
+
+    @Test
+    void effectiveDependencyCacheIsBounded() throws PomResolutionException {
+        String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>a</artifactId><version>1</version>" +
+                "<profiles><profile><id>modern</id><activation><jdk>[11,)</jdk></activation>" +
+                "<dependencies><dependency><groupId>org.x</groupId><artifactId>x-modern</artifactId><version>1.0</version></dependency></dependencies>" +
+                "</profile></profiles></project>";
+        PomResolver resolver = new PomResolver(false);
+        ProfileActivationContext context = new ProfileActivationContext("17");
+        resolver.setActivationContext(context);
+        RawPomFeatures features = resolver.processRawPomFeatures(IOUtils.toInputStream(pom, StandardCharsets.UTF_8), new ArtifactIdent("g", "a", "1"));
+
+        for(int i = 0; i <= PomResolver.MAX_CACHED_EFFECTIVE_DEPENDENCIES; i++) {
+            PomInformation info = new PomInformation(new ArtifactIdent("g", "a", String.valueOf(i)));
+            info.setRawPomFeatures(features);
+            assertEquals(List.of("org.x:x-modern:1.0"), coordinates(resolver.resolveDependencies(info, context)));
+        }
+        assertEquals(PomResolver.MAX_CACHED_EFFECTIVE_DEPENDENCIES, resolver.getCachedEffectiveDependencies());
+
+        resolver.release(new ArtifactIdent("g", "a", "1"));
+        assertEquals(PomResolver.MAX_CACHED_EFFECTIVE_DEPENDENCIES - 1, resolver.getCachedEffectiveDependencies());
+    }
+
+    private List<String> coordinates(List<Dependency> dependencies) {
+        List<String> coordinates = new ArrayList<>();
+        for(Dependency dependency : dependencies) {
+            coordinates.add(dependency.getIdent().getCoordinates());
+        }
+        return coordinates;
+    }
+
     @Test
     void resolveTransitiveDependencies() {
         Map<String, Object> allTransitives = (Map<String, Object>) json.get("allTransitives");
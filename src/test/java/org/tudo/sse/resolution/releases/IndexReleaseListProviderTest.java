@@ -0,0 +1,54 @@
+package org.tudo.sse.resolution.releases;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.index.IndexInformation;
+import org.tudo.sse.model.index.Package;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexReleaseListProviderTest {
+
+    private IndexInformation indexEntry(String g, String a, String v) {
+        return new IndexInformation(new ArtifactIdent(g, a, v), new Package("jar", 0, 0, 0, 0, 0, null));
+    }
+
+    @Test
+    void releasesFromIndex() throws IOException {
+        List<IndexInformation> index = new ArrayList<>();
+        index.add(indexEntry("org.x", "x-core", "1.0"));
+        index.add(indexEntry("org.x", "x-api", "1.0"));
+        index.add(indexEntry("org.x", "x-core", "1.1"));
+        index.add(indexEntry("org.x", "x-core", "1.0"));
+
+        IReleaseListProvider fallback = identifier -> List.of("fallback");
+        IndexReleaseListProvider provider = new IndexReleaseListProvider(index.iterator(), fallback);
+
+        assertEquals(List.of("1.0", "1.1"), provider.getReleases(new ArtifactIdent("org.x", "x-core", null)));
+        assertEquals(List.of("1.0"), provider.getReleases(new ArtifactIdent("org.x", "x-api", "9")));
+        assertEquals(List.of("fallback"), provider.getReleases(new ArtifactIdent("org.y", "y", null)));
+        assertTrue(new IndexReleaseListProvider(index.iterator()).getReleases(new ArtifactIdent("org.y", "y", null)).isEmpty());
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path dir) throws IOException {
+        List<IndexInformation> index = new ArrayList<>();
+        index.add(indexEntry("org.x", "x-core", "1.0"));
+        index.add(indexEntry("org.x", "x-core", "2.0"));
+        index.add(indexEntry("org.z", "z", "0.1"));
+
+        Path snapshot = dir.resolve("releases.txt");
+        new IndexReleaseListProvider(index.iterator()).writeSnapshot(snapshot);
+
+        IndexReleaseListProvider restored = IndexReleaseListProvider.fromSnapshot(snapshot, null);
+        assertEquals(List.of("1.0", "2.0"), restored.getReleases(new ArtifactIdent("org.x", "x-core", null)));
+        assertEquals(List.of("0.1"), restored.getReleases(new ArtifactIdent("org.z", "z", null)));
+        assertFalse(restored.hasReleases(new ArtifactIdent("org.y", "y", null)));
+    }
+}
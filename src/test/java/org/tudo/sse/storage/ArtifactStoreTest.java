@@ -0,0 +1,88 @@
+package org.tudo.sse.storage;
+
+import org.junit.jupiter.api.Test;
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.pom.PomInformation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactStoreTest {
+
+    private static ArtifactIdent ident(int i) {
+        return new ArtifactIdent("org.store", "a" + i, "1.0");
+    }
+
+    private static Artifact put(IArtifactStore store, int i) {
+        return store.compute(ident(i), (key, current) -> current != null ? current : new Artifact(new PomInformation(key)));
+    }
+
+    @Test
+    void lruEvictsLeastRecentlyUsed() {
+        IArtifactStore store = new LruArtifactStore(3, artifact -> 1, 1);
+        for(int i = 0; i < 3; i++) {
+            put(store, i);
+            store.release(ident(i));
+        }
+        assertNotNull(store.get(ident(0)));
+
+        put(store, 3);
+        store.release(ident(3));
+        assertEquals(3, store.size());
+        assertNotNull(store.get(ident(0)));
+        assertNull(store.get(ident(1)));
+    }
+
+    @Test
+    void lruEvictsReleasedOnly() {
+        IArtifactStore store = new LruArtifactStore(3, artifact -> 1, 1);
+        Artifact first = put(store, 0);
+        put(store, 1);
+        put(store, 2);
+        put(store, 3);
+
+        // Artifacts that have not been released are retained beyond the bound
+        assertEquals(4, store.size());
+        assertSame(first, store.get(ident(0)));
+
+        store.release(ident(2));
+        assertNull(store.get(ident(2)));
+        store.release(ident(1));
+        store.release(ident(0));
+        assertEquals(3, store.size());
+
+        // Released artifacts that are accessed again stay released, but are evicted after less recently used ones
+        assertNotNull(store.get(ident(1)));
+        put(store, 4);
+        assertNull(store.get(ident(0)));
+        assertNotNull(store.get(ident(1)));
+        assertNotNull(store.get(ident(3)));
+        assertNotNull(store.get(ident(4)));
+    }
+
+    @Test
+    void lruBoundsWeight() {
+        IArtifactStore store = new LruArtifactStore(10, artifact -> 4, 1);
+        for(int i = 0; i < 100; i++) {
+            put(store, i);
+            store.release(ident(i));
+        }
+        assertTrue(store.size() <= 10);
+        assertNotNull(store.get(ident(99)));
+        assertThrows(IllegalArgumentException.class, () -> new LruArtifactStore(0));
+    }
+
+    @Test
+    void referenceStoreKeepsReferencedArtifacts() {
+        IArtifactStore store = new ReferenceArtifactStore(false);
+        Artifact first = put(store, 0);
+        Artifact second = put(store, 1);
+        store.release(ident(0));
+
+        assertSame(first, store.get(ident(0)));
+        assertSame(first, put(store, 0));
+        assertEquals(2, store.snapshot().size());
+        assertSame(second, store.remove(ident(1)));
+        assertNull(store.get(ident(1)));
+    }
+}
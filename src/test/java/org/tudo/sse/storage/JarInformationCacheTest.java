@@ -0,0 +1,103 @@
+package org.tudo.sse.storage;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.jar.ClassFile;
+import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.model.jar.ObjType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JarInformationCacheTest {
+
+    private static final String SHA1 = "0123456789abcdef0123456789abcdef01234567";
+
+    @TempDir
+    Path tempDir;
+
+    private static JarInformation jar(ArtifactIdent ident) {
+        JarInformation jar = new JarInformation(ident);
+        jar.setNumClassFiles(2);
+        jar.setNumMethods(5);
+        jar.setFields(3);
+        jar.setCodesize(1234);
+        jar.setNumPackages(1);
+        Map<String, List<ClassFile>> packages = new HashMap<>();
+        ObjType object = new ObjType(2, "java/lang/Object", "java/lang");
+        packages.put("org/cache", List.of(
+                new ClassFile(33, new ObjType(1, "org/cache/A", "org/cache"), 55, object, List.of(new ObjType(3, "java/io/Serializable", "java/io"))),
+                new ClassFile(1537, new ObjType(4, "org/cache/B", "org/cache"), 55, object, List.of())));
+        jar.setPackages(packages);
+        return jar;
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Gson gson = new Gson();
+        JarInformationCache cache = new JarInformationCache(tempDir.resolve("cache"));
+        JarInformation original = jar(new ArtifactIdent("org.cache", "a", "1.0"));
+
+        assertNull(cache.get(SHA1, "opal", original.getIdent(), UnaryOperator.identity()));
+        cache.put(SHA1, "opal", original);
+
+        ArtifactIdent other = new ArtifactIdent("org.cache", "b", "2.0");
+        JarInformation loaded = cache.get(SHA1, "opal", other, UnaryOperator.identity());
+        assertNotNull(loaded);
+        assertEquals(other, loaded.getIdent());
+        assertEquals(gson.toJson(original.getPackages()), gson.toJson(loaded.getPackages()));
+        assertEquals(original.getCodesize(), loaded.getCodesize());
+        assertEquals(original.getNumMethods(), loaded.getNumMethods());
+        assertEquals(original.getFields(), loaded.getFields());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // a new instance on the same directory sees the entry
+        assertNotNull(new JarInformationCache(tempDir.resolve("cache")).get(SHA1, "opal", other, UnaryOperator.identity()));
+    }
+
+    @Test
+    void variantsAreSeparate() throws IOException {
+        JarInformationCache cache = new JarInformationCache(tempDir);
+        cache.put(SHA1, "opal", jar(new ArtifactIdent("org.cache", "a", "1.0")));
+
+        assertNull(cache.get(SHA1, "header", new ArtifactIdent("org.cache", "a", "1.0"), UnaryOperator.identity()));
+    }
+
+    @Test
+    void typesAreMapped() throws IOException {
+        JarInformationCache cache = new JarInformationCache(tempDir);
+        cache.put(SHA1, "opal", jar(new ArtifactIdent("org.cache", "a", "1.0")));
+
+        JarInformation loaded = cache.get(SHA1, "opal", new ArtifactIdent("org.cache", "a", "1.0"),
+                type -> new ObjType(type.getId() + 100, type.getFqn(), type.getPackageName()));
+        for(ClassFile classFile : loaded.getPackages().get("org/cache")) {
+            assertTrue(classFile.getThistype().getId() > 100);
+            assertEquals(102, classFile.getSuperType().getId());
+        }
+    }
+
+    @Test
+    void invalidEntriesAreIgnored() throws IOException {
+        JarInformationCache cache = new JarInformationCache(tempDir);
+        cache.put(SHA1, "opal", jar(new ArtifactIdent("org.cache", "a", "1.0")));
+        Path entry = tempDir.resolve(SHA1.substring(0, 2)).resolve(SHA1 + ".opal");
+        byte[] data = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(data, data.length / 2));
+
+        assertNull(cache.get(SHA1, "opal", new ArtifactIdent("org.cache", "a", "1.0"), UnaryOperator.identity()));
+
+        cache.put("not a checksum", "opal", jar(new ArtifactIdent("org.cache", "a", "1.0")));
+        assertNull(cache.get("not a checksum", "opal", new ArtifactIdent("org.cache", "a", "1.0"), UnaryOperator.identity()));
+    }
+}
@@ -0,0 +1,211 @@
+package org.tudo.sse.storage;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tudo.sse.model.Artifact;
+import org.tudo.sse.model.ArtifactIdent;
+import org.tudo.sse.model.index.IndexInformation;
+import org.tudo.sse.model.index.Package;
+import org.tudo.sse.model.jar.ClassFile;
+import org.tudo.sse.model.jar.JarInformation;
+import org.tudo.sse.model.jar.ObjType;
+import org.tudo.sse.model.pom.Dependency;
+import org.tudo.sse.model.pom.License;
+import org.tudo.sse.model.pom.PomInformation;
+import org.tudo.sse.model.pom.RawPomFeatures;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillingArtifactStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ArtifactIdent ident(int i) {
+        return new ArtifactIdent("org.spill", "a" + i, "1." + i);
+    }
+
+    private static Artifact artifact(int i) {
+        ArtifactIdent ident = ident(i);
+        IndexInformation index = new IndexInformation(ident, new Package("jar", 1000L + i, 42, 1, 0, 1, "sha" + i));
+        index.addAPackage(new Package("sources", 1001L + i, 7, 0, 0, 0, null));
+        index.setName("Artifact " + i);
+        index.setIndex(i);
+
+        PomInformation pom = new PomInformation(ident);
+        RawPomFeatures raw = new RawPomFeatures();
+        raw.setName("a" + i);
+        raw.setPackaging("jar");
+        Map<String, String> properties = new HashMap<>();
+        properties.put("version.x", "1.0");
+        raw.setProperties(properties);
+        raw.setLicenses(List.of(new License("Apache-2.0", "https://www.apache.org/licenses/LICENSE-2.0")));
+        raw.setDependencies(List.of(new Dependency(new ArtifactIdent("org.dep", "d", "[1.0,2.0)"), "test", false, true, true, Set.of("org.ex:ex"))));
+        raw.setRepositories(new ArrayList<>());
+        pom.setRawPomFeatures(raw);
+
+        JarInformation jar = new JarInformation(ident);
+        jar.setNumClassFiles(1);
+        jar.setCodesize(1234);
+        Map<String, List<ClassFile>> packages = new HashMap<>();
+        packages.put("org/spill", List.of(new ClassFile(33, new ObjType(1, "org/spill/A", "org/spill"), 55,
+                new ObjType(2, "java/lang/Object", "java/lang"), List.of(new ObjType(3, "java/io/Serializable", "java/io")))));
+        jar.setPackages(packages);
+
+        Artifact artifact = new Artifact(pom);
+        artifact.setIndexInformation(index);
+        artifact.setJarInformation(jar);
+        return artifact;
+    }
+
+    private static void put(IArtifactStore store, Artifact artifact) {
+        store.compute(artifact.getIdent(), (key, current) -> artifact);
+    }
+
+    private static void putReleased(IArtifactStore store, Artifact artifact) {
+        put(store, artifact);
+        store.release(artifact.getIdent());
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        Gson gson = new Gson();
+        try(SpillingArtifactStore store = new SpillingArtifactStore(tempDir.resolve("artifacts.bin"), 1)) {
+            Artifact original = artifact(0);
+            String expectedIndex = gson.toJson(original.getIndexInformation());
+            String expectedJar = gson.toJson(original.getJarInformation());
+            String expectedRaw = gson.toJson(original.getPomInformation().getRawPomFeatures());
+
+            putReleased(store, original);
+            putReleased(store, artifact(1));
+            assertEquals(1, store.spilledSize());
+            assertEquals(2, store.size());
+
+            Artifact loaded = store.get(ident(0));
+            assertNotSame(original, loaded);
+            assertEquals(ident(0), loaded.getIdent());
+            assertEquals(expectedIndex, gson.toJson(loaded.getIndexInformation()));
+            assertEquals(expectedJar, gson.toJson(loaded.getJarInformation()));
+            assertEquals(expectedRaw, gson.toJson(loaded.getPomInformation().getRawPomFeatures()));
+            assertTrue(Files.size(store.getFile()) > 0);
+        }
+    }
+
+    @Test
+    void relinksReferences() throws Exception {
+        try(SpillingArtifactStore store = new SpillingArtifactStore(2)) {
+            Artifact parent = artifact(0);
+            Artifact child = artifact(1);
+            Artifact dependency = artifact(2);
+            child.getPomInformation().setParent(parent);
+            child.getPomInformation().setEffectiveTransitiveDependencies(List.of(dependency));
+            // Cyclic reference back to the child
+            dependency.getPomInformation().setAllTransitiveDependencies(List.of(child));
+
+            putReleased(store, parent);
+            putReleased(store, child);
+            putReleased(store, dependency);
+            for(int i = 3; i < 10; i++) {
+                putReleased(store, artifact(i));
+            }
+            assertEquals(10, store.size());
+
+            Artifact loaded = store.get(ident(1));
+            assertEquals(ident(0), loaded.getPomInformation().getParent().getIdent());
+            Artifact loadedDependency = loaded.getPomInformation().getEffectiveTransitiveDependencies().get(0);
+            assertEquals(ident(2), loadedDependency.getIdent());
+            assertSame(loaded, loadedDependency.getPomInformation().getAllTransitiveDependencies().get(0));
+            assertTrue(store.size() - store.spilledSize() <= 2);
+            assertEquals(10, store.size());
+        }
+    }
+
+    @Test
+    void spillsReleasedOnly() throws Exception {
+        try(SpillingArtifactStore store = new SpillingArtifactStore(2)) {
+            Artifact first = artifact(0);
+            put(store, first);
+            put(store, artifact(1));
+            put(store, artifact(2));
+            // Artifacts that have not been released are kept in memory beyond the bound, so they can still be modified
+            assertEquals(0, store.spilledSize());
+            first.getPomInformation().getRawPomFeatures().setName("modified");
+
+            store.release(ident(1));
+            assertEquals(1, store.spilledSize());
+            store.release(ident(0));
+            store.release(ident(2));
+            put(store, artifact(4));
+            assertEquals(2, store.spilledSize());
+            Artifact loaded = store.get(ident(0));
+            assertNotSame(first, loaded);
+            assertEquals("modified", loaded.getPomInformation().getRawPomFeatures().getName());
+
+            assertNotNull(store.remove(ident(1)));
+            assertNull(store.get(ident(1)));
+            assertEquals(3, store.size());
+        }
+    }
+
+    @Test
+    void concurrentAccess() throws Exception {
+        try(SpillingArtifactStore store = new SpillingArtifactStore(8)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < 8; t++) {
+                int offset = t * 100;
+                futures.add(executor.submit(() -> {
+                    for(int i = offset; i < offset + 100; i++) {
+                        putReleased(store, artifact(i));
+                        int earlier = offset + (i - offset) / 2;
+                        assertEquals(ident(earlier), store.get(ident(earlier)).getIdent());
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            assertEquals(800, store.size());
+            assertTrue(store.size() - store.spilledSize() <= 8);
+            for(int i = 0; i < 800; i++) {
+                assertEquals("Artifact " + i, store.get(ident(i)).getIndexInformation().getName());
+            }
+        }
+    }
+
+    @Test
+    void snapshotLoadsLazily() throws Exception {
+        try(SpillingArtifactStore store = new SpillingArtifactStore(5)) {
+            for(int i = 0; i < 100; i++) {
+                putReleased(store, artifact(i));
+            }
+            assertEquals(95, store.spilledSize());
+
+            Map<ArtifactIdent, Artifact> snapshot = store.snapshot();
+            assertEquals(100, snapshot.size());
+            Set<ArtifactIdent> seen = new HashSet<>();
+            for(Map.Entry<ArtifactIdent, Artifact> entry : snapshot.entrySet()) {
+                assertEquals(entry.getKey(), entry.getValue().getIdent());
+                seen.add(entry.getKey());
+            }
+            assertEquals(100, seen.size());
+            assertEquals("Artifact 42", snapshot.get(ident(42)).getIndexInformation().getName());
+            // Iterating the snapshot does not load artifacts into memory
+            assertEquals(95, store.spilledSize());
+
+            store.clear();
+            assertEquals(0, store.size());
+            assertTrue(snapshot.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.tudo.sse.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedJarFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsStoredAndDeflatedEntries() throws IOException {
+        byte[] text = "class file contents ".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        byte[] random = new byte[5000];
+        new Random(42).nextBytes(random);
+
+        Path file = dir.resolve("test.jar");
+        try(ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.setComment("archive comment");
+            zip.putNextEntry(new ZipEntry("org/example/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("org/example/Deflated.class"));
+            zip.write(text);
+            zip.closeEntry();
+            zip.putNextEntry(stored("org/example/Stored.class", random));
+            zip.write(random);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("org/example/Empty.class"));
+            zip.closeEntry();
+        }
+
+        try(MappedJarFile jar = MappedJarFile.open(file)) {
+            List<MappedJarFile.Entry> entries = jar.getEntries();
+            assertEquals(4, entries.size());
+            assertEquals("org/example/", entries.get(0).getName());
+            assertEquals("org/example/Deflated.class", entries.get(1).getName());
+            assertArrayEquals(text, entries.get(1).read());
+            assertEquals("org/example/Stored.class", entries.get(2).getName());
+            assertArrayEquals(random, entries.get(2).read());
+            assertEquals(0, entries.get(3).read().length);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNoZipArchives() throws IOException {
+        Path file = dir.resolve("broken.jar");
+        try(OutputStream out = Files.newOutputStream(file)) {
+            out.write(new byte[100]);
+        }
+
+        assertThrows(IOException.class, () -> MappedJarFile.open(file));
+    }
+
+    private static ZipEntry stored(String name, byte[] contents) {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(contents.length);
+        entry.setCompressedSize(contents.length);
+        entry.setCrc(crc.getValue());
+        return entry;
+    }
+}
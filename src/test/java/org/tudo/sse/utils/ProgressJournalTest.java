@@ -0,0 +1,191 @@
+package org.tudo.sse.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tudo.sse.model.ArtifactIdent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static ArtifactIdent ident(int i) {
+        return new ArtifactIdent("org.journal", "a" + i, "1.0");
+    }
+
+    @Test
+    void watermarkFollowsCompletedItems() {
+        ProgressJournal journal = new ProgressJournal();
+        for(int i = 0; i < 5; i++) {
+            assertTrue(journal.begin(i, ident(i)));
+        }
+        assertEquals(0, journal.getWatermark());
+
+        journal.complete(ident(1));
+        journal.complete(ident(2));
+        assertEquals(0, journal.getWatermark());
+
+        journal.complete(ident(0));
+        assertEquals(3, journal.getWatermark());
+
+        journal.complete(ident(3));
+        assertEquals(4, journal.getWatermark());
+
+        // The watermark moves past the last item once nothing is in flight
+        journal.complete(ident(4));
+        assertEquals(5, journal.getWatermark());
+        assertEquals(5, journal.getCompleted());
+        assertEquals(0, journal.getInFlight());
+        assertTrue(journal.isCompleted(4));
+    }
+
+    @Test
+    void watermarkMovesPastWalkedPositionsWithoutItems() {
+        ProgressJournal journal = new ProgressJournal();
+        journal.begin(0, ident(0));
+        journal.begin(2, ident(2));
+        journal.walkedTo(5);
+        assertEquals(0, journal.getWatermark());
+
+        journal.complete(ident(0));
+        assertEquals(2, journal.getWatermark());
+
+        journal.complete(ident(2));
+        assertEquals(5, journal.getWatermark());
+    }
+
+    @Test
+    void failedItemsHoldBackWatermark() {
+        ProgressJournal journal = new ProgressJournal();
+        for(int i = 0; i < 5; i++) {
+            journal.begin(i, ident(i));
+        }
+        journal.complete(ident(0));
+        journal.fail(ident(1));
+        journal.complete(ident(2));
+        journal.complete(ident(3));
+        journal.complete(ident(4));
+        assertEquals(1, journal.getWatermark());
+        assertEquals(1, journal.getFailed());
+        assertFalse(journal.isCompleted(1));
+        assertTrue(journal.isCompleted(3));
+
+        assertTrue(journal.begin(1, ident(1)));
+        journal.complete(ident(1));
+        assertEquals(5, journal.getWatermark());
+        assertEquals(0, journal.getFailed());
+    }
+
+    @Test
+    void inMemoryJournalForgetsItemsBelowWatermark() {
+        ProgressJournal journal = new ProgressJournal();
+        int items = 3 * ProgressJournal.CHECKPOINT_INTERVAL;
+        for(int i = 0; i < items; i++) {
+            journal.begin(i, ident(i));
+            journal.complete(ident(i));
+        }
+        assertEquals(items, journal.getWatermark());
+        assertTrue(journal.getTracked() < ProgressJournal.CHECKPOINT_INTERVAL);
+        assertTrue(journal.isCompleted(0));
+        assertFalse(journal.begin(42, ident(42)));
+    }
+
+    @Test
+    void resumeSkipsCompletedAndRetriesFailed() throws IOException {
+        Path file = dir.resolve("journal");
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            for(int i = 0; i < 10; i++) {
+                journal.begin(i, ident(i));
+            }
+            journal.complete(ident(0));
+            journal.complete(ident(1));
+            journal.fail(ident(2));
+            journal.complete(ident(3));
+            journal.complete(ident(7));
+        }
+
+        // A resumed run walks from the watermark like indexProcessor, so the failed item is retried
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            assertEquals(2, journal.getWatermark());
+            assertEquals(1, journal.getFailed());
+            assertEquals(List.of(2L, 4L, 5L, 6L, 8L, 9L), walk(journal, 10));
+
+            journal.complete(ident(2));
+            journal.complete(ident(4));
+            assertEquals(0, journal.getFailed());
+        }
+
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            assertEquals(5, journal.getWatermark());
+            assertTrue(journal.isCompleted(2));
+            assertFalse(journal.isCompleted(5));
+            assertEquals(List.of(5L, 6L, 8L, 9L), walk(journal, 10));
+        }
+    }
+
+    /*
+     * Registers all items from the watermark up to the given end, returning the positions that have to be processed.
+     */
+    private static List<Long> walk(ProgressJournal journal, int end) {
+        List<Long> processed = new ArrayList<>();
+        for(long position = journal.getWatermark(); position < end; position++) {
+            if(journal.begin(position, ident((int) position))) {
+                processed.add(position);
+            }
+        }
+        return processed;
+    }
+
+    @Test
+    void compactionKeepsOnlyRecordsAboveWatermark() throws IOException {
+        Path file = dir.resolve("journal");
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            for(int i = 0; i < 100; i++) {
+                journal.begin(i, ident(i));
+            }
+            for(int i = 0; i < 100; i++) {
+                if(i != 50) {
+                    journal.complete(ident(i));
+                }
+            }
+            assertTrue(Files.readAllLines(file).size() >= 99);
+
+            journal.compact();
+            List<String> lines = Files.readAllLines(file);
+            assertEquals("W 50", lines.get(0));
+            assertEquals(50, lines.size());
+        }
+    }
+
+    @Test
+    void ignoresPartiallyWrittenRecord() throws IOException {
+        Path file = dir.resolve("journal");
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            journal.begin(0, ident(0));
+            journal.begin(1, ident(1));
+            journal.complete(ident(0));
+        }
+        Files.write(file, "D 1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            assertTrue(journal.isCompleted(0));
+            assertFalse(journal.isCompleted(1));
+            journal.begin(1, ident(1));
+            journal.complete(ident(1));
+        }
+
+        try(ProgressJournal journal = ProgressJournal.open(file)) {
+            assertTrue(journal.isCompleted(1));
+        }
+    }
+}